@@ -0,0 +1,114 @@
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A small benchmark harness. Each task performs a known number of operations
+ * per invocation; the harness warms it up, times a number of measured
+ * invocations, and records the throughput, the average time per operation and,
+ * where the JVM supports it, the bytes allocated per operation.
+ *
+ * Iteration counts are read from the system properties {@code bench.warmup}
+ * and {@code bench.iterations}. Results are printed as a JSON array.
+ */
+public class Bench {
+
+    public interface Task {
+        /**
+         * Runs one invocation of the benchmark.
+         * @return  a value derived from the results, to keep them live.
+         */
+        double run();
+    }
+
+    public static class Result {
+        public final String name;
+        public final String params;
+        public final double opsPerSecond;
+        public final double nanosPerOp;
+        public final double bytesPerOp;
+
+        Result(String name, String params, double opsPerSecond, double nanosPerOp, double bytesPerOp) {
+            this.name = name;
+            this.params = params;
+            this.opsPerSecond = opsPerSecond;
+            this.nanosPerOp = nanosPerOp;
+            this.bytesPerOp = bytesPerOp;
+        }
+    }
+
+    private static final int WARMUP = Integer.getInteger("bench.warmup", 10);
+    private static final int ITERATIONS = Integer.getInteger("bench.iterations", 10);
+
+    private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+    private static volatile double sink;
+
+    private final List<Result> results = new ArrayList<>();
+
+    /**
+     * Measures a task.
+     *
+     * @param   name    the benchmark name.
+     * @param   params  a description of the parameters, or an empty string.
+     * @param   ops     the number of operations performed by one invocation.
+     * @param   task    the benchmark body.
+     *
+     * @return  the recorded result.
+     */
+    public Result run(String name, String params, long ops, Task task) {
+        for (int i = 0; i < WARMUP; i++)
+            sink += task.run();
+
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++)
+            sink += task.run();
+        long elapsed = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+
+        double total = (double) ops * ITERATIONS;
+        Result result = new Result(name, params, total / elapsed * 1e9, elapsed / total,
+                bytes < 0 ? Double.NaN : bytes / total);
+        this.results.add(result);
+        System.err.printf(Locale.ROOT, "%-40s %-24s %12.3f ns/op %10.2f B/op%n",
+                name, params, result.nanosPerOp, result.bytesPerOp);
+        return result;
+    }
+
+    public List<Result> results() {
+        return this.results;
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("[\n");
+        for (int i = 0; i < this.results.size(); i++) {
+            Result r = this.results.get(i);
+            sb.append(String.format(Locale.ROOT,
+                    "  {\"benchmark\": \"%s\", \"params\": \"%s\", \"opsPerSecond\": %.1f, \"nanosPerOp\": %.4f, \"bytesPerOp\": %s}",
+                    r.name, r.params, r.opsPerSecond, r.nanosPerOp,
+                    Double.isNaN(r.bytesPerOp) ? "null" : String.format(Locale.ROOT, "%.2f", r.bytesPerOp)));
+            sb.append(i + 1 < this.results.size() ? ",\n" : "\n");
+        }
+        return sb.append("]").toString();
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS == null)
+            return -1;
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        try {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (!bean.isThreadAllocatedMemorySupported())
+                return null;
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        } catch (ClassCastException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Runs every benchmark and writes the results as JSON, to the file named by
+ * the first argument or to standard output.
+ */
+public class Benchmarks {
+
+    public static void main(String[] args) throws IOException {
+        Bench bench = new Bench();
+        OperatorBenchmark.run(bench);
+        MutableRectangularBenchmark.run(bench);
+        FFTBenchmark.run(bench);
+        UnitRootsBenchmark.run(bench);
+        ParallelBenchmark.run(bench);
+        SimdBenchmark.run(bench);
+        DivisionBenchmark.run(bench);
+        ExprBenchmark.run(bench);
+        FileBenchmark.run(bench);
+        ParserBenchmark.run(bench);
+        FormatBenchmark.run(bench);
+        PolarBenchmark.run(bench);
+        PolynomialBenchmark.run(bench);
+        MatrixBenchmark.run(bench);
+        FunctionsBenchmark.run(bench);
+        ComplexBenchmark.run(bench);
+        SignalBenchmark.run(bench);
+        MeasureBenchmark.run(bench);
+        MetricsBenchmark.run(bench);
+        FloatBenchmark.run(bench);
+        ReductionsBenchmark.run(bench);
+        EscapeBenchmark.run(bench);
+        DDBenchmark.run(bench);
+
+        String json = bench.toJson();
+        if (args.length > 0)
+            Files.write(Paths.get(args[0]), json.getBytes(StandardCharsets.UTF_8));
+        else
+            System.out.println(json);
+    }
+}
@@ -0,0 +1,131 @@
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the final value type {@link Complex} with the abstract
+ * {@link ComplexNumber} in the loops where the difference shows: a
+ * multiply-accumulate over an array typed {@code ComplexNumber[]} that holds
+ * a mix of {@link Rectangular}, {@link Polar} and {@link MutableRectangular},
+ * so that {@code real()} and {@code imag()} are megamorphic calls; the same
+ * loop over {@code Rectangular[]}, monomorphic by profile only; and over
+ * {@code Complex[]}, monomorphic by type. One operation is one element.
+ *
+ * It also measures deduplication in a {@link HashMap}, with {@code Complex}
+ * keys against the {@code toString()} keys callers had to use, since
+ * {@code Rectangular} defines no {@code equals}.
+ *
+ * To see the inlining decisions, run with
+ * {@code -XX:+UnlockDiagnosticVMOptions -XX:+PrintInlining} and look for
+ * {@code ComplexNumber::real} reported as a virtual call in the first loop,
+ * and {@code Complex::real} as inlined in the last.
+ *
+ * Before measuring, {@code equals} and {@code hashCode} are checked on
+ * signed zeros, NaNs and numbers created from both forms.
+ */
+public class ComplexBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 14);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        verify();
+
+        Random random = new Random(17);
+        ComplexNumber[] mixed = new ComplexNumber[N];
+        Rectangular[] rectangular = new Rectangular[N];
+        Complex[] values = new Complex[N];
+        for (int i = 0; i < N; i++) {
+            double x = random.nextGaussian(), y = random.nextGaussian();
+            switch (i % 3) {
+                case 0: mixed[i] = new Rectangular(x, y); break;
+                case 1: mixed[i] = new Rectangular(x, y).toComplexPolar(); break;
+                default: mixed[i] = new MutableRectangular(x, y); break;
+            }
+            rectangular[i] = new Rectangular(mixed[i].real(), mixed[i].imag());
+            values[i] = Complex.of(mixed[i]);
+        }
+        String params = "n=" + N;
+
+        bench.run("complex.dispatch.abstract", params + ",types=3", N, () -> {
+            double re = 0, im = 0;
+            for (int i = 1; i < N; i++) {
+                ComplexNumber a = mixed[i - 1], b = mixed[i];
+                re += a.real()*b.real() - a.imag()*b.imag();
+                im += a.real()*b.imag() + a.imag()*b.real();
+            }
+            return re + im;
+        });
+        bench.run("complex.dispatch.rectangular", params, N, () -> {
+            double re = 0, im = 0;
+            for (int i = 1; i < N; i++) {
+                Rectangular a = rectangular[i - 1], b = rectangular[i];
+                re += a.real()*b.real() - a.imag()*b.imag();
+                im += a.real()*b.imag() + a.imag()*b.real();
+            }
+            return re + im;
+        });
+        bench.run("complex.dispatch.final", params, N, () -> {
+            double re = 0, im = 0;
+            for (int i = 1; i < N; i++) {
+                Complex a = values[i - 1], b = values[i];
+                re += a.real()*b.real() - a.imag()*b.imag();
+                im += a.real()*b.imag() + a.imag()*b.real();
+            }
+            return re + im;
+        });
+        bench.run("complex.times.static", params, N, () -> {
+            Rectangular p = new Rectangular(1, 0);
+            for (int i = 0; i < N; i++)
+                p = ComplexNumber.TimesC(p, rectangular[i]);
+            return p.real();
+        });
+        bench.run("complex.times.final", params, N, () -> {
+            Complex p = Complex.ONE;
+            for (int i = 0; i < N; i++)
+                p = p.times(values[i]);
+            return p.real();
+        });
+
+        // many repeats, as in a cache of unit roots or a set of visited points
+        Complex[] keys = new Complex[N];
+        for (int i = 0; i < N; i++)
+            keys[i] = values[random.nextInt(N / 16)];
+        bench.run("complex.hash.string", params, N, () -> {
+            Map<String, Integer> counts = new HashMap<>();
+            for (Complex z : keys)
+                counts.merge(z.toComplexRect().toString(), 1, Integer::sum);
+            return counts.size();
+        });
+        bench.run("complex.hash.value", params, N, () -> {
+            Map<Complex, Integer> counts = new HashMap<>();
+            for (Complex z : keys)
+                counts.merge(z, 1, Integer::sum);
+            return counts.size();
+        });
+    }
+
+    private static void verify() {
+        same(Complex.of(0.0, 0.0), Complex.of(-0.0, -0.0));
+        same(Complex.of(Double.NaN, 1), Complex.of(Double.longBitsToDouble(0x7ff8_0000_0000_0001L), 1));
+        same(Complex.of(Double.NaN, 1), Complex.of(0.0 / 0.0, 1));
+        same(Complex.of(0, 1), Complex.of(new Polar(1, Math.PI / 2)));
+        same(Complex.of(-2, 0), Complex.ofPolar(2, Math.PI));
+        same(Complex.of(0, -3), Complex.ofPolar(3, -Math.PI / 2 + 4 * Math.PI));
+        same(Complex.of(1.5, -2.5), Complex.of(new MutableRectangular(1.5, -2.5)));
+        if (Complex.of(1, 2).equals(Complex.of(2, 1)) || Complex.of(1, 0).equals(new Rectangular(1, 0)))
+            throw new AssertionError("unequal numbers compare equal");
+        if (Complex.of(Double.NaN, 0).equals(Complex.of(Double.NaN, 1)))
+            throw new AssertionError("NaN parts make unequal numbers equal");
+    }
+
+    private static void same(Complex a, Complex b) {
+        if (!a.equals(b) || !b.equals(a) || a.hashCode() != b.hashCode())
+            throw new AssertionError(a + " and " + b + " should be equal with equal hash codes");
+    }
+}
@@ -0,0 +1,282 @@
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+/**
+ * Compares {@link DDComplexArray} with the double precision path it extends,
+ * {@link ComplexArray}, and with {@link BigDecimal} arithmetic to the same 32
+ * digits, which is what code needing more than a double used before. One
+ * operation is one element. The {@code BigDecimal} loops run over a prefix
+ * of the arrays, being some hundred times slower.
+ *
+ * Before measuring, sums, products, quotients, moduli and integer powers of
+ * random double-double numbers are checked against {@code BigDecimal}
+ * results to 60 digits, and the largest normwise relative errors are
+ * printed, and so are those of quotients of operands near overflow and
+ * underflow. A polynomial with a fivefold root is then evaluated near the
+ * root by Horner's rule in both precisions, where the double result keeps
+ * a digit or two and the double-double one most of its 32.
+ */
+public class DDBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 16);
+    static final int CHECKED = 1 << 11;
+    static final int DECIMALS = Math.min(N, 1 << 12);
+
+    private static final MathContext EXACT = new MathContext(60);
+    private static final MathContext DIGITS = new MathContext(32);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        verify(random(new Random(24), CHECKED), random(new Random(25), CHECKED));
+        horner();
+
+        DDComplexArray a = random(new Random(26), N), b = random(new Random(27), N), dst = new DDComplexArray(N);
+        ComplexArray x = a.toComplexArray(), y = b.toComplexArray(), z = new ComplexArray(N);
+        double[] high = new double[N], low = new double[N];
+        BigDecimal[][] p = decimals(a), q = decimals(b);
+        String params = "n=" + N;
+        String decimalParams = "n=" + DECIMALS;
+
+        bench.run("dd.PlusC.double", params, N, () -> {
+            ComplexArray.PlusC(x, y, z);
+            return z.real(N / 2);
+        });
+        bench.run("dd.PlusC", params, N, () -> {
+            DDComplexArray.PlusC(a, b, dst);
+            return dst.reHigh()[N / 2];
+        });
+        bench.run("dd.PlusC.bigdecimal", decimalParams, DECIMALS, () -> {
+            double s = 0;
+            for (int i = 0; i < DECIMALS; i++)
+                s += p[0][i].add(q[0][i], DIGITS).doubleValue() + p[1][i].add(q[1][i], DIGITS).doubleValue();
+            return s;
+        });
+
+        bench.run("dd.TimesC.double", params, N, () -> {
+            ComplexArray.TimesC(x, y, z);
+            return z.real(N / 2);
+        });
+        bench.run("dd.TimesC", params, N, () -> {
+            DDComplexArray.TimesC(a, b, dst);
+            return dst.reHigh()[N / 2];
+        });
+        bench.run("dd.TimesC.bigdecimal", decimalParams, DECIMALS, () -> {
+            double s = 0;
+            for (int i = 0; i < DECIMALS; i++) {
+                BigDecimal[] r = times(p[0][i], p[1][i], q[0][i], q[1][i], DIGITS);
+                s += r[0].doubleValue() + r[1].doubleValue();
+            }
+            return s;
+        });
+
+        bench.run("dd.DivideC.double", params, N, () -> {
+            ComplexArray.DivideC(x, y, z);
+            return z.real(N / 2);
+        });
+        bench.run("dd.DivideC", params, N, () -> {
+            DDComplexArray.DivideC(a, b, dst);
+            return dst.reHigh()[N / 2];
+        });
+        bench.run("dd.DivideC.bigdecimal", decimalParams, DECIMALS, () -> {
+            double s = 0;
+            for (int i = 0; i < DECIMALS; i++) {
+                BigDecimal[] r = divide(p[0][i], p[1][i], q[0][i], q[1][i], DIGITS);
+                s += r[0].doubleValue() + r[1].doubleValue();
+            }
+            return s;
+        });
+
+        double[] moduli = new double[N];
+        bench.run("dd.modulus.double", params, N, () -> {
+            ComplexArray.modulus(x, moduli);
+            return moduli[N / 2];
+        });
+        bench.run("dd.modulus", params, N, () -> {
+            DDComplexArray.modulus(a, high, low);
+            return high[N / 2];
+        });
+        bench.run("dd.modulus.bigdecimal", decimalParams, DECIMALS, () -> {
+            double s = 0;
+            for (int i = 0; i < DECIMALS; i++)
+                s += p[0][i].multiply(p[0][i], DIGITS).add(p[1][i].multiply(p[1][i], DIGITS), DIGITS).sqrt(DIGITS).doubleValue();
+            return s;
+        });
+
+        bench.run("dd.power.n=13.double", params, N, () -> {
+            ComplexArray.power(x, 13, z);
+            return z.real(N / 2);
+        });
+        bench.run("dd.power.n=13", params, N, () -> {
+            DDComplexArray.power(a, 13, dst);
+            return dst.reHigh()[N / 2];
+        });
+        bench.run("dd.power.n=13.bigdecimal", decimalParams, DECIMALS, () -> {
+            double s = 0;
+            for (int i = 0; i < DECIMALS; i++) {
+                BigDecimal[] r = power(p[0][i], p[1][i], 13, DIGITS);
+                s += r[0].doubleValue() + r[1].doubleValue();
+            }
+            return s;
+        });
+
+        for (String op : new String[] { "PlusC", "TimesC", "DivideC", "modulus", "power.n=13" })
+            report(bench, op);
+    }
+
+    private static void report(Bench bench, String op) {
+        double dd = 0, plain = 0, decimal = 0;
+        for (Bench.Result result : bench.results()) {
+            if (result.name.equals("dd." + op))
+                dd = result.opsPerSecond;
+            else if (result.name.equals("dd." + op + ".double"))
+                plain = result.opsPerSecond;
+            else if (result.name.equals("dd." + op + ".bigdecimal"))
+                decimal = result.opsPerSecond;
+        }
+        System.err.printf("  %s: %.1f M/s, %.1fx slower than double, %.0fx faster than BigDecimal%n",
+                op, dd / 1e6, plain / dd, dd / decimal);
+    }
+
+    /** Numbers whose low words are random too, so that no operand is exactly a double. */
+    private static DDComplexArray random(Random random, int n) {
+        DDComplexArray a = new DDComplexArray(n);
+        for (int i = 0; i < n; i++) {
+            double re = random.nextGaussian(), im = random.nextGaussian();
+            a.set(i, DDComplex.of(re, re * random.nextDouble() * 0x1p-53, im, im * random.nextDouble() * 0x1p-53));
+        }
+        return a;
+    }
+
+    private static BigDecimal[][] decimals(DDComplexArray a) {
+        BigDecimal[][] d = new BigDecimal[2][DECIMALS];
+        for (int i = 0; i < DECIMALS; i++) {
+            d[0][i] = a.get(i).exactReal().round(DIGITS);
+            d[1][i] = a.get(i).exactImag().round(DIGITS);
+        }
+        return d;
+    }
+
+    private static void verify(DDComplexArray a, DDComplexArray b) {
+        int n = a.length();
+        DDComplexArray sum = new DDComplexArray(n), product = new DDComplexArray(n), quotient = new DDComplexArray(n);
+        DDComplexArray square = new DDComplexArray(n), reciprocal = new DDComplexArray(n);
+        double[] high = new double[n], low = new double[n];
+        DDComplexArray.PlusC(a, b, sum);
+        DDComplexArray.TimesC(a, b, product);
+        DDComplexArray.DivideC(a, b, quotient);
+        DDComplexArray.modulus(a, high, low);
+        DDComplexArray.power(a, 13, square);
+        DDComplexArray.power(a, -7, reciprocal);
+
+        double[] worst = new double[6];
+        for (int i = 0; i < n; i++) {
+            DDComplex p = a.get(i), q = b.get(i);
+            BigDecimal x = p.exactReal(), y = p.exactImag(), u = q.exactReal(), v = q.exactImag();
+            worst[0] = Math.max(worst[0], error(sum.get(i), x.add(u), y.add(v)));
+            worst[1] = Math.max(worst[1], error(product.get(i), times(x, y, u, v, EXACT)));
+            worst[2] = Math.max(worst[2], error(quotient.get(i), divide(x, y, u, v, EXACT)));
+            BigDecimal r = x.multiply(x).add(y.multiply(y)).sqrt(EXACT);
+            worst[3] = Math.max(worst[3], error(DDComplex.of(high[i], low[i], 0, 0), r, BigDecimal.ZERO));
+            worst[4] = Math.max(worst[4], error(square.get(i), power(x, y, 13, EXACT)));
+            worst[5] = Math.max(worst[5], error(reciprocal.get(i), power(x, y, -7, EXACT)));
+
+            // the objects share the kernels, and the arrays must match them exactly
+            if (!DDComplex.TimesC(p, q).equals(product.get(i)) || !DDComplex.DivideC(p, q).equals(quotient.get(i)))
+                throw new AssertionError("DDComplex and DDComplexArray differ at " + i);
+        }
+
+        String[] names = { "PlusC", "TimesC", "DivideC", "modulus", "power n=13", "power n=-7" };
+        for (int k = 0; k < names.length; k++) {
+            System.err.printf("  %s: largest relative error 2^%.1f%n", names[k], Math.log(worst[k]) / Math.log(2));
+            double bound = k < 4 ? 0x1p-100 : 0x1p-96;
+            if (!(worst[k] <= bound))
+                throw new AssertionError(names[k] + ": relative error " + worst[k] + " above " + bound);
+        }
+
+        // operands near the ends of the range, whose quotients are representable
+        double[][] extremes = {
+            { 1e308, 1e308, 1, 1 },
+            { 1e300, -1e300, 1e-8, 3e-8 },
+            { 1e-200, 2e-200, 1e50, -1e50 },
+            { 3e-250, 1e-250, 2e-260, -7e-260 },
+            { 1e308, -3e307, 1e308, 1e308 }
+        };
+        double extreme = 0;
+        for (double[] e : extremes) {
+            DDComplex p = DDComplex.of(e[0], e[0] * 0x1p-60, e[1], e[1] * -0x1p-61);
+            DDComplex q = DDComplex.of(e[2], e[2] * 0x1p-59, e[3], 0);
+            DDComplex r = DDComplex.DivideC(p, q);
+            boolean finite = Double.isFinite(r.realHigh()) && Double.isFinite(r.imagHigh());
+            double error = finite ? error(r, divide(p.exactReal(), p.exactImag(), q.exactReal(), q.exactImag(), EXACT)) : Double.NaN;
+            if (!(error <= 0x1p-100))
+                throw new AssertionError("DivideC of " + p + " by " + q + ": " + r + ", relative error " + error);
+            extreme = Math.max(extreme, error);
+        }
+        System.err.printf("  DivideC near overflow and underflow: largest relative error 2^%.1f%n", Math.log(extreme) / Math.log(2));
+
+        Rectangular rounded = DDComplex.of(1, 0x1p-80, 0.5, -0x1p-80).toComplexRect();
+        if (rounded.real() != 1 || rounded.imag() != 0.5 || !DDComplex.of(new Rectangular(0.1, 0.2)).equals(DDComplex.of(0.1, 0.2)))
+            throw new AssertionError("conversions to and from Rectangular");
+    }
+
+    /**
+     * (z - r)^5 expanded, with r = 0.75 + 0.5i so that every coefficient is
+     * exact, evaluated at z = r + δ; the exact value is δ^5, under 10⁻¹⁴.
+     */
+    private static void horner() {
+        Rectangular r = new Rectangular(0.75, 0.5);
+        Rectangular[] c = new Rectangular[6];
+        c[0] = new Rectangular(1, 0);
+        for (int k = 1; k <= 5; k++)
+            c[k] = new Rectangular(0, 0);
+        for (int m = 1; m <= 5; m++)
+            for (int k = m; k >= 1; k--)
+                c[k] = ComplexNumber.MinusC(c[k], ComplexNumber.TimesC(c[k - 1], r));
+
+        Rectangular z = new Rectangular(0.7513, 0.5007);
+        Rectangular p = c[0];
+        DDComplex zz = DDComplex.of(z), pp = DDComplex.of(c[0]);
+        for (int k = 1; k <= 5; k++) {
+            p = ComplexNumber.PlusC(ComplexNumber.TimesC(p, z), c[k]);
+            pp = DDComplex.PlusC(DDComplex.TimesC(pp, zz), DDComplex.of(c[k]));
+        }
+        BigDecimal[] exact = power(new BigDecimal(z.real()).subtract(new BigDecimal(r.real())),
+                new BigDecimal(z.imag()).subtract(new BigDecimal(r.imag())), 5, EXACT);
+        double plain = error(DDComplex.of(p), exact), dd = error(pp, exact);
+        System.err.printf("  Horner near a fivefold root: relative error %.2g in double, %.2g in double-double%n", plain, dd);
+        if (!(dd < 0x1p-50))
+            throw new AssertionError("double-double Horner relative error " + dd);
+    }
+
+    /** |z - exact| / |exact|, normwise. */
+    private static double error(DDComplex z, BigDecimal... exact) {
+        double dr = z.exactReal().subtract(exact[0]).doubleValue(), di = z.exactImag().subtract(exact[1]).doubleValue();
+        return Math.hypot(dr, di) / Math.hypot(exact[0].doubleValue(), exact[1].doubleValue());
+    }
+
+    private static BigDecimal[] times(BigDecimal x, BigDecimal y, BigDecimal u, BigDecimal v, MathContext mc) {
+        return new BigDecimal[] {
+            x.multiply(u, mc).subtract(y.multiply(v, mc), mc),
+            x.multiply(v, mc).add(y.multiply(u, mc), mc)
+        };
+    }
+
+    private static BigDecimal[] divide(BigDecimal x, BigDecimal y, BigDecimal u, BigDecimal v, MathContext mc) {
+        BigDecimal d = u.multiply(u, mc).add(v.multiply(v, mc), mc);
+        BigDecimal[] n = times(x, y, u, v.negate(), mc);
+        return new BigDecimal[] { n[0].divide(d, mc), n[1].divide(d, mc) };
+    }
+
+    private static BigDecimal[] power(BigDecimal x, BigDecimal y, int n, MathContext mc) {
+        BigDecimal[] p = { BigDecimal.ONE, BigDecimal.ZERO };
+        for (int k = 0; k < Math.abs(n); k++)
+            p = times(p[0], p[1], x, y, mc);
+        return n < 0 ? divide(BigDecimal.ONE, BigDecimal.ZERO, p[0], p[1], mc) : p;
+    }
+}
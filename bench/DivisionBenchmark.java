@@ -0,0 +1,90 @@
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+/**
+ * Compares rectangular division by Smith's algorithm ({@code DivideC}) and by
+ * the strict variant ({@code DivideCStrict}) with the former round trip
+ * through polar form and with the textbook formula. It also reports the
+ * largest error of each method in ulps against an exact reference, for
+ * ordinary operands and for operands near the overflow and underflow
+ * thresholds.
+ */
+public class DivisionBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 14);
+
+    interface Division {
+        Rectangular apply(Rectangular a, Rectangular b);
+    }
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        Division[] methods = { DivisionBenchmark::polar, DivisionBenchmark::textbook, ComplexNumber::DivideC, ComplexNumber::DivideCStrict };
+        String[] names = { "polar", "textbook", "DivideC", "DivideCStrict" };
+
+        for (double scale : new double[] { 1, 1e300, 1e-300 }) {
+            Random random = new Random(7);
+            Rectangular[] a = new Rectangular[N], b = new Rectangular[N];
+            for (int i = 0; i < N; i++) {
+                a[i] = new Rectangular(random.nextGaussian() * scale, random.nextGaussian() * scale);
+                b[i] = new Rectangular(random.nextGaussian() * scale, random.nextGaussian() * scale);
+            }
+            for (int m = 0; m < methods.length; m++) {
+                Division division = methods[m];
+                String params = "scale=" + scale + ",n=" + N;
+                bench.run("divide." + names[m], params, N, () -> {
+                    double s = 0;
+                    for (int i = 0; i < N; i++)
+                        s += division.apply(a[i], b[i]).real();
+                    return s;
+                });
+                System.err.printf("  %s at scale %s: max error %.1f ulp%n", names[m], scale, maxError(division, a, b, 1000));
+            }
+        }
+    }
+
+    /** The implementation of DivideC(Rectangular, Rectangular) before Smith's algorithm. */
+    static Rectangular polar(Rectangular a, Rectangular b) {
+        return new Polar(a.modulus() / b.modulus(), a.phase() - b.phase()).toComplexRect();
+    }
+
+    static Rectangular textbook(Rectangular a, Rectangular b) {
+        double x = a.real(), y = a.imag(), u = b.real(), v = b.imag();
+        double d = u*u + v*v;
+        return new Rectangular((x*u + y*v) / d, (y*u - x*v) / d);
+    }
+
+    private static double maxError(Division division, Rectangular[] a, Rectangular[] b, int samples) {
+        double max = 0;
+        for (int i = 0; i < samples; i++) {
+            Rectangular q = division.apply(a[i], b[i]);
+            double[] exact = exact(a[i], b[i]);
+            max = Math.max(max, ulps(q.real(), exact[0]));
+            max = Math.max(max, ulps(q.imag(), exact[1]));
+        }
+        return max;
+    }
+
+    private static double ulps(double value, double exact) {
+        if (Double.isNaN(value) || Double.isInfinite(value))
+            return Double.POSITIVE_INFINITY;
+        return Math.abs(value - exact) / Math.ulp(exact);
+    }
+
+    private static double[] exact(Rectangular a, Rectangular b) {
+        MathContext mc = MathContext.DECIMAL128;
+        BigDecimal x = new BigDecimal(a.real()), y = new BigDecimal(a.imag());
+        BigDecimal u = new BigDecimal(b.real()), v = new BigDecimal(b.imag());
+        BigDecimal d = u.multiply(u).add(v.multiply(v));
+        return new double[] {
+            x.multiply(u).add(y.multiply(v)).divide(d, mc).doubleValue(),
+            y.multiply(u).subtract(x.multiply(v)).divide(d, mc).doubleValue()
+        };
+    }
+}
@@ -0,0 +1,168 @@
+import java.util.Arrays;
+
+/**
+ * Renders the Mandelbrot set with {@link EscapeTime}, against the loop it
+ * replaces, which iterates each pixel with {@code PlusC(TimesC(z, z), c)}
+ * and allocates two numbers per iteration. One operation is one iteration
+ * of one pixel, and the rates are printed in megapixel-iterations per
+ * second. The engine runs without and with periodicity checking, whose
+ * iterations saved are not counted, on one thread and on the common pool,
+ * and for the exponents 3 and 2.5.
+ *
+ * Before measuring, the iteration counts of the engine are checked against
+ * the object loop for <i>k</i> = 2 and against {@link ComplexArray#power}
+ * for the other exponents, with and without periodicity checking, and the
+ * smooth counts are checked to lie near <i>[n - 1, n]</i>.
+ */
+public class EscapeBenchmark {
+
+    static final int WIDTH = Integer.getInteger("bench.escape.width", 384);
+    static final int HEIGHT = WIDTH * 3 / 4;
+    static final int MAX_ITERATIONS = Integer.getInteger("bench.escape.iterations", 1000);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        ComplexArray c = EscapeTime.grid(-2.2, -1.2, 1, 1.2, WIDTH, HEIGHT);
+        int n = c.length();
+        int[] expected = objects(c), iterations = new int[n];
+        double[] smooth = new double[n];
+        verify(c, expected);
+
+        long total = 0;
+        for (int count : expected)
+            total += count;
+        String params = "width=" + WIDTH + ",height=" + HEIGHT + ",max=" + MAX_ITERATIONS;
+        report(bench.run("escape.mandelbrot.objects", params, total, () -> objects(c)[n / 2]));
+        EscapeTime plain = new EscapeTime(2, MAX_ITERATIONS, EscapeTime.DEFAULT_BAILOUT, false);
+        EscapeTime checked = new EscapeTime(2, MAX_ITERATIONS);
+        report(bench.run("escape.mandelbrot.engine", params, total, () -> {
+            plain.mandelbrot(c, iterations, smooth);
+            return smooth[n / 2];
+        }));
+        report(bench.run("escape.mandelbrot.engine.periodicity", params, total, () -> {
+            checked.mandelbrot(c, iterations, smooth);
+            return smooth[n / 2];
+        }));
+        report(bench.run("escape.mandelbrot.engine.periodicity.parallel", params, total, () -> {
+            checked.mandelbrot(c, iterations, smooth, ParallelComplex.common());
+            return smooth[n / 2];
+        }));
+        // k = 150 overflows the orbit on escape, which must still give a finite smooth count
+        for (double k : new double[] { 3, 2.5, 150 }) {
+            EscapeTime engine = new EscapeTime(k, MAX_ITERATIONS);
+            engine.mandelbrot(c, iterations, null);
+            long steps = 0;
+            for (int count : iterations)
+                steps += count;
+            report(bench.run("escape.mandelbrot.engine.k=" + k, params, steps, () -> {
+                engine.mandelbrot(c, iterations, smooth, ParallelComplex.common());
+                return smooth[n / 2];
+            }));
+        }
+    }
+
+    private static void report(Bench.Result result) {
+        System.err.printf("  %s: %.1f megapixel-iterations per second%n", result.name, result.opsPerSecond / 1e6);
+    }
+
+    /** The loop the engine replaces: iterations until |z| exceeds the default bailout, from z = c. */
+    private static int[] objects(ComplexArray c) {
+        double limit = EscapeTime.DEFAULT_BAILOUT * EscapeTime.DEFAULT_BAILOUT;
+        int[] iterations = new int[c.length()];
+        for (int i = 0; i < c.length(); i++) {
+            Rectangular p = c.get(i), z = p;
+            int n = 1;
+            while (n < MAX_ITERATIONS && z.real()*z.real() + z.imag()*z.imag() <= limit) {
+                z = ComplexNumber.PlusC(ComplexNumber.TimesC(z, z), p);
+                n++;
+            }
+            iterations[i] = n;
+        }
+        return iterations;
+    }
+
+    private static void verify(ComplexArray c, int[] expected) {
+        int n = c.length();
+        int[] iterations = new int[n];
+        double[] smooth = new double[n];
+        for (boolean periodicity : new boolean[] { false, true }) {
+            EscapeTime engine = new EscapeTime(2, MAX_ITERATIONS, EscapeTime.DEFAULT_BAILOUT, periodicity);
+            engine.mandelbrot(c, iterations, smooth);
+            compare(iterations, expected, "k=2, periodicity " + periodicity);
+            checkSmooth(iterations, smooth);
+            Arrays.fill(iterations, -1);
+            engine.mandelbrot(c, iterations, smooth, ParallelComplex.common());
+            compare(iterations, expected, "k=2 in parallel, periodicity " + periodicity);
+        }
+
+        // a few points with the array power, which the engine follows for other exponents
+        int step = 97;
+        ComplexArray sample = new ComplexArray((n + step - 1) / step);
+        for (int i = 0; i < sample.length(); i++)
+            sample.set(i, c.get(i * step));
+        for (double k : new double[] { 3, 2.5 }) {
+            int[] reference = powers(sample, k);
+            for (boolean periodicity : new boolean[] { false, true }) {
+                int[] counts = new int[sample.length()];
+                double[] s = new double[sample.length()];
+                new EscapeTime(k, MAX_ITERATIONS, EscapeTime.DEFAULT_BAILOUT, periodicity).mandelbrot(sample, counts, s);
+                compare(counts, reference, "k=" + k + ", periodicity " + periodicity);
+                checkSmooth(counts, s);
+            }
+        }
+
+        // a bailout whose square overflows would let nothing escape
+        try {
+            new EscapeTime(2, MAX_ITERATIONS, 1e200, false);
+            throw new AssertionError("a bailout of 1e200 was accepted");
+        } catch (IllegalArgumentException rejected) {
+        }
+
+        // a Julia set starts from the points, and z = 0 with c = -1 has the cycle 0, -1, 0
+        ComplexArray zero = new ComplexArray(1);
+        int[] counts = new int[1];
+        new EscapeTime(2, MAX_ITERATIONS).julia(zero, new Rectangular(-1, 0), counts, null);
+        if (counts[0] != MAX_ITERATIONS)
+            throw new AssertionError("the Julia orbit of 0 for c = -1 escaped after " + counts[0]);
+        new EscapeTime(2, MAX_ITERATIONS).julia(zero, new Rectangular(1, 0), counts, null);
+        if (counts[0] != 5)
+            throw new AssertionError("the Julia orbit of 0 for c = 1 escaped after " + counts[0] + " iterations, not 5");
+    }
+
+    private static int[] powers(ComplexArray c, double k) {
+        double limit = EscapeTime.DEFAULT_BAILOUT * EscapeTime.DEFAULT_BAILOUT;
+        int[] iterations = new int[c.length()];
+        ComplexArray z = new ComplexArray(1);
+        for (int i = 0; i < c.length(); i++) {
+            z.set(0, c.get(i));
+            int n = 1;
+            while (n < MAX_ITERATIONS && z.real(0)*z.real(0) + z.imag(0)*z.imag(0) <= limit) {
+                ComplexArray.power(z, k, z);
+                z.set(0, z.real(0) + c.real(i), z.imag(0) + c.imag(i));
+                n++;
+            }
+            iterations[i] = n;
+        }
+        return iterations;
+    }
+
+    private static void compare(int[] iterations, int[] expected, String what) {
+        for (int i = 0; i < iterations.length; i++)
+            if (iterations[i] != expected[i])
+                throw new AssertionError(what + ": point " + i + " took " + iterations[i] + " iterations, not " + expected[i]);
+    }
+
+    private static void checkSmooth(int[] iterations, double[] smooth) {
+        for (int i = 0; i < iterations.length; i++) {
+            int n = iterations[i];
+            // a point escaping at the last iteration may have either
+            if (!(smooth[i] > n - 1.5 && smooth[i] <= n) && !(n == MAX_ITERATIONS && smooth[i] == n))
+                throw new AssertionError("smooth count " + smooth[i] + " for " + n + " iterations");
+        }
+    }
+}
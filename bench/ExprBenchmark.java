@@ -0,0 +1,101 @@
+/**
+ * Compares typical formula chains written with the static operators of
+ * {@link ComplexNumber} against the same formulas as {@link Expr} trees, both
+ * built for every evaluation and evaluated from a prebuilt tree.
+ *
+ * Before measuring, the trees are checked against the static operators, on
+ * the chains measured and on cases where a polar phase leaves
+ * <i>[-π, π]</i> before a real power, or where a modulus or reciprocal
+ * would overflow if computed without scaling.
+ */
+public class ExprBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 14);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        Polar[] p = new Polar[N], q = new Polar[N], s = new Polar[N];
+        for (int i = 0; i < N; i++) {
+            p[i] = new Polar(1 + 0.001*i, 0.01*i);
+            q[i] = new Polar(0.5, -0.02*i);
+            s[i] = new Polar(2, 0.3);
+        }
+        verify(p, q, s);
+        String params = "n=" + N;
+
+        // (p q + s)² / p, on polar inputs
+        bench.run("chain1.static", params, N, () -> {
+            double sum = 0;
+            for (int i = 0; i < N; i++)
+                sum += ComplexNumber.DivideC(ComplexNumber.power(ComplexNumber.PlusC(ComplexNumber.TimesC(p[i], q[i]), s[i]), 2), p[i]).real();
+            return sum;
+        });
+        bench.run("chain1.expr", params, N, () -> {
+            double sum = 0;
+            for (int i = 0; i < N; i++)
+                sum += Expr.of(p[i]).times(q[i]).plus(s[i]).pow(2).divide(p[i]).toRectangular().real();
+            return sum;
+        });
+
+        // conj(p) q / s × 3 - p, on polar inputs
+        bench.run("chain2.static", params, N, () -> {
+            double sum = 0;
+            for (int i = 0; i < N; i++)
+                sum += ComplexNumber.MinusC(ComplexNumber.TimesC(ComplexNumber.DivideC(ComplexNumber.TimesC(p[i].conjugate(), q[i]), s[i]), 3), p[i]).real();
+            return sum;
+        });
+        bench.run("chain2.expr", params, N, () -> {
+            double sum = 0;
+            for (int i = 0; i < N; i++)
+                sum += Expr.of(p[i]).conjugate().times(q[i]).divide(s[i]).times(3).minus(p[i]).toRectangular().real();
+            return sum;
+        });
+
+        Expr prebuilt = Expr.of(p[1]).times(q[1]).plus(s[1]).pow(2).divide(p[1]);
+        MutableRectangular result = new MutableRectangular();
+        double[] scratch = new double[2];
+        bench.run("chain1.prebuilt", params, N, () -> {
+            double sum = 0;
+            for (int i = 0; i < N; i++)
+                sum += prebuilt.evaluateInto(result, scratch).real();
+            return sum;
+        });
+        System.err.println("  chain1 plans " + prebuilt.plannedConversions() + " conversions");
+    }
+
+    private static void verify(Polar[] p, Polar[] q, Polar[] s) {
+        for (int i = 0; i < N; i += 97) {
+            check(Expr.of(p[i]).times(q[i]).plus(s[i]).pow(2).divide(p[i]),
+                    ComplexNumber.DivideC(ComplexNumber.power(ComplexNumber.PlusC(ComplexNumber.TimesC(p[i], q[i]), s[i]), 2), p[i]), "chain1");
+            check(Expr.of(p[i]).conjugate().times(q[i]).divide(s[i]).times(3).minus(p[i]),
+                    ComplexNumber.MinusC(ComplexNumber.TimesC(ComplexNumber.DivideC(ComplexNumber.TimesC(p[i].conjugate(), q[i]), s[i]), 3), p[i]), "chain2");
+        }
+
+        // phases summed past π, and shifted by π for a negative factor
+        Polar z = new Polar(1, 3 * Math.PI / 4), w = new Polar(2, 2.0);
+        check(Expr.of(z).times(z).pow(0.5), ComplexNumber.power(ComplexNumber.TimesC(z, z), 0.5), "(z z)^0.5");
+        check(Expr.of(w).times(-1.0).pow(0.5), ComplexNumber.power(ComplexNumber.TimesC(w.toComplexRect(), -1.0), 0.5), "(-w)^0.5");
+        check(Expr.of(w).conjugate().divide(z).pow(1.5), ComplexNumber.power(ComplexNumber.DivideC(w.conjugate(), z), 1.5), "(conj(w) / z)^1.5");
+        Polar negative = new Polar(-1, 0), v = new Polar(-2, 2.0);
+        check(Expr.of(negative), new Rectangular(negative.real(), negative.imag()), "-1 e^0i");
+        check(Expr.of(v).pow(0.5), ComplexNumber.power(v.toComplexRect(), 0.5), "(-2 e^2i)^0.5");
+
+        // moduli and reciprocals near the ends of the range
+        Rectangular tiny = new Rectangular(1e-170, 1e-170), huge = new Rectangular(1e200, 1e200);
+        check(Expr.of(tiny).pow(-1), ComplexNumber.power(tiny, -1), "tiny^-1");
+        check(Expr.of(huge).pow(0.5), ComplexNumber.power(huge, 0.5), "huge^0.5");
+    }
+
+    private static void check(Expr expr, ComplexNumber expected, String what) {
+        Rectangular actual = expr.toRectangular();
+        double scale = Math.hypot(expected.real(), expected.imag());
+        double error = Math.hypot(actual.real() - expected.real(), actual.imag() - expected.imag());
+        if (!(error <= 1e-12 * scale))
+            throw new AssertionError(what + ": expression gives " + actual + ", operators give " + expected.real() + " + " + expected.imag() + "i");
+    }
+}
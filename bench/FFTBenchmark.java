@@ -0,0 +1,68 @@
+/**
+ * Compares {@link FFT} with a direct DFT written with the static operators of
+ * {@link ComplexNumber}. The DFT is quadratic, so it only runs up to the size
+ * given by {@code bench.dftMax}; the FFT runs up to {@code bench.fftMax}.
+ */
+public class FFTBenchmark {
+
+    static final int DFT_MAX = Integer.getInteger("bench.dftMax", 4096);
+    static final int FFT_MAX = Integer.getInteger("bench.fftMax", 1 << 22);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        for (int size = 64; size <= FFT_MAX; size <<= 2) {
+            int n = size;
+            String params = "n=" + n;
+            ComplexArray input = signal(n);
+            ComplexArray work = new ComplexArray(n);
+            FFT fft = new FFT(n);
+            bench.run("fft.complex", params, n, () -> copyAndTransform(fft, input, work));
+            double[] outRe = new double[n/2 + 1], outIm = new double[n/2 + 1];
+            bench.run("fft.real", params, n, () -> {
+                fft.realTransform(input.re(), outRe, outIm);
+                return outRe[1];
+            });
+            if (n <= DFT_MAX) {
+                Rectangular[] x = input.toArray();
+                bench.run("dft.ComplexNumber", params, n, () -> dft(x)[1].real());
+            }
+        }
+        for (int n : new int[] { 1000, 100_000 }) {
+            ComplexArray input = signal(n);
+            ComplexArray work = new ComplexArray(n);
+            FFT fft = new FFT(n);
+            bench.run("fft.bluestein", "n=" + n, n, () -> copyAndTransform(fft, input, work));
+        }
+    }
+
+    private static double copyAndTransform(FFT fft, ComplexArray input, ComplexArray work) {
+        System.arraycopy(input.re(), 0, work.re(), 0, input.length());
+        System.arraycopy(input.im(), 0, work.im(), 0, input.length());
+        fft.transform(work);
+        return work.real(1);
+    }
+
+    static Rectangular[] dft(Rectangular[] x) {
+        int n = x.length;
+        Rectangular[] result = new Rectangular[n];
+        for (int k = 0; k < n; k++) {
+            Rectangular sum = new Rectangular(0, 0);
+            for (int j = 0; j < n; j++)
+                sum = ComplexNumber.PlusC(sum, ComplexNumber.TimesC(x[j], new Polar(1, -2*Math.PI*j*k / n)));
+            result[k] = sum;
+        }
+        return result;
+    }
+
+    private static ComplexArray signal(int n) {
+        ComplexArray a = new ComplexArray(n);
+        for (int i = 0; i < n; i++)
+            a.set(i, Math.sin(0.05 * i), Math.cos(0.013 * i));
+        return a;
+    }
+}
@@ -0,0 +1,150 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares saving and loading a {@link ComplexArray} in the binary format of
+ * {@link ComplexFile} against the text round trip through
+ * {@code Rectangular.toString()}, one value per line. Every variant is checked
+ * to read back the values it wrote before it is measured.
+ */
+public class FileBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 18);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        ComplexArray a = new ComplexArray(N);
+        for (int i = 0; i < N; i++)
+            a.set(i, Math.sin(0.001*i) * 1e3, Math.cos(0.003*i) / 7);
+        String params = "n=" + N;
+        Path dir;
+        try {
+            dir = Files.createTempDirectory("complexfile");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Path text = dir.resolve("values.txt"), binary = dir.resolve("values.cplx");
+
+        try {
+            verify(a, writeText(text, a) == N ? readText(text) : null, 0);
+            for (ComplexFile.Layout layout : ComplexFile.Layout.values()) {
+                ComplexFile.write(binary, a, layout, ComplexFile.Precision.FLOAT64, ByteOrder.nativeOrder());
+                verify(a, ComplexFile.read(binary), 0);
+            }
+            ComplexFile.write(binary, a, ComplexFile.Layout.INTERLEAVED, ComplexFile.Precision.FLOAT32, ByteOrder.BIG_ENDIAN);
+            verify(a, ComplexFile.read(binary), 1e-4);
+            System.err.printf("file size: text %d bytes, binary %d bytes%n", Files.size(text),
+                    ComplexFile.HEADER_SIZE + 16L*N);
+
+            bench.run("file.text.write", params, N, () -> writeText(text, a));
+            bench.run("file.text.read", params, N, () -> readText(text).real(N - 1));
+
+            for (ComplexFile.Layout layout : ComplexFile.Layout.values()) {
+                String name = layout.name().toLowerCase();
+                bench.run("file.binary." + name + ".write", params, N, () -> {
+                    write(binary, a, layout, ComplexFile.Precision.FLOAT64);
+                    return N;
+                });
+                bench.run("file.binary." + name + ".read", params, N, () -> read(binary).real(N - 1));
+                bench.run("file.binary." + name + ".map", params, N, () -> {
+                    try {
+                        ComplexFile.View view = ComplexFile.map(binary);
+                        double sum = 0;
+                        for (long i = 0; i < view.length(); i++)
+                            sum += view.real(i) + view.imag(i);
+                        return sum;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+
+            write(binary, a, ComplexFile.Layout.INTERLEAVED, ComplexFile.Precision.FLOAT32);
+            bench.run("file.binary.float32.read", params, N, () -> read(binary).real(N - 1));
+
+            ComplexArray block = new ComplexArray(4096);
+            bench.run("file.binary.stream", params + ",block=4096", N, () -> {
+                try (ComplexFile.Reader reader = new ComplexFile.Reader(binary)) {
+                    double sum = 0;
+                    for (int n; (n = reader.read(block)) > 0; )
+                        sum += block.real(n - 1);
+                    return sum;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            try {
+                Files.deleteIfExists(text);
+                Files.deleteIfExists(binary);
+                Files.deleteIfExists(dir);
+            } catch (IOException e) {
+                // leave the temporary files behind
+            }
+        }
+    }
+
+    private static void write(Path path, ComplexArray a, ComplexFile.Layout layout, ComplexFile.Precision precision) {
+        try {
+            ComplexFile.write(path, a, layout, precision, ByteOrder.nativeOrder());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ComplexArray read(Path path) {
+        try {
+            return ComplexFile.read(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double writeText(Path path, ComplexArray a) {
+        try (BufferedWriter out = Files.newBufferedWriter(path)) {
+            for (int i = 0; i < a.length(); i++) {
+                out.write(a.get(i).toString());
+                out.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return a.length();
+    }
+
+    /** Parses the lines written by {@code Rectangular.toString()}: "a + bi" or "a - bi". */
+    private static ComplexArray readText(Path path) {
+        ComplexArray a = new ComplexArray(N);
+        try (BufferedReader in = Files.newBufferedReader(path)) {
+            String line;
+            for (int i = 0; (line = in.readLine()) != null; i++) {
+                int sign = line.indexOf(' ', 1);
+                double imag = Double.parseDouble(line.substring(sign + 3, line.length() - 1));
+                a.set(i, Double.parseDouble(line.substring(0, sign)), line.charAt(sign + 1) == '-' ? -imag : imag);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return a;
+    }
+
+    private static void verify(ComplexArray expected, ComplexArray actual, double tolerance) {
+        for (int i = 0; i < expected.length(); i++) {
+            double dr = Math.abs(expected.real(i) - actual.real(i)), di = Math.abs(expected.imag(i) - actual.imag(i));
+            if (dr > tolerance * Math.abs(expected.real(i)) || di > tolerance * Math.abs(expected.imag(i)))
+                throw new AssertionError("value " + i + " read back as " + actual.get(i) + ", wrote " + expected.get(i));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+import java.util.Random;
+
+/**
+ * Compares single precision {@link FloatComplexArray} with the double
+ * precision {@link ComplexArray} and with arrays of {@link Rectangular}, for
+ * footprint and for the throughput of memory-bound bulk operations. One
+ * operation is one element.
+ *
+ * The footprint is measured as the bytes allocated per element when each
+ * container is filled with <i>n</i> numbers. Throughput is measured at a
+ * size that fits in cache and at one that does not, where the float path
+ * should approach twice the speed, since it moves half the bytes.
+ *
+ * Before measuring, the float results are checked against the double
+ * results on the same inputs, rounded to float: within two float ulps of
+ * the modulus for products and sums, which round at every step, within
+ * one for quotients, which are computed in double and rounded once, and
+ * exactly for moduli.
+ */
+public class FloatBenchmark {
+
+    private static final int[] SIZES = { 1 << 12, Integer.getInteger("bench.float.size", 1 << 21) };
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        Random random = new Random(21);
+        for (int n : SIZES) {
+            FloatComplexArray fa = new FloatComplexArray(n), fb = new FloatComplexArray(n), fd = new FloatComplexArray(n);
+            for (int i = 0; i < n; i++) {
+                fa.set(i, (float) random.nextGaussian(), (float) random.nextGaussian());
+                fb.set(i, (float) random.nextGaussian(), (float) random.nextGaussian());
+            }
+            ComplexArray da = fa.toComplexArray(), db = fb.toComplexArray(), dd = new ComplexArray(n);
+            float[] ia = fa.toInterleaved(), ib = fb.toInterleaved(), id = new float[2 * n];
+            float[] fm = new float[n];
+            double[] dm = new double[n];
+            verify(fa, fb, fd, da, db, dd, ia, ib, id);
+            String params = "n=" + n;
+
+            bench.run("float.footprint.rectangular", params, n, () -> da.toArray()[n - 1].real());
+            bench.run("float.footprint.double", params, n, () -> new ComplexArray(n).length());
+            bench.run("float.footprint.float", params, n, () -> new FloatComplexArray(n).length());
+
+            bench.run("float.PlusC.double", params, n, () -> {
+                ComplexArray.PlusC(da, db, dd);
+                return dd.real(n - 1);
+            });
+            bench.run("float.PlusC.float", params, n, () -> {
+                FloatComplexArray.PlusC(fa, fb, fd);
+                return fd.real(n - 1);
+            });
+            bench.run("float.TimesC.double", params, n, () -> {
+                ComplexArray.TimesC(da, db, dd);
+                return dd.real(n - 1);
+            });
+            bench.run("float.TimesC.float", params, n, () -> {
+                FloatComplexArray.TimesC(fa, fb, fd);
+                return fd.real(n - 1);
+            });
+            bench.run("float.TimesC.float.interleaved", params, n, () -> {
+                FloatComplexArray.TimesCInterleaved(ia, ib, id, 0, n);
+                return id[2*n - 2];
+            });
+            bench.run("float.DivideC.double", params, n, () -> {
+                ComplexArray.DivideC(da, db, dd);
+                return dd.real(n - 1);
+            });
+            bench.run("float.DivideC.float", params, n, () -> {
+                FloatComplexArray.DivideC(fa, fb, fd);
+                return fd.real(n - 1);
+            });
+            bench.run("float.modulus.double", params, n, () -> {
+                ComplexArray.modulus(da, dm);
+                return dm[n - 1];
+            });
+            bench.run("float.modulus.float", params, n, () -> {
+                FloatComplexArray.modulus(fa, fm);
+                return fm[n - 1];
+            });
+        }
+    }
+
+    private static void verify(FloatComplexArray fa, FloatComplexArray fb, FloatComplexArray fd,
+            ComplexArray da, ComplexArray db, ComplexArray dd, float[] ia, float[] ib, float[] id) {
+        int n = fa.length();
+        FloatComplexArray.PlusC(fa, fb, fd);
+        ComplexArray.PlusC(da, db, dd);
+        close(fd, dd, 2, "PlusC");
+        FloatComplexArray.TimesC(fa, fb, fd);
+        ComplexArray.TimesC(da, db, dd);
+        close(fd, dd, 2, "TimesC");
+        FloatComplexArray.TimesCInterleaved(ia, ib, id, 0, n);
+        close(FloatComplexArray.fromInterleaved(id), dd, 2, "TimesCInterleaved");
+        FloatComplexArray.DivideC(fa, fb, fd);
+        ComplexArray.DivideC(da, db, dd);
+        close(fd, dd, 1, "DivideC");
+
+        // zero and infinite divisors give the double results, rounded
+        FloatComplexArray fx = new FloatComplexArray(new float[] { 1, 1, 1 }, new float[] { 1, 1, 1 });
+        FloatComplexArray fy = new FloatComplexArray(new float[] { 0, Float.POSITIVE_INFINITY, 0 }, new float[] { 0, 0, Float.NEGATIVE_INFINITY });
+        FloatComplexArray fq = new FloatComplexArray(3);
+        ComplexArray dq = new ComplexArray(3);
+        FloatComplexArray.DivideC(fx, fy, fq);
+        ComplexArray.DivideC(fx.toComplexArray(), fy.toComplexArray(), dq);
+        for (int i = 0; i < 3; i++)
+            if (Float.compare(fq.real(i), (float) dq.real(i)) != 0 || Float.compare(fq.imag(i), (float) dq.imag(i)) != 0)
+                throw new AssertionError("DivideC by " + fy.get(i) + ": " + fq.get(i) + ", double " + dq.get(i));
+
+        float[] fm = new float[n];
+        double[] dm = new double[n];
+        FloatComplexArray.modulus(fa, fm);
+        ComplexArray.modulus(da, dm);
+        for (int i = 0; i < n; i++)
+            if (fm[i] != (float) dm[i])
+                throw new AssertionError("modulus of " + fa.get(i) + " is " + fm[i] + ", expected " + (float) dm[i]);
+
+        for (int i = 0; i < Math.min(n, 1000); i++) {
+            FloatComplex a = fa.get(i), b = fb.get(i);
+            if (!FloatComplex.TimesC(a, b).equals(FloatComplex.of(a.floatReal()*b.floatReal() - a.floatImag()*b.floatImag(),
+                    a.floatReal()*b.floatImag() + a.floatImag()*b.floatReal())))
+                throw new AssertionError("scalar TimesC of " + a + " and " + b);
+            if (!FloatComplex.of(a.toComplex()).equals(a) || !FloatComplex.of(da.get(i)).equals(a))
+                throw new AssertionError("conversion of " + a + " does not round trip");
+        }
+
+        short[] adc = { 32767, -32768, 0, 16384 };
+        FloatComplexArray s = FloatComplexArray.fromInterleaved(adc, 1f / 32768);
+        if (s.real(0) != 32767f / 32768 || s.imag(0) != -1 || s.real(1) != 0 || s.imag(1) != 0.5f)
+            throw new AssertionError("16 bit samples converted to " + s.get(0) + ", " + s.get(1));
+    }
+
+    /** Checks that every float result is within <i>ulps</i> float ulps of the modulus of the double one, after rounding. */
+    private static void close(FloatComplexArray f, ComplexArray d, double ulps, String what) {
+        for (int i = 0; i < f.length(); i++) {
+            double re = d.real(i), im = d.imag(i);
+            double tolerance = ulps * Math.ulp((float) Math.hypot(re, im));
+            if (Math.abs(f.real(i) - (float) re) > tolerance || Math.abs(f.imag(i) - (float) im) > tolerance)
+                throw new AssertionError(what + " at " + i + ": " + f.get(i) + ", expected " + d.get(i));
+        }
+    }
+}
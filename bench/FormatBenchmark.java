@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Compares {@code toString()} and {@code String.format} with
+ * {@link ComplexFormat} writing into reused buffers. Before measuring, the
+ * shortest mode is checked to match {@code toString()} and the fixed mode to
+ * match {@code String.format("%.6f")}, character for character.
+ */
+public class FormatBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 16);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        Random random = new Random(12);
+        Rectangular[] z = new Rectangular[N];
+        Polar[] p = new Polar[N];
+        ComplexArray a = new ComplexArray(N);
+        for (int i = 0; i < N; i++) {
+            z[i] = new Rectangular(random.nextGaussian() * 1e3, random.nextGaussian());
+            p[i] = new Polar(random.nextDouble() * 10, random.nextDouble() * 6 - 3);
+            a.set(i, z[i]);
+        }
+        String params = "n=" + N;
+
+        ComplexFormat shortest = ComplexFormat.shortest(), fixed = ComplexFormat.fixed(6);
+        StringBuilder sb = new StringBuilder(128);
+        for (int i = 0; i < N; i++) {
+            check(z[i].toString(), shortest.format(z[i], clear(sb)));
+            check(p[i].toString(), shortest.format(p[i], clear(sb)));
+            String expected = String.format(Locale.ROOT, "%.6f %s %.6fi", z[i].real(), z[i].imag() < 0 ? "-" : "+", Math.abs(z[i].imag()));
+            check(expected, fixed.format(z[i], clear(sb)));
+        }
+
+        bench.run("format.toString", params, N, () -> {
+            long length = 0;
+            for (int i = 0; i < N; i++)
+                length += z[i].toString().length();
+            return length;
+        });
+        bench.run("format.String.format", params, N, () -> {
+            long length = 0;
+            for (int i = 0; i < N; i++)
+                length += String.format(Locale.ROOT, "%.6f + %.6fi", z[i].real(), z[i].imag()).length();
+            return length;
+        });
+        bench.run("format.shortest.builder", params, N, () -> {
+            long length = 0;
+            for (int i = 0; i < N; i++)
+                length += shortest.format(z[i], clear(sb)).length();
+            return length;
+        });
+        bench.run("format.shortest.polar.builder", params, N, () -> {
+            long length = 0;
+            for (int i = 0; i < N; i++)
+                length += shortest.format(p[i], clear(sb)).length();
+            return length;
+        });
+        bench.run("format.fixed6.builder", params, N, () -> {
+            long length = 0;
+            for (int i = 0; i < N; i++)
+                length += fixed.format(z[i], clear(sb)).length();
+            return length;
+        });
+        ByteBuffer buffer = ByteBuffer.allocateDirect(128);
+        bench.run("format.shortest.bytebuffer", params, N, () -> {
+            long length = 0;
+            for (int i = 0; i < N; i++) {
+                buffer.clear();
+                length += shortest.format(z[i], buffer).position();
+            }
+            return length;
+        });
+
+        WritableByteChannel discard = new WritableByteChannel() {
+            public int write(ByteBuffer src) {
+                int n = src.remaining();
+                src.position(src.limit());
+                return n;
+            }
+
+            public boolean isOpen() {
+                return true;
+            }
+
+            public void close() {
+            }
+        };
+        bench.run("format.shortest.bulk", params, N, () -> {
+            try {
+                return shortest.write(a, 0, N, discard);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        bench.run("format.fixed6.bulk", params, N, () -> {
+            try {
+                return fixed.write(a, 0, N, discard);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private static StringBuilder clear(StringBuilder sb) {
+        sb.setLength(0);
+        return sb;
+    }
+
+    private static void check(String expected, CharSequence actual) {
+        if (!expected.contentEquals(actual))
+            throw new AssertionError("formatted \"" + actual + "\", expected \"" + expected + "\"");
+    }
+}
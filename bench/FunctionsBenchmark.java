@@ -0,0 +1,334 @@
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.List;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+/**
+ * Measures the elementary functions of {@link ComplexNumber} and
+ * {@link ComplexArray}, one element at a time and in bulk, and compares the
+ * {@code power} overloads with their former implementations, which went
+ * through {@code Math.pow(Math.E, ...)} and took the logarithm of the
+ * modulus twice. One operation is one function value.
+ *
+ * Before measuring, every function is checked against a reference computed
+ * with {@link BigDecimal} to 40 digits, on arguments in <i>[-5, 5]</i> for
+ * both parts: Taylor series for the exponential, the trigonometric and the
+ * hyperbolic functions, {@link BigDecimal#sqrt} for the square root, Newton's
+ * method for the real part of the logarithm, and exact products for integer
+ * powers. The error is normwise, <i>|computed - exact| / ulp(|exact|)</i>,
+ * and the largest is printed for the new and the former implementations.
+ */
+public class FunctionsBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 12);
+    static final int SAMPLES = 2000;
+
+    private static final MathContext MC = new MathContext(40);
+
+    interface Reference {
+        BigDecimal[] apply(BigDecimal x, BigDecimal y);
+    }
+
+    interface Bulk {
+        void apply(ComplexArray a, ComplexArray dst);
+    }
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        Random random = new Random(16);
+        Rectangular[] points = new Rectangular[N];
+        ComplexArray a = new ComplexArray(N), dst = new ComplexArray(N);
+        for (int i = 0; i < N; i++) {
+            points[i] = new Rectangular(10 * random.nextDouble() - 5, 10 * random.nextDouble() - 5);
+            a.set(i, points[i]);
+        }
+
+        String[] names = { "exp", "log", "sqrt", "sin", "cos", "tan", "sinh", "cosh", "tanh" };
+        List<UnaryOperator<Rectangular>> scalars = List.of(
+                ComplexNumber::exp, ComplexNumber::log, ComplexNumber::sqrt,
+                ComplexNumber::sin, ComplexNumber::cos, ComplexNumber::tan,
+                ComplexNumber::sinh, ComplexNumber::cosh, ComplexNumber::tanh);
+        Bulk[] bulks = {
+            ComplexArray::exp, ComplexArray::log, ComplexArray::sqrt,
+            ComplexArray::sin, ComplexArray::cos, ComplexArray::tan,
+            ComplexArray::sinh, ComplexArray::cosh, ComplexArray::tanh
+        };
+        Reference[] references = {
+            FunctionsBenchmark::exp, FunctionsBenchmark::log, FunctionsBenchmark::sqrt,
+            FunctionsBenchmark::sin, FunctionsBenchmark::cos, FunctionsBenchmark::tan,
+            FunctionsBenchmark::sinh, FunctionsBenchmark::cosh, FunctionsBenchmark::tanh
+        };
+
+        for (int f = 0; f < names.length; f++) {
+            UnaryOperator<Rectangular> scalar = scalars.get(f);
+            Bulk bulk = bulks[f];
+            bulk.apply(a, dst);
+            for (int i = 0; i < N; i++) {
+                Rectangular z = scalar.apply(points[i]);
+                if (z.real() != dst.real(i) || z.imag() != dst.imag(i))
+                    throw new AssertionError(names[f] + " of " + points[i] + ": bulk " + dst.get(i) + ", scalar " + z);
+            }
+            double error = maxError(scalar, references[f], points, names[f].equals("log"));
+            System.err.printf("  %s: max error %.2f ulp%n", names[f], error);
+            if (error > 8)
+                throw new AssertionError(names[f] + " is off by " + error + " ulp");
+
+            String params = "n=" + N;
+            bench.run("functions." + names[f], params, N, () -> {
+                double s = 0;
+                for (Rectangular z : points)
+                    s += scalar.apply(z).real();
+                return s;
+            });
+            bench.run("functions." + names[f] + ".bulk", params, N, () -> {
+                bulk.apply(a, dst);
+                return dst.real(N - 1);
+            });
+        }
+
+        for (int n : new int[] { 2, 3, 7, -3 }) {
+            Rectangular exponent = new Rectangular(n, 0);
+            double newError = maxPowerError(z -> ComplexNumber.power(z, exponent), points, n);
+            double oldError = maxPowerError(z -> oldPower(z, exponent), points, n);
+            double realError = maxPowerError(z -> ComplexNumber.power(z, (double) n), points, n);
+            double oldRealError = maxPowerError(z -> oldPower(z, (double) n), points, n);
+            System.err.printf("  power %d: max error %.2f ulp (complex exponent, formerly %.2f), %.2f ulp (real exponent, formerly %.2f)%n",
+                    n, newError, oldError, realError, oldRealError);
+            if (newError > 2 * Math.abs(n) || realError > 2 * Math.abs(n))
+                throw new AssertionError("power " + n + " is off by " + Math.max(newError, realError) + " ulp");
+
+            String params = "n=" + N + ",exponent=" + n;
+            bench.run("functions.power.complex.former", params, N, () -> {
+                double s = 0;
+                for (Rectangular z : points)
+                    s += oldPower(z, exponent).real();
+                return s;
+            });
+            bench.run("functions.power.complex", params, N, () -> {
+                double s = 0;
+                for (Rectangular z : points)
+                    s += ComplexNumber.power(z, exponent).real();
+                return s;
+            });
+            bench.run("functions.power.real.former", params, N, () -> {
+                double s = 0;
+                for (Rectangular z : points)
+                    s += oldPower(z, (double) n).real();
+                return s;
+            });
+            bench.run("functions.power.real", params, N, () -> {
+                double s = 0;
+                for (Rectangular z : points)
+                    s += ComplexNumber.power(z, (double) n).real();
+                return s;
+            });
+            bench.run("functions.power.bulk", params, N, () -> {
+                ComplexArray.power(a, n, dst);
+                return dst.real(N - 1);
+            });
+        }
+
+        // a power that overflows or underflows keeps its exact zero, and a negative exponent inverts first
+        checkPower(new Rectangular(1e10, 0), 40, Double.POSITIVE_INFINITY, 0);
+        checkPower(new Rectangular(1e10, 0), -40, 0, 0);
+        checkPower(new Rectangular(1e-10, 0), -40, Double.POSITIVE_INFINITY, 0);
+
+        // a polar number with a negative radius is the opposite of its phase
+        Polar negative = new Polar(-4, 0.5);
+        Rectangular log = ComplexNumber.log(negative), logRect = ComplexNumber.log(negative.toComplexRect());
+        Rectangular root = ComplexNumber.sqrt(negative).toComplexRect(), rootRect = ComplexNumber.sqrt(negative.toComplexRect());
+        if (Math.hypot(log.real() - logRect.real(), log.imag() - logRect.imag()) > 1e-15
+                || Math.hypot(root.real() - rootRect.real(), root.imag() - rootRect.imag()) > 1e-15)
+            throw new AssertionError("log and sqrt of " + negative + ": " + log + " and " + root + ", rectangular " + logRect + " and " + rootRect);
+
+        // a general exponent, where only the single logarithm is saved
+        Rectangular general = new Rectangular(1.5, -0.5);
+        for (int i = 0; i < SAMPLES; i++) {
+            Rectangular expected = oldPower(points[i], general), actual = ComplexNumber.power(points[i], general);
+            if (Math.hypot(actual.real() - expected.real(), actual.imag() - expected.imag()) > 1e-12 * expected.modulus())
+                throw new AssertionError("power " + general + " of " + points[i] + ": " + actual + ", formerly " + expected);
+        }
+        String params = "n=" + N + ",exponent=" + general;
+        bench.run("functions.power.complex.former", params, N, () -> {
+            double s = 0;
+            for (Rectangular z : points)
+                s += oldPower(z, general).real();
+            return s;
+        });
+        bench.run("functions.power.complex", params, N, () -> {
+            double s = 0;
+            for (Rectangular z : points)
+                s += ComplexNumber.power(z, general).real();
+            return s;
+        });
+    }
+
+    /** The implementation of power(Rectangular, Rectangular) before the logarithm was shared. */
+    static Rectangular oldPower(Rectangular a, Rectangular b) {
+        return new Polar(Math.pow(Math.E, b.real() * Math.log(a.modulus()) - b.imag() * a.phase()), b.real() * a.phase() + b.imag() * Math.log(a.modulus())).toComplexRect();
+    }
+
+    /** The implementation of power(Rectangular, double) before the integer fast path. */
+    static Rectangular oldPower(Rectangular a, double b) {
+        Polar z = a.toComplexPolar();
+        return new Polar(Math.pow(z.modulus(), b), z.phase() * b).toComplexRect();
+    }
+
+    private static double maxError(UnaryOperator<Rectangular> function, Reference reference, Rectangular[] points, boolean realOnly) {
+        double max = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            Rectangular z = function.apply(points[i]);
+            BigDecimal[] exact = reference.apply(new BigDecimal(points[i].real()), new BigDecimal(points[i].imag()));
+            max = Math.max(max, realOnly
+                    ? ulps(z.real(), 0, exact[0].doubleValue(), 0)
+                    : ulps(z.real(), z.imag(), exact[0].doubleValue(), exact[1].doubleValue()));
+        }
+        return max;
+    }
+
+    private static double maxPowerError(UnaryOperator<Rectangular> power, Rectangular[] points, int n) {
+        double max = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            Rectangular z = power.apply(points[i]);
+            BigDecimal x = new BigDecimal(points[i].real()), y = new BigDecimal(points[i].imag());
+            BigDecimal re = BigDecimal.ONE, im = BigDecimal.ZERO;
+            for (int k = 0; k < Math.abs(n); k++) {
+                BigDecimal t = re.multiply(x).subtract(im.multiply(y));
+                im = re.multiply(y).add(im.multiply(x));
+                re = t;
+            }
+            if (n < 0) {
+                BigDecimal d = re.multiply(re).add(im.multiply(im));
+                re = re.divide(d, MC);
+                im = im.negate().divide(d, MC);
+            }
+            max = Math.max(max, ulps(z.real(), z.imag(), re.doubleValue(), im.doubleValue()));
+        }
+        return max;
+    }
+
+    private static double ulps(double re, double im, double exactRe, double exactIm) {
+        if (!Double.isFinite(re) || !Double.isFinite(im))
+            return Double.POSITIVE_INFINITY;
+        return Math.hypot(re - exactRe, im - exactIm) / Math.ulp(Math.hypot(exactRe, exactIm));
+    }
+
+    // references, to 40 digits
+
+    private static BigDecimal[] exp(BigDecimal x, BigDecimal y) {
+        BigDecimal e = exp(x);
+        return new BigDecimal[] { e.multiply(cos(y), MC), e.multiply(sin(y), MC) };
+    }
+
+    private static void checkPower(Rectangular z, int n, double real, double imag) {
+        Rectangular actual = ComplexNumber.power(z, (double) n);
+        if (actual.real() != real || actual.imag() != imag)
+            throw new AssertionError("power " + n + " of " + z + ": " + actual + ", expected " + real + " + " + imag + "i");
+    }
+
+    /** Only the real part, log |z|, is checked: the imaginary part is Math.atan2 itself. */
+    private static BigDecimal[] log(BigDecimal x, BigDecimal y) {
+        BigDecimal m = x.multiply(x).add(y.multiply(y));
+        // Newton's method for e^l = m, from the double estimate
+        BigDecimal l = new BigDecimal(Math.log(m.doubleValue()));
+        BigDecimal two = BigDecimal.valueOf(2);
+        for (int k = 0; k < 4; k++) {
+            BigDecimal e = exp(l);
+            l = l.add(two.multiply(m.subtract(e)).divide(m.add(e), MC), MC);
+        }
+        return new BigDecimal[] { l.divide(two, MC), BigDecimal.ZERO };
+    }
+
+    private static BigDecimal[] sqrt(BigDecimal x, BigDecimal y) {
+        BigDecimal modulus = x.multiply(x).add(y.multiply(y)).sqrt(MC);
+        BigDecimal two = BigDecimal.valueOf(2);
+        BigDecimal t = modulus.add(x.abs()).divide(two, MC).sqrt(MC);
+        if (t.signum() == 0)
+            return new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO };
+        BigDecimal other = y.abs().divide(two.multiply(t), MC);
+        return x.signum() >= 0
+                ? new BigDecimal[] { t, y.signum() < 0 ? other.negate() : other }
+                : new BigDecimal[] { other, y.signum() < 0 ? t.negate() : t };
+    }
+
+    private static BigDecimal[] sin(BigDecimal x, BigDecimal y) {
+        return new BigDecimal[] { sin(x).multiply(cosh(y), MC), cos(x).multiply(sinh(y), MC) };
+    }
+
+    private static BigDecimal[] cos(BigDecimal x, BigDecimal y) {
+        return new BigDecimal[] { cos(x).multiply(cosh(y), MC), sin(x).multiply(sinh(y), MC).negate() };
+    }
+
+    private static BigDecimal[] tan(BigDecimal x, BigDecimal y) {
+        return divide(sin(x, y), cos(x, y));
+    }
+
+    private static BigDecimal[] sinh(BigDecimal x, BigDecimal y) {
+        return new BigDecimal[] { sinh(x).multiply(cos(y), MC), cosh(x).multiply(sin(y), MC) };
+    }
+
+    private static BigDecimal[] cosh(BigDecimal x, BigDecimal y) {
+        return new BigDecimal[] { cosh(x).multiply(cos(y), MC), sinh(x).multiply(sin(y), MC) };
+    }
+
+    private static BigDecimal[] tanh(BigDecimal x, BigDecimal y) {
+        return divide(sinh(x, y), cosh(x, y));
+    }
+
+    private static BigDecimal[] divide(BigDecimal[] a, BigDecimal[] b) {
+        BigDecimal d = b[0].multiply(b[0]).add(b[1].multiply(b[1]));
+        return new BigDecimal[] {
+            a[0].multiply(b[0]).add(a[1].multiply(b[1])).divide(d, MC),
+            a[1].multiply(b[0]).subtract(a[0].multiply(b[1])).divide(d, MC)
+        };
+    }
+
+    /** e^x by the Taylor series of e^(x/16), squared four times. */
+    private static BigDecimal exp(BigDecimal x) {
+        BigDecimal r = x.divide(BigDecimal.valueOf(16), MC);
+        BigDecimal sum = BigDecimal.ONE, term = BigDecimal.ONE;
+        for (int k = 1; k < 60; k++) {
+            term = term.multiply(r).divide(BigDecimal.valueOf(k), MC);
+            sum = sum.add(term, MC);
+        }
+        for (int k = 0; k < 4; k++)
+            sum = sum.multiply(sum, MC);
+        return sum;
+    }
+
+    private static BigDecimal sinh(BigDecimal x) {
+        // the series, free of the cancellation in (e^x - e^-x) / 2 near 0
+        return series(x, 1, 1);
+    }
+
+    private static BigDecimal cosh(BigDecimal x) {
+        return series(x, 0, 1);
+    }
+
+    private static BigDecimal sin(BigDecimal x) {
+        return series(x, 1, -1);
+    }
+
+    private static BigDecimal cos(BigDecimal x) {
+        return series(x, 0, -1);
+    }
+
+    /** The sum of sign^k x^(2k + first) / (2k + first)!, for sin, cos, sinh and cosh. */
+    private static BigDecimal series(BigDecimal x, int first, int sign) {
+        BigDecimal term = first == 0 ? BigDecimal.ONE : x, sum = term;
+        BigDecimal square = x.multiply(x);
+        for (int k = first + 2; k < 120; k += 2) {
+            term = term.multiply(square).divide(BigDecimal.valueOf((long) (k - 1) * k), MC);
+            if (sign < 0)
+                term = term.negate();
+            sum = sum.add(term, MC);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,142 @@
+import java.util.Random;
+
+/**
+ * Measures {@link ComplexMatrix} against the {@code Rectangular[][]} loops
+ * with {@code TimesC} and {@code PlusC} that callers used to write. For
+ * products one operation is one complex multiply-add, <i>n³</i> per product;
+ * for the LU decomposition it is <i>n³/3</i>, about the number of
+ * multiply-adds it performs; for solves <i>n²</i> and for the conjugate
+ * transpose one element.
+ *
+ * The sizes are read from {@code -Dbench.matrix.sizes}, a comma separated
+ * list. The default stops at 1024, where a single product already takes
+ * seconds; add 2048 and 4096 for the full range. The naive loops are only
+ * run up to 256. Before measuring, every result is checked: the blocked
+ * and parallel products against the naive one bit for bit, and the solve,
+ * inverse and determinant by their residuals.
+ */
+public class MatrixBenchmark {
+
+    static final int[] SIZES = sizes(System.getProperty("bench.matrix.sizes", "64,128,256,512,1024"));
+    static final int NAIVE_LIMIT = 256;
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    private static int[] sizes(String list) {
+        String[] parts = list.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++)
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        return sizes;
+    }
+
+    static void run(Bench bench) {
+        Random random = new Random(15);
+        ParallelComplex parallel = ParallelComplex.common();
+        for (int n : SIZES) {
+            ComplexMatrix a = random(random, n), b = random(random, n);
+            ComplexMatrix c = new ComplexMatrix(n, n), d = new ComplexMatrix(n, n);
+            String params = "n=" + n;
+            long cube = (long) n * n * n;
+
+            ComplexMatrix.multiply(a, b, c);
+            parallel.multiply(a, b, d);
+            same(c, d, "parallel product");
+            if (n <= NAIVE_LIMIT) {
+                Rectangular[][] x = a.toArray(), y = b.toArray();
+                same(c, ComplexMatrix.fromArray(naive(x, y)), "blocked product");
+                bench.run("matrix.multiply.naive", params, cube, () -> naive(x, y)[n - 1][n - 1].real());
+            }
+            bench.run("matrix.multiply.blocked", params, cube, () -> {
+                ComplexMatrix.multiply(a, b, c);
+                return c.real(n - 1, n - 1);
+            });
+            bench.run("matrix.multiply.parallel", params + ",threads=" + parallel.pool().getParallelism(), cube, () -> {
+                parallel.multiply(a, b, d);
+                return d.real(n - 1, n - 1);
+            });
+
+            verifyLU(a, random);
+            ComplexMatrix.LU lu = a.lu();
+            ComplexArray rhs = new ComplexArray(n);
+            for (int i = 0; i < n; i++)
+                rhs.set(i, random.nextGaussian(), random.nextGaussian());
+            bench.run("matrix.lu", params, Math.max(1, cube / 3), () -> a.lu().determinant().real());
+            bench.run("matrix.solve", params, (long) n * n, () -> lu.solve(rhs).real(0));
+            bench.run("matrix.conjugateTranspose", params, (long) n * n, () -> a.conjugateTranspose().real(0, 0));
+        }
+    }
+
+    private static ComplexMatrix random(Random random, int n) {
+        ComplexMatrix m = new ComplexMatrix(n, n);
+        for (int i = 0; i < n * n; i++) {
+            m.re()[i] = random.nextGaussian();
+            m.im()[i] = random.nextGaussian();
+        }
+        return m;
+    }
+
+    private static Rectangular[][] naive(Rectangular[][] a, Rectangular[][] b) {
+        int n = a.length;
+        Rectangular[][] c = new Rectangular[n][n];
+        for (int i = 0; i < n; i++)
+            for (int j = 0; j < n; j++) {
+                Rectangular sum = new Rectangular(0, 0);
+                for (int k = 0; k < n; k++)
+                    sum = ComplexNumber.PlusC(sum, ComplexNumber.TimesC(a[i][k], b[k][j]));
+                c[i][j] = sum;
+            }
+        return c;
+    }
+
+    private static void same(ComplexMatrix expected, ComplexMatrix actual, String what) {
+        for (int i = 0; i < expected.rows(); i++)
+            for (int j = 0; j < expected.cols(); j++)
+                if (expected.real(i, j) != actual.real(i, j) || expected.imag(i, j) != actual.imag(i, j))
+                    throw new AssertionError(what + " differs at (" + i + ", " + j + "): "
+                            + actual.get(i, j) + " instead of " + expected.get(i, j));
+    }
+
+    private static void verifyLU(ComplexMatrix a, Random random) {
+        int n = a.rows();
+        double tolerance = 1e-9 * n;
+
+        // pivots are compared by |x| + |y|, so a tiny diagonal is not mistaken for a singular one
+        ComplexMatrix tiny = new ComplexMatrix(2, 2, new double[] { 1e-170, 0, 0, 1e-170 }, new double[4]);
+        if (tiny.lu().isSingular())
+            throw new AssertionError("diag(1e-170, 1e-170) reported singular");
+
+        ComplexArray b = new ComplexArray(n), ax = new ComplexArray(n);
+        for (int i = 0; i < n; i++)
+            b.set(i, random.nextGaussian(), random.nextGaussian());
+        ComplexArray x = a.lu().solve(b);
+        a.multiply(x, ax);
+        for (int i = 0; i < n; i++)
+            if (Math.hypot(ax.real(i) - b.real(i), ax.imag(i) - b.imag(i)) > tolerance)
+                throw new AssertionError("solve residual " + Math.hypot(ax.real(i) - b.real(i), ax.imag(i) - b.imag(i)) + " at " + i);
+
+        if (n <= 256) {
+            ComplexMatrix product = a.multiply(a.inverse());
+            for (int i = 0; i < n; i++)
+                for (int j = 0; j < n; j++)
+                    if (Math.hypot(product.real(i, j) - (i == j ? 1 : 0), product.imag(i, j)) > tolerance)
+                        throw new AssertionError("A × inverse(A) differs from the identity at (" + i + ", " + j + ")");
+        }
+
+        // det(A B) = det(A) det(B), and det(A*) is the conjugate of det(A)
+        if (n <= 256) {
+            ComplexMatrix b2 = random(random, n);
+            Rectangular da = a.determinant(), db = b2.determinant(), dab = a.multiply(b2).determinant();
+            Rectangular expected = ComplexNumber.TimesC(da, db);
+            if (Math.hypot(dab.real() - expected.real(), dab.imag() - expected.imag()) > tolerance * expected.modulus())
+                throw new AssertionError("det(AB) = " + dab + ", det(A) det(B) = " + expected);
+            Rectangular dh = a.conjugateTranspose().determinant();
+            if (Math.hypot(dh.real() - da.real(), dh.imag() + da.imag()) > tolerance * da.modulus())
+                throw new AssertionError("det(A*) = " + dh + ", det(A) = " + da);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Random;
+
+/**
+ * Compares the two modes of {@link ComplexMeasure} with each other, with
+ * {@link Math#hypot}, and with the former {@code Rectangular.modulus()} and
+ * {@code phase()}, at scales 1, 1e200 and 1e-200. One operation is one
+ * modulus or one phase.
+ *
+ * Before measuring, the largest error of each is printed, in ulps against
+ * a {@link BigDecimal} square root for the modulus and in radians against
+ * {@link Math#atan2} for the phase, and checked against the documented
+ * bounds: an ulp for the accurate modulus at every scale and for the fast
+ * one at scale 1, and 2e-8 for the fast phase. The former phase is also
+ * checked for NaN on the negative real axis, where it divided 0 by 0.
+ */
+public class MeasureBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 14);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        if (!Double.isNaN(oldPhase(-1, 0)) || new Rectangular(-1, 0).phase() != Math.PI)
+            throw new AssertionError("the phase of -1 is " + new Rectangular(-1, 0).phase());
+
+        for (double scale : new double[] { 1, 1e200, 1e-200 }) {
+            Random random = new Random(19);
+            ComplexArray a = new ComplexArray(N);
+            for (int i = 0; i < N; i++)
+                a.set(i, random.nextGaussian() * scale, random.nextGaussian() * scale);
+            double[] re = a.re(), im = a.im(), dst = new double[N];
+
+            double accurate = 0, fast = 0, hypot = 0, fastPhase = 0;
+            for (int i = 0; i < N; i++) {
+                double exact = exactModulus(re[i], im[i]);
+                accurate = Math.max(accurate, ulps(ComplexMeasure.modulus(re[i], im[i], ComplexMeasure.Mode.ACCURATE), exact));
+                fast = Math.max(fast, ulps(ComplexMeasure.modulus(re[i], im[i], ComplexMeasure.Mode.FAST), exact));
+                hypot = Math.max(hypot, ulps(Math.hypot(re[i], im[i]), exact));
+                fastPhase = Math.max(fastPhase, Math.abs(ComplexMeasure.phase(re[i], im[i], ComplexMeasure.Mode.FAST) - Math.atan2(im[i], re[i])));
+            }
+            System.err.printf("  scale %s: modulus max error %.2f ulp accurate, %.2f ulp fast, %.2f ulp hypot; fast phase max error %.2e%n",
+                    scale, accurate, fast, hypot, fastPhase);
+            if (accurate > 1 || (scale == 1 && fast > 1) || fastPhase > 2e-8)
+                throw new AssertionError("errors above the documented bounds at scale " + scale);
+
+            String params = "scale=" + scale + ",n=" + N;
+            bench.run("measure.modulus.former", params, N, () -> {
+                double s = 0;
+                for (int i = 0; i < N; i++)
+                    s += Math.sqrt(re[i]*re[i] + im[i]*im[i]);
+                return s;
+            });
+            bench.run("measure.modulus.hypot", params, N, () -> {
+                double s = 0;
+                for (int i = 0; i < N; i++)
+                    s += Math.hypot(re[i], im[i]);
+                return s;
+            });
+            for (ComplexMeasure.Mode mode : ComplexMeasure.Mode.values()) {
+                String name = mode.name().toLowerCase();
+                bench.run("measure.modulus." + name, params, N, () -> {
+                    double s = 0;
+                    for (int i = 0; i < N; i++)
+                        s += ComplexMeasure.modulus(re[i], im[i], mode);
+                    return s;
+                });
+                bench.run("measure.modulus." + name + ".bulk", params, N, () -> {
+                    ComplexMeasure.modulus(a, dst, mode);
+                    return dst[N - 1];
+                });
+            }
+
+            bench.run("measure.phase.former", params, N, () -> {
+                double s = 0;
+                for (int i = 0; i < N; i++)
+                    s += oldPhase(re[i], im[i]);
+                return s;
+            });
+            for (ComplexMeasure.Mode mode : ComplexMeasure.Mode.values()) {
+                String name = mode.name().toLowerCase();
+                bench.run("measure.phase." + name, params, N, () -> {
+                    double s = 0;
+                    for (int i = 0; i < N; i++)
+                        s += ComplexMeasure.phase(re[i], im[i], mode);
+                    return s;
+                });
+                bench.run("measure.phase." + name + ".bulk", params, N, () -> {
+                    ComplexMeasure.phase(a, dst, mode);
+                    return dst[N - 1];
+                });
+            }
+        }
+    }
+
+    /** The implementation of Rectangular.phase() before ComplexMeasure. */
+    static double oldPhase(double real, double imag) {
+        if (real == 0)
+            if (imag > 0) return Math.PI/2;
+            else if (imag < 0) return -Math.PI/2;
+            else return 0;
+
+        if (real < 0) {
+            return Math.atan(imag/real) + imag/Math.abs(imag) * Math.PI;
+        }
+        return Math.atan(imag/real);
+    }
+
+    private static double exactModulus(double x, double y) {
+        BigDecimal a = new BigDecimal(x), b = new BigDecimal(y);
+        return a.multiply(a).add(b.multiply(b)).sqrt(MathContext.DECIMAL128).doubleValue();
+    }
+
+    private static double ulps(double value, double exact) {
+        if (!Double.isFinite(value))
+            return Double.POSITIVE_INFINITY;
+        return Math.abs(value - exact) / Math.ulp(exact);
+    }
+}
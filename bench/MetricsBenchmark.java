@@ -0,0 +1,118 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Measures the cost of {@link ComplexMetrics} on the static operators, with
+ * counting off and on, for an operator on rectangular operands and for the
+ * mixed overloads that convert between forms. One operation is one call.
+ * The counts of one pass over the mixed workload are printed, to show the
+ * conversions hidden in it.
+ *
+ * Before measuring, the counts of a few calls are checked against the
+ * conversions and allocations the overloads are known to make, and the
+ * counters are read back through the platform MBean server.
+ */
+public class MetricsBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 14);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        boolean wasEnabled = ComplexMetrics.isEnabled();
+        try {
+            verify();
+
+            Random random = new Random(20);
+            Rectangular[] a = new Rectangular[N];
+            Polar[] b = new Polar[N];
+            for (int i = 0; i < N; i++) {
+                a[i] = new Rectangular(random.nextGaussian(), random.nextGaussian());
+                b[i] = new Polar(0.5 + random.nextDouble(), 2 * Math.PI * random.nextDouble());
+            }
+            Bench.Task rectangular = () -> {
+                double s = 0;
+                for (int i = 1; i < N; i++)
+                    s += ComplexNumber.TimesC(a[i - 1], a[i]).real();
+                return s;
+            };
+            Bench.Task mixed = () -> {
+                double s = 0;
+                for (int i = 1; i < N; i++)
+                    s += ComplexNumber.PlusC(b[i - 1], b[i]).modulus();
+                return s;
+            };
+
+            ComplexMetrics.setEnabled(true);
+            ComplexMetrics.Snapshot before = ComplexMetrics.snapshot();
+            mixed.run();
+            System.err.println("  one pass of PlusC(Polar, Polar): " + ComplexMetrics.snapshot().minus(before));
+
+            String params = "n=" + N;
+            for (boolean on : new boolean[] { false, true }) {
+                ComplexMetrics.setEnabled(on);
+                String state = on ? "enabled" : "disabled";
+                bench.run("metrics." + state + ".TimesC", params, N - 1, rectangular);
+                bench.run("metrics." + state + ".PlusC.polar", params, N - 1, mixed);
+            }
+        } finally {
+            ComplexMetrics.setEnabled(wasEnabled);
+        }
+    }
+
+    private static void verify() {
+        ComplexMetrics.setEnabled(true);
+        Polar p = new Polar(1, 1), q = new Polar(2, -1);
+        ComplexMetrics.Snapshot before = ComplexMetrics.snapshot();
+        ComplexNumber.PlusC(p, q);
+        ComplexMetrics.Snapshot counts = ComplexMetrics.snapshot().minus(before);
+        // both operands converted, the sum allocated and converted back, with a square root and an arc tangent
+        expect(counts, ComplexMetrics.Counter.PLUS, 1);
+        expect(counts, ComplexMetrics.Counter.POLAR_TO_RECTANGULAR, 2);
+        expect(counts, ComplexMetrics.Counter.RECTANGULAR_TO_POLAR, 1);
+        expect(counts, ComplexMetrics.Counter.TRIG, 2 * 2 + 1);
+        expect(counts, ComplexMetrics.Counter.SQRT, 1);
+        expect(counts, ComplexMetrics.Counter.ALLOCATION, 4);
+
+        before = ComplexMetrics.snapshot();
+        ComplexNumber.TimesC(new Rectangular(1, 2), new Polar(1, 0.5));
+        counts = ComplexMetrics.snapshot().minus(before);
+        expect(counts, ComplexMetrics.Counter.TIMES, 1);
+        expect(counts, ComplexMetrics.Counter.POLAR_TO_RECTANGULAR, 1);
+        expect(counts, ComplexMetrics.Counter.ALLOCATION, 4);
+
+        ComplexMetrics.setEnabled(false);
+        before = ComplexMetrics.snapshot();
+        ComplexNumber.PlusC(p, q);
+        expect(ComplexMetrics.snapshot().minus(before), ComplexMetrics.Counter.PLUS, 0);
+
+        ComplexMetrics.register();
+        ComplexMetrics.register();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(ComplexMetrics.OBJECT_NAME);
+            long plus = (Long) server.getAttribute(name, "PlusCalls");
+            if (plus != ComplexMetrics.get(ComplexMetrics.Counter.PLUS))
+                throw new AssertionError("the MBean reports " + plus + " PlusC calls");
+            server.setAttribute(name, new Attribute("Enabled", true));
+            if (!ComplexMetrics.isEnabled())
+                throw new AssertionError("the MBean did not enable counting");
+            ComplexMetrics.setEnabled(false);
+        } catch (JMException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void expect(ComplexMetrics.Snapshot counts, ComplexMetrics.Counter counter, long expected) {
+        if (counts.get(counter) != expected)
+            throw new AssertionError(counter + " counted " + counts.get(counter) + " times instead of " + expected + ": " + counts);
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Compares a running sum and a Horner evaluation written with the static
+ * operators of {@link ComplexNumber} against the same loops on a
+ * {@link MutableRectangular} accumulator.
+ */
+public class MutableRectangularBenchmark {
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        int n = 1 << 20;
+        Rectangular[] values = new Rectangular[n];
+        Polar[] polars = new Polar[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = new Rectangular(Math.cos(i), Math.sin(i * 0.5));
+            polars[i] = values[i].toComplexPolar();
+        }
+        Rectangular z = new Rectangular(0.6, 0.7);
+        String params = "n=" + n;
+
+        bench.run("sum.static", params, n, () -> {
+            Rectangular s = new Rectangular(0, 0);
+            for (Rectangular v : values)
+                s = ComplexNumber.PlusC(s, v);
+            return s.real();
+        });
+        bench.run("sum.mutable", params, n, () -> {
+            MutableRectangular s = new MutableRectangular();
+            for (Rectangular v : values)
+                s.addInPlace(v);
+            return s.real();
+        });
+        bench.run("sumPolar.static", params, n, () -> {
+            Rectangular s = new Rectangular(0, 0);
+            for (Polar v : polars)
+                s = ComplexNumber.PlusC(s, v);
+            return s.real();
+        });
+        bench.run("sumPolar.mutable", params, n, () -> {
+            MutableRectangular s = new MutableRectangular();
+            for (Polar v : polars)
+                s.addInPlace(v);
+            return s.real();
+        });
+        bench.run("horner.static", params, n, () -> {
+            Rectangular s = new Rectangular(0, 0);
+            for (Rectangular v : values)
+                s = ComplexNumber.PlusC(ComplexNumber.TimesC(s, z), v);
+            return s.real();
+        });
+        bench.run("horner.mutable", params, n, () -> {
+            MutableRectangular s = new MutableRectangular();
+            for (Rectangular v : values)
+                s.mulAddInPlace(z, v);
+            return s.real();
+        });
+    }
+}
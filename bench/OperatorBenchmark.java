@@ -0,0 +1,138 @@
+import java.util.Random;
+
+/**
+ * Measures every overload of {@code PlusC}, {@code MinusC}, {@code TimesC},
+ * {@code DivideC} and {@code power} in {@link ComplexNumber}, for each input
+ * distribution, together with the bulk kernels of {@link ComplexArray}.
+ *
+ * All scalar overloads share one driver loop, so every result carries the
+ * same cost of an interface call per operation; compare them with each other
+ * rather than with hand-written loops.
+ */
+public class OperatorBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 14);
+
+    enum Distribution {
+        /** moduli around one, uniformly distributed phases */
+        UNIT,
+        /** moduli around 1e-6 */
+        SMALL,
+        /** moduli around 1e6 */
+        LARGE,
+        /** phases that are multiples of π/2, the special cases of Polar.real() and imag() */
+        AXIS;
+
+        Rectangular sample(Random random) {
+            double r = 0.5 + random.nextDouble();
+            double theta = -Math.PI + 2*Math.PI*random.nextDouble();
+            switch (this) {
+                case SMALL: r *= 1e-6; break;
+                case LARGE: r *= 1e6; break;
+                case AXIS: theta = (random.nextInt(4) - 1) * Math.PI/2; break;
+                default: break;
+            }
+            return new Polar(r, theta).toComplexRect();
+        }
+    }
+
+    interface Op<A, B> {
+        ComplexNumber apply(A a, B b);
+    }
+
+    interface RealRightOp<A> {
+        ComplexNumber apply(A a, double b);
+    }
+
+    interface RealLeftOp<B> {
+        ComplexNumber apply(double a, B b);
+    }
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        for (Distribution d : Distribution.values())
+            run(bench, d);
+    }
+
+    static void run(Bench bench, Distribution distribution) {
+        Random random = new Random(42);
+        Rectangular[] ra = new Rectangular[N], rb = new Rectangular[N];
+        Polar[] pa = new Polar[N], pb = new Polar[N];
+        double[] da = new double[N], db = new double[N];
+        for (int i = 0; i < N; i++) {
+            ra[i] = distribution.sample(random);
+            rb[i] = distribution.sample(random);
+            pa[i] = ra[i].toComplexPolar();
+            pb[i] = rb[i].toComplexPolar();
+            da[i] = ra[i].real();
+            db[i] = rb[i].real();
+        }
+        String params = distribution.name().toLowerCase() + ",n=" + N;
+
+        scalar(bench, "PlusC", params, ra, rb, pa, pb, da, db,
+                ComplexNumber::PlusC, ComplexNumber::PlusC, ComplexNumber::PlusC, ComplexNumber::PlusC,
+                ComplexNumber::PlusC, ComplexNumber::PlusC, ComplexNumber::PlusC, ComplexNumber::PlusC);
+        scalar(bench, "MinusC", params, ra, rb, pa, pb, da, db,
+                ComplexNumber::MinusC, ComplexNumber::MinusC, ComplexNumber::MinusC, ComplexNumber::MinusC,
+                ComplexNumber::MinusC, ComplexNumber::MinusC, ComplexNumber::MinusC, ComplexNumber::MinusC);
+        scalar(bench, "TimesC", params, ra, rb, pa, pb, da, db,
+                ComplexNumber::TimesC, ComplexNumber::TimesC, ComplexNumber::TimesC, ComplexNumber::TimesC,
+                ComplexNumber::TimesC, ComplexNumber::TimesC, ComplexNumber::TimesC, ComplexNumber::TimesC);
+        scalar(bench, "DivideC", params, ra, rb, pa, pb, da, db,
+                ComplexNumber::DivideC, ComplexNumber::DivideC, ComplexNumber::DivideC, ComplexNumber::DivideC,
+                ComplexNumber::DivideC, ComplexNumber::DivideC, ComplexNumber::DivideC, ComplexNumber::DivideC);
+        scalar(bench, "power", params, ra, rb, pa, pb, da, db,
+                ComplexNumber::power, ComplexNumber::power, ComplexNumber::power, ComplexNumber::power,
+                ComplexNumber::power, ComplexNumber::power, ComplexNumber::power, ComplexNumber::power);
+
+        ComplexArray a = ComplexArray.fromArray(ra), b = ComplexArray.fromArray(rb), dst = new ComplexArray(N);
+        double[] out = new double[N];
+        bench.run("bulk.PlusC", params, N, () -> { ComplexArray.PlusC(a, b, dst); return dst.real(0); });
+        bench.run("bulk.MinusC", params, N, () -> { ComplexArray.MinusC(a, b, dst); return dst.real(0); });
+        bench.run("bulk.TimesC", params, N, () -> { ComplexArray.TimesC(a, b, dst); return dst.real(0); });
+        bench.run("bulk.DivideC", params, N, () -> { ComplexArray.DivideC(a, b, dst); return dst.real(0); });
+        bench.run("bulk.conjugate", params, N, () -> { ComplexArray.conjugate(a, dst); return dst.imag(0); });
+        bench.run("bulk.modulus", params, N, () -> { ComplexArray.modulus(a, out); return out[0]; });
+        bench.run("bulk.phase", params, N, () -> { ComplexArray.phase(a, out); return out[0]; });
+    }
+
+    private static void scalar(Bench bench, String name, String params,
+            Rectangular[] ra, Rectangular[] rb, Polar[] pa, Polar[] pb, double[] da, double[] db,
+            Op<Rectangular, Rectangular> rr, Op<Rectangular, Polar> rp, Op<Polar, Rectangular> pr, Op<Polar, Polar> pp,
+            RealRightOp<Rectangular> rd, RealLeftOp<Rectangular> dr, RealRightOp<Polar> pd, RealLeftOp<Polar> dp) {
+        bench.run(name + "(Rectangular,Rectangular)", params, N, () -> loop(ra, rb, rr));
+        bench.run(name + "(Rectangular,Polar)", params, N, () -> loop(ra, pb, rp));
+        bench.run(name + "(Polar,Rectangular)", params, N, () -> loop(pa, rb, pr));
+        bench.run(name + "(Polar,Polar)", params, N, () -> loop(pa, pb, pp));
+        bench.run(name + "(Rectangular,double)", params, N, () -> loopRealRight(ra, db, rd));
+        bench.run(name + "(double,Rectangular)", params, N, () -> loopRealLeft(da, rb, dr));
+        bench.run(name + "(Polar,double)", params, N, () -> loopRealRight(pa, db, pd));
+        bench.run(name + "(double,Polar)", params, N, () -> loopRealLeft(da, pb, dp));
+    }
+
+    private static <A, B> double loop(A[] a, B[] b, Op<A, B> op) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++)
+            s += op.apply(a[i], b[i]).imag();
+        return s;
+    }
+
+    private static <A> double loopRealRight(A[] a, double[] b, RealRightOp<A> op) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++)
+            s += op.apply(a[i], b[i]).imag();
+        return s;
+    }
+
+    private static <B> double loopRealLeft(double[] a, B[] b, RealLeftOp<B> op) {
+        double s = 0;
+        for (int i = 0; i < a.length; i++)
+            s += op.apply(a[i], b[i]).imag();
+        return s;
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures how the bulk operations and reductions of {@link ParallelComplex}
+ * scale from one thread up to the number of available processors, and checks
+ * that every thread count gives the same reduction result.
+ */
+public class ParallelBenchmark {
+
+    static final int N = Integer.getInteger("bench.parallelSize", 1 << 23);
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        ComplexArray a = new ComplexArray(N), b = new ComplexArray(N), dst = new ComplexArray(N);
+        for (int i = 0; i < N; i++) {
+            a.set(i, Math.sin(i), Math.cos(i * 0.7));
+            b.set(i, 1 + Math.cos(i * 0.3), Math.sin(i * 0.1));
+        }
+
+        // the norm neither overflows nor underflows where the sum of squares would
+        ParallelComplex small = new ParallelComplex(ForkJoinPool.commonPool(), 1 << 10);
+        int m = 1 << 14;
+        ComplexArray unit = new ComplexArray(m), huge = new ComplexArray(m), tiny = new ComplexArray(m);
+        for (int i = 0; i < m; i++) {
+            unit.set(i, a.real(i), a.imag(i));
+            huge.set(i, 1e200 * a.real(i), 1e200 * a.imag(i));
+            tiny.set(i, 1e-200 * a.real(i), 1e-200 * a.imag(i));
+        }
+        double norm = small.norm(unit);
+        for (double scale : new double[] { 1e200, 1e-200 }) {
+            double scaled = small.norm(scale > 1 ? huge : tiny);
+            if (!(Math.abs(scaled / scale - norm) <= 1e-12 * norm))
+                throw new AssertionError("norm of " + scale + " × a is " + scaled + ", not " + scale * norm);
+        }
+
+        Rectangular expected = null;
+        int processors = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(2 * threads, processors)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            ParallelComplex parallel = new ParallelComplex(pool, ParallelComplex.DEFAULT_THRESHOLD);
+            String params = "threads=" + threads + ",n=" + N;
+
+            bench.run("parallel.TimesC", params, N, () -> { parallel.TimesC(a, b, dst); return dst.real(1); });
+            bench.run("parallel.DivideC", params, N, () -> { parallel.DivideC(a, b, dst); return dst.real(1); });
+            bench.run("parallel.power", params, N, () -> { parallel.power(a, 2.5, dst); return dst.real(1); });
+            bench.run("parallel.sum", params, N, () -> parallel.sum(a).real());
+            bench.run("parallel.dot", params, N, () -> parallel.dot(a, b).real());
+            bench.run("parallel.norm", params, N, () -> parallel.norm(a));
+
+            Rectangular dot = parallel.dot(a, b);
+            if (expected == null)
+                expected = dot;
+            else if (Double.compare(dot.real(), expected.real()) != 0 || Double.compare(dot.imag(), expected.imag()) != 0)
+                throw new AssertionError("dot product differs with " + threads + " threads: " + dot + " != " + expected);
+            pool.shutdown();
+            if (threads == processors)
+                break;
+        }
+    }
+}
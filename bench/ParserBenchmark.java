@@ -0,0 +1,165 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures {@link ComplexParser} on the output of {@code toString()}, against
+ * the usual hand-written {@code split}/{@code Double.parseDouble} code and a
+ * regular expression. One operation is one byte of input, so the reported
+ * operations per second divided by 10^6 are MB/s.
+ *
+ * Inputs with short decimals take the parser's fast path; full precision
+ * doubles mostly fall back to {@code Double.parseDouble}. Every parsed value
+ * is first checked to be bit for bit the value that was printed.
+ */
+public class ParserBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 16);
+
+    private static final Pattern RECTANGULAR = Pattern.compile("(\\S+) ([+-]) (\\S+)i");
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        Random random = new Random(11);
+        ComplexArray shortValues = new ComplexArray(N), fullValues = new ComplexArray(N);
+        for (int i = 0; i < N; i++) {
+            shortValues.set(i, Math.rint(random.nextGaussian() * 1e5) / 1e3, Math.rint(random.nextGaussian() * 1e5) / 1e3);
+            fullValues.set(i, random.nextGaussian() * 1e3, random.nextGaussian() / 1e3);
+        }
+        Polar[] polar = new Polar[N];
+        for (int i = 0; i < N; i++)
+            polar[i] = new Polar(random.nextDouble() * 10, random.nextDouble() * 6 - 3);
+
+        run(bench, "short", shortValues);
+        run(bench, "full", fullValues);
+
+        String[] lines = new String[N];
+        for (int i = 0; i < N; i++) {
+            lines[i] = polar[i].toString();
+            ComplexNumber z = ComplexParser.parse(lines[i]);
+            if (!(z instanceof Polar) || z.modulus() != polar[i].modulus() || z.phase() != polar[i].phase())
+                throw new AssertionError(lines[i] + " parsed as " + z);
+        }
+        long bytes = totalLength(lines);
+        bench.run("parse.polar.charsequence", "n=" + N, bytes, () -> {
+            double sum = 0;
+            for (String line : lines)
+                sum += ComplexParser.parse(line).modulus();
+            return sum;
+        });
+    }
+
+    private static void run(Bench bench, String kind, ComplexArray values) {
+        String[] lines = new String[N];
+        for (int i = 0; i < N; i++)
+            lines[i] = values.get(i).toString();
+        String params = "n=" + N + ",values=" + kind;
+        long bytes = totalLength(lines);
+        byte[] text = String.join("\n", lines).getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.wrap(text);
+        int[] starts = new int[N + 1];
+        for (int i = 0, p = 0; i < N; i++, p += lines[i - 1].length() + 1)
+            starts[i] = p;
+        starts[N] = text.length + 1;
+
+        MutableRectangular z = new MutableRectangular();
+        for (int i = 0; i < N; i++) {
+            check(values, i, ComplexParser.parse(lines[i]));
+            check(values, i, ComplexParser.parse(buffer, starts[i], starts[i + 1] - 1, z));
+            check(values, i, splitParse(lines[i]));
+            check(values, i, regexParse(lines[i]));
+        }
+
+        bench.run("parse.split", params, bytes, () -> {
+            double sum = 0;
+            for (String line : lines)
+                sum += splitParse(line).imag();
+            return sum;
+        });
+        bench.run("parse.regex", params, bytes, () -> {
+            double sum = 0;
+            for (String line : lines)
+                sum += regexParse(line).imag();
+            return sum;
+        });
+        bench.run("parse.charsequence", params, bytes, () -> {
+            double sum = 0;
+            for (String line : lines)
+                sum += ComplexParser.parse(line, 0, line.length(), z).imag();
+            return sum;
+        });
+        bench.run("parse.bytebuffer", params, bytes, () -> {
+            double sum = 0;
+            for (int i = 0; i < N; i++)
+                sum += ComplexParser.parse(buffer, starts[i], starts[i + 1] - 1, z).imag();
+            return sum;
+        });
+
+        Path file;
+        try {
+            file = Files.createTempFile("complexparser", ".txt");
+            Files.write(file, text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ComplexArray block = new ComplexArray(4096);
+        try {
+            bench.run("parse.reader", params + ",block=4096", bytes, () -> {
+                try (ComplexParser.Reader reader = new ComplexParser.Reader(file)) {
+                    double sum = 0;
+                    for (int n; (n = reader.read(block)) > 0; )
+                        sum += block.imag(n - 1);
+                    if (reader.count() != N)
+                        throw new AssertionError("read " + reader.count() + " values");
+                    return sum;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // leave the temporary file behind
+            }
+        }
+    }
+
+    private static long totalLength(String[] lines) {
+        long bytes = 0;
+        for (String line : lines)
+            bytes += line.length() + 1;
+        return bytes;
+    }
+
+    private static void check(ComplexArray expected, int i, ComplexNumber actual) {
+        if (Double.compare(expected.real(i), actual.real()) != 0 || Double.compare(expected.imag(i), actual.imag()) != 0)
+            throw new AssertionError(expected.get(i) + " parsed as " + actual);
+    }
+
+    /** The kind of code every caller used to write. */
+    private static Rectangular splitParse(String line) {
+        String[] parts = line.split(" ");
+        double imag = Double.parseDouble(parts[2].substring(0, parts[2].length() - 1));
+        return new Rectangular(Double.parseDouble(parts[0]), parts[1].equals("-") ? -imag : imag);
+    }
+
+    private static Rectangular regexParse(String line) {
+        Matcher m = RECTANGULAR.matcher(line);
+        if (!m.matches())
+            throw new NumberFormatException(line);
+        double imag = Double.parseDouble(m.group(3));
+        return new Rectangular(Double.parseDouble(m.group(1)), m.group(2).equals("-") ? -imag : imag);
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the cost of creating a {@link Polar} and reading its phase as the
+ * angle grows, against the former loop that subtracted 2π until the angle
+ * was in range. The loop is only run up to angles where it finishes in
+ * reasonable time.
+ *
+ * Before measuring, a stress run in the style of jcstress shares numbers
+ * between threads through a plain, racy field: one thread publishes new
+ * numbers with large angles while the others read {@code phase()},
+ * {@code real()} and {@code imag()} at the same time. Every read must see the
+ * values computed by the publishing thread; any other outcome fails the
+ * benchmark. The run length is set by {@code -Dbench.stress.rounds}.
+ */
+public class PolarBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 14);
+    static final int ROUNDS = Integer.getInteger("bench.stress.rounds", 200_000);
+
+    private static final double[] ANGLES = { 1, 1e3, 1e6, 1e9, 1e15, 1e20 };
+    private static final double LOOP_LIMIT = 1e6;
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        stress(Math.max(2, Runtime.getRuntime().availableProcessors()), ROUNDS);
+
+        for (double angle : ANGLES) {
+            double[] theta = new double[N];
+            for (int i = 0; i < N; i++)
+                theta[i] = angle * (1 + i / (double) N);
+            String params = "n=" + N + ",theta=" + angle;
+            bench.run("polar.phase", params, N, () -> {
+                double sum = 0;
+                for (int i = 0; i < N; i++)
+                    sum += new Polar(1, theta[i]).phase();
+                return sum;
+            });
+            if (angle <= LOOP_LIMIT) {
+                bench.run("polar.phase.loop", params, N, () -> {
+                    double sum = 0;
+                    for (int i = 0; i < N; i++)
+                        sum += loopNormalize(theta[i]);
+                    return sum;
+                });
+            }
+        }
+    }
+
+    /** The normalization Polar.phase() used to perform on every call. */
+    private static double loopNormalize(double theta) {
+        if (theta > Math.PI)
+            while(theta > Math.PI) theta -= 2*Math.PI;
+        if (theta < -Math.PI)
+            while(theta < -Math.PI) theta += 2*Math.PI;
+        return theta;
+    }
+
+    // deliberately neither volatile nor final: readers may see a number before its constructor's writes
+    private static Polar shared;
+    // read on every spin, so that the compiler cannot hoist the read of shared out of the loop
+    private static volatile boolean done;
+
+    private static void stress(int threads, int rounds) {
+        // the expected values are computed by the publishing thread, from a fresh number
+        double[] phase = new double[rounds], real = new double[rounds], imag = new double[rounds];
+        for (int i = 0; i < rounds; i++) {
+            Polar p = new Polar(1 + i, 1e6 + i);
+            phase[i] = p.phase();
+            real[i] = p.real();
+            imag[i] = p.imag();
+        }
+
+        AtomicLong observed = new AtomicLong(), failures = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] readers = new Thread[threads - 1];
+        for (int t = 0; t < readers.length; t++) {
+            boolean rectangularFirst = t % 2 == 0;
+            readers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                Polar last = null;
+                long seen = 0;
+                while (!done) {
+                    Polar p = shared;
+                    if (p == null || p == last) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    last = p;
+                    int i = (int) p.modulus() - 1;
+                    // half the readers race to fill the rectangular cache, the others read the phase first
+                    double x, y, th;
+                    if (rectangularFirst) {
+                        x = p.real();
+                        y = p.imag();
+                        th = p.phase();
+                    } else {
+                        th = p.phase();
+                        y = p.imag();
+                        x = p.real();
+                    }
+                    if (i < 0 || i >= rounds || th != phase[i] || x != real[i] || y != imag[i])
+                        failures.incrementAndGet();
+                    seen++;
+                }
+                observed.addAndGet(seen);
+            });
+            readers[t].start();
+        }
+
+        start.countDown();
+        for (int i = 0; i < rounds; i++) {
+            shared = new Polar(1 + i, 1e6 + i);
+            if ((i & 63) == 0)
+                Thread.yield();
+        }
+        done = true;
+        for (Thread reader : readers) {
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        shared = null;
+        done = false;
+
+        System.err.printf("polar stress: %d readers, %d numbers published, %d reads checked, %d inconsistent%n",
+                readers.length, rounds, observed.get(), failures.get());
+        if (failures.get() != 0)
+            throw new AssertionError(failures.get() + " reads of shared Polar numbers saw inconsistent values");
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures polynomial evaluation for degrees 8 to 4096, composed from the
+ * static operators of {@link ComplexNumber} as callers used to, with
+ * {@link ComplexPolynomial} one point at a time, batched over a
+ * {@link ComplexArray}, and batched in parallel; and the Aberth root finder.
+ * One operation is one point, or one root.
+ *
+ * Before measuring, the batched and parallel results are checked against
+ * single point evaluation, and the roots of polynomials built from known
+ * roots, and of z^n - 1, are checked to be found.
+ */
+public class PolynomialBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 12);
+
+    private static final int[] DEGREES = { 8, 64, 512, 4096 };
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        Random random = new Random(14);
+        ComplexArray z = new ComplexArray(N), dst = new ComplexArray(N);
+        Rectangular[] points = new Rectangular[N];
+        for (int i = 0; i < N; i++) {
+            // on the unit circle, where values of high degree polynomials stay finite
+            double angle = 2 * Math.PI * random.nextDouble();
+            z.set(i, Math.cos(angle), Math.sin(angle));
+            points[i] = z.get(i);
+        }
+        ParallelComplex parallel = new ParallelComplex(ForkJoinPool.commonPool(), ParallelComplex.DEFAULT_THRESHOLD);
+
+        for (int degree : DEGREES) {
+            ComplexPolynomial p = randomPolynomial(random, degree);
+            Rectangular[] coefficients = new Rectangular[degree + 1];
+            for (int k = 0; k <= degree; k++)
+                coefficients[k] = p.coefficient(k);
+            verifyEvaluation(p, z, dst, parallel);
+            String params = "n=" + N + ",degree=" + degree;
+
+            bench.run("polynomial.static", params, N, () -> {
+                double sum = 0;
+                for (Rectangular x : points) {
+                    Rectangular v = coefficients[degree];
+                    for (int k = degree - 1; k >= 0; k--)
+                        v = ComplexNumber.PlusC(ComplexNumber.TimesC(v, x), coefficients[k]);
+                    sum += v.real();
+                }
+                return sum;
+            });
+            MutableRectangular v = new MutableRectangular();
+            bench.run("polynomial.horner", params, N, () -> {
+                double sum = 0;
+                for (int i = 0; i < N; i++)
+                    sum += p.evaluate(z.real(i), z.imag(i), v).real();
+                return sum;
+            });
+            bench.run("polynomial.batch", params, N, () -> {
+                p.evaluate(z, dst);
+                return dst.real(N - 1);
+            });
+            bench.run("polynomial.batch.parallel", params + ",threads=" + parallel.pool().getParallelism(), N, () -> {
+                parallel.evaluate(p, z, dst);
+                return dst.real(N - 1);
+            });
+        }
+
+        for (int degree : DEGREES) {
+            ComplexPolynomial p = randomPolynomial(random, degree);
+            verifyRoots(p, degree);
+            bench.run("polynomial.roots", "degree=" + degree, degree, () -> p.roots()[0].real());
+        }
+    }
+
+    private static ComplexPolynomial randomPolynomial(Random random, int degree) {
+        double[] re = new double[degree + 1], im = new double[degree + 1];
+        for (int k = 0; k <= degree; k++) {
+            re[k] = random.nextGaussian();
+            im[k] = random.nextGaussian();
+        }
+        return new ComplexPolynomial(re, im);
+    }
+
+    private static void verifyEvaluation(ComplexPolynomial p, ComplexArray z, ComplexArray dst, ParallelComplex parallel) {
+        MutableRectangular v = new MutableRectangular();
+        p.evaluate(z, dst);
+        check(p, z, dst, v, "batched");
+        parallel.evaluate(p, z, dst);
+        check(p, z, dst, v, "parallel");
+    }
+
+    private static void check(ComplexPolynomial p, ComplexArray z, ComplexArray dst, MutableRectangular v, String what) {
+        for (int i = 0; i < z.length(); i++) {
+            p.evaluate(z.real(i), z.imag(i), v);
+            if (v.real() != dst.real(i) || v.imag() != dst.imag(i))
+                throw new AssertionError(what + " evaluation at " + z.get(i) + " gave " + dst.get(i) + ", expected " + v);
+        }
+    }
+
+    private static void verifyRoots(ComplexPolynomial random, int degree) {
+        // known roots on a spiral, which are well conditioned
+        if (degree <= 64) {
+            ComplexArray expected = new ComplexArray(degree);
+            for (int k = 0; k < degree; k++)
+                expected.set(k, new Polar(0.5 + (double) k / degree, 2.4 * k));
+            Rectangular[] found = ComplexPolynomial.fromRoots(expected).roots();
+            for (int k = 0; k < degree; k++) {
+                double nearest = Double.POSITIVE_INFINITY;
+                for (Rectangular r : found)
+                    nearest = Math.min(nearest, Math.hypot(r.real() - expected.real(k), r.imag() - expected.imag(k)));
+                if (nearest > 1e-12)
+                    throw new AssertionError("root " + expected.get(k) + " of a degree " + degree + " polynomial not found");
+            }
+        }
+
+        // a nonzero constant has no roots, and the zero polynomial, trailing zeros trimmed, has no finite set
+        if (new ComplexPolynomial(new double[] { 2, 0 }, new double[] { 1, 0 }).roots().length != 0)
+            throw new AssertionError("a nonzero constant has roots");
+        try {
+            new ComplexPolynomial(new double[] { 0, 0 }, new double[] { 0, 0 }).roots();
+            throw new AssertionError("the zero polynomial has roots");
+        } catch (ArithmeticException expected) {
+        }
+
+        // z^n - 1, whose roots are the n-th roots of unity
+        double[] re = new double[degree + 1], im = new double[degree + 1];
+        re[0] = -1;
+        re[degree] = 1;
+        for (Rectangular r : new ComplexPolynomial(re, im).roots())
+            if (Math.abs(Math.hypot(r.real(), r.imag()) - 1) > 1e-9
+                    || Math.abs(Math.sin(degree * Math.atan2(r.imag(), r.real()) / 2)) > 1e-6)
+                throw new AssertionError(r + " is not a root of z^" + degree + " - 1");
+
+        // small backward error for random coefficients
+        MutableRectangular v = new MutableRectangular();
+        for (Rectangular r : random.roots()) {
+            double x = r.real(), y = r.imag(), modulus = Math.hypot(x, y);
+            // evaluate the reversed polynomial outside the unit circle
+            double scale = 0, power = 1;
+            for (int k = 0; k <= degree; k++) {
+                int c = modulus > 1 ? degree - k : k;
+                scale += Math.hypot(random.real(c), random.imag(c)) * power;
+                power *= modulus > 1 ? 1 / modulus : modulus;
+            }
+            if (modulus > 1) {
+                double[] rr = new double[degree + 1], ri = new double[degree + 1];
+                for (int k = 0; k <= degree; k++) {
+                    rr[k] = random.real(degree - k);
+                    ri[k] = random.imag(degree - k);
+                }
+                new ComplexPolynomial(rr, ri).evaluate(x / (modulus*modulus), -y / (modulus*modulus), v);
+            } else {
+                random.evaluate(x, y, v);
+            }
+            if (Math.hypot(v.real(), v.imag()) > 1e-10 * degree * scale)
+                throw new AssertionError(r + " is not a root of the degree " + degree + " polynomial: residual " + v);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the accuracy and throughput of the three modes of
+ * {@link ComplexReductions}, for sums and dot products over arrays and for
+ * sums over a list, against the running sum with {@code PlusC} that they
+ * replace. One operation is one element.
+ *
+ * Before measuring, each mode reduces an ill-conditioned array, where large
+ * terms cancel and leave a small sum, and a well-conditioned one. The
+ * relative errors against exact {@link BigDecimal} results are printed and
+ * checked against the documented bounds, and so are the sums of
+ * {@link ComplexReductions.Accumulator}s filled in parallel and combined.
+ */
+public class ReductionsBenchmark {
+
+    static final int N = Integer.getInteger("bench.size", 1 << 20);
+    static final int CHECKED = 1 << 14;
+
+    private static final double U = 0x1p-53;
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        verify(cancelling(new Random(22), CHECKED), "ill-conditioned");
+        verify(gaussian(new Random(22), CHECKED), "well-conditioned");
+
+        ComplexArray a = gaussian(new Random(23), N), b = gaussian(new Random(24), N);
+        List<Rectangular> list = new ArrayList<>();
+        for (int i = 0; i < N; i++)
+            list.add(a.get(i));
+        MutableRectangular dst = new MutableRectangular();
+        String params = "n=" + N;
+
+        bench.run("reductions.sum.PlusC", params, N, () -> {
+            Rectangular s = new Rectangular(0, 0);
+            for (Rectangular z : list)
+                s = ComplexNumber.PlusC(s, z);
+            return s.real();
+        });
+        for (ComplexReductions.Mode mode : ComplexReductions.Mode.values()) {
+            String name = mode.name().toLowerCase();
+            bench.run("reductions.sum." + name, params, N, () -> ComplexReductions.sum(a, mode, dst).real());
+            bench.run("reductions.sum.list." + name, params, N, () -> ComplexReductions.sum(list, mode, dst).real());
+            bench.run("reductions.dot." + name, params, N, () -> ComplexReductions.dot(a, b, mode, dst).real());
+            bench.run("reductions.sumOfSquaredModuli." + name, params, N, () -> ComplexReductions.sumOfSquaredModuli(a, mode));
+        }
+    }
+
+    private static void verify(ComplexArray a, String what) {
+        int n = a.length();
+        ComplexArray b = gaussian(new Random(25), n);
+        BigDecimal[] sum = exactSum(a), dot = exactDot(a, b, 1), cdot = exactDot(a, b, -1);
+        double[] sumScale = absSum(a, null), dotScale = absSum(a, b);
+        BigDecimal squares = exactDot(a, a, -1)[0];
+
+        List<ComplexNumber> list = new ArrayList<>();
+        for (int i = 0; i < n; i++)
+            list.add(a.get(i));
+        MutableRectangular dst = new MutableRectangular();
+        int log2 = 32 - Integer.numberOfLeadingZeros(n - 1);
+        for (ComplexReductions.Mode mode : ComplexReductions.Mode.values()) {
+            double k = mode == ComplexReductions.Mode.NAIVE ? n + 1
+                    : mode == ComplexReductions.Mode.PAIRWISE ? ComplexReductions.BLOCK + 1 + log2 : 0;
+            ComplexReductions.sum(a, mode, dst);
+            double sumError = check(dst, sum, sumScale, k, n, mode + " sum");
+            ComplexReductions.dot(a, b, mode, dst);
+            double dotError = check(dst, dot, dotScale, k, n, mode + " dot");
+            ComplexReductions.conjugateDot(a, b, mode, dst);
+            check(dst, cdot, dotScale, k, n, mode + " conjugateDot");
+            check(dst.set(ComplexReductions.sumOfSquaredModuli(a, mode), 0), new BigDecimal[] { squares, BigDecimal.ZERO },
+                    new double[] { squares.doubleValue(), 0 }, k, n, mode + " sumOfSquaredModuli");
+            // the streaming pairwise sum adds its partial sums one after the other, for up to log₂ n more roundings
+            double ka = mode == ComplexReductions.Mode.PAIRWISE ? k + log2 : k;
+            double listError = check(ComplexReductions.sum(list, mode, dst), sum, sumScale, ka, n, mode + " list sum");
+            int pieces = 16;
+            ComplexReductions.Accumulator parallel = IntStream.range(0, pieces).parallel().collect(
+                    () -> new ComplexReductions.Accumulator(mode),
+                    (acc, p) -> acc.add(a, p * n / pieces, (p + 1) * n / pieces),
+                    ComplexReductions.Accumulator::combine);
+            if (parallel.count() != n)
+                throw new AssertionError("combined accumulators counted " + parallel.count() + " values");
+            double parallelError = check(parallel.sum(dst), sum, sumScale, ka + pieces, n, mode + " parallel sum");
+            System.err.printf("  %s, %s: relative error of sum %.2e, dot %.2e, list sum %.2e, parallel sum %.2e%n",
+                    what, mode, sumError, dotError, listError, parallelError);
+        }
+
+        MutableRectangular naive = new ComplexReductions.Accumulator(ComplexReductions.Mode.NAIVE).add(a, 0, n).sum(new MutableRectangular());
+        ComplexReductions.sum(a, ComplexReductions.Mode.NAIVE, dst);
+        if (naive.real() != dst.real() || naive.imag() != dst.imag())
+            throw new AssertionError("the naive accumulator and the naive array sum differ");
+        ComplexReductions.mean(a, ComplexReductions.Mode.COMPENSATED, dst);
+        if (dst.real() != ComplexReductions.sum(a, ComplexReductions.Mode.COMPENSATED, new MutableRectangular()).real() / n)
+            throw new AssertionError("the mean is not the sum divided by " + n);
+    }
+
+    /**
+     * Checks both components against the documented bound <i>k u S</i>, or for
+     * the compensated mode (<i>k</i> = 0) <i>2u |s| + 8n² u² S</i>, and
+     * returns the larger error relative to the modulus of the exact result.
+     */
+    private static double check(MutableRectangular result, BigDecimal[] exact, double[] scale, double k, int n, String what) {
+        double[] got = { result.real(), result.imag() };
+        double worst = 0;
+        for (int c = 0; c < 2; c++) {
+            double s = exact[c].doubleValue();
+            double error = new BigDecimal(got[c]).subtract(exact[c]).abs().doubleValue();
+            double bound = k > 0 ? k * U * scale[c] : 2 * U * Math.abs(s) + 8.0 * n * n * U * U * scale[c];
+            if (error > bound)
+                throw new AssertionError(what + ": error " + error + " above the bound " + bound + " in component " + c);
+            worst = Math.max(worst, error);
+        }
+        return worst / Math.hypot(exact[0].doubleValue(), exact[1].doubleValue());
+    }
+
+    private static BigDecimal[] exactSum(ComplexArray a) {
+        BigDecimal re = BigDecimal.ZERO, im = BigDecimal.ZERO;
+        for (int i = 0; i < a.length(); i++) {
+            re = re.add(new BigDecimal(a.real(i)));
+            im = im.add(new BigDecimal(a.imag(i)));
+        }
+        return new BigDecimal[] { re, im };
+    }
+
+    private static BigDecimal[] exactDot(ComplexArray a, ComplexArray b, int sign) {
+        BigDecimal re = BigDecimal.ZERO, im = BigDecimal.ZERO;
+        for (int i = 0; i < a.length(); i++) {
+            BigDecimal x = new BigDecimal(a.real(i)), y = new BigDecimal(sign * a.imag(i));
+            BigDecimal u = new BigDecimal(b.real(i)), v = new BigDecimal(b.imag(i));
+            re = re.add(x.multiply(u)).subtract(y.multiply(v));
+            im = im.add(x.multiply(v)).add(y.multiply(u));
+        }
+        return new BigDecimal[] { re, im };
+    }
+
+    /** Returns <i>S</i> for each component: the sum of the absolute values of the elements, or of the products. */
+    private static double[] absSum(ComplexArray a, ComplexArray b) {
+        double re = 0, im = 0;
+        for (int i = 0; i < a.length(); i++) {
+            double x = a.real(i), y = a.imag(i);
+            if (b == null) {
+                re += Math.abs(x);
+                im += Math.abs(y);
+            } else {
+                re += Math.abs(x * b.real(i)) + Math.abs(y * b.imag(i));
+                im += Math.abs(x * b.imag(i)) + Math.abs(y * b.real(i));
+            }
+        }
+        // round up generously, the sums above are themselves approximate
+        return new double[] { re * (1 + 1e-10), im * (1 + 1e-10) };
+    }
+
+    private static ComplexArray gaussian(Random random, int n) {
+        ComplexArray a = new ComplexArray(n);
+        for (int i = 0; i < n; i++)
+            a.set(i, random.nextGaussian(), random.nextGaussian());
+        return a;
+    }
+
+    /** Pairs of large terms that cancel up to small ones, in random order. */
+    private static ComplexArray cancelling(Random random, int n) {
+        ComplexArray a = new ComplexArray(n);
+        for (int i = 0; i < n; i += 2) {
+            double scale = Math.scalb(1.0, random.nextInt(40));
+            double x = random.nextGaussian() * scale, y = random.nextGaussian() * scale;
+            a.set(i, x, y);
+            a.set(i + 1, -x + random.nextGaussian(), -y + random.nextGaussian());
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double x = a.real(i), y = a.imag(i);
+            a.set(i, a.real(j), a.imag(j));
+            a.set(j, x, y);
+        }
+        return a;
+    }
+}
@@ -0,0 +1,123 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares {@link ComplexKernels#best()} with the scalar kernels, in split and
+ * interleaved layouts, at several array sizes. Before measuring, it checks
+ * that both give the same results and that the scalar kernels agree with the
+ * static operators of {@link ComplexNumber}.
+ *
+ * Run with {@code --add-modules jdk.incubator.vector} and the compiled
+ * {@code vector/} sources on the class path to measure the SIMD kernels.
+ */
+public class SimdBenchmark {
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        ComplexKernels scalar = ComplexKernels.scalar(), best = ComplexKernels.best();
+        verify(scalar, best, 1027);
+        for (int n : new int[] { 64, 1024, 16384, 1 << 20 }) {
+            Data d = new Data(n);
+            for (ComplexKernels k : best == scalar ? new ComplexKernels[] { scalar } : new ComplexKernels[] { scalar, best }) {
+                String params = k.name() + ",n=" + n;
+                bench.run("split.PlusC", params, n, () -> { k.PlusC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, 0, n); return d.dr[0]; });
+                bench.run("split.TimesC", params, n, () -> { k.TimesC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, 0, n); return d.dr[0]; });
+                bench.run("split.DivideC", params, n, () -> { k.DivideC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, 0, n); return d.dr[0]; });
+                bench.run("interleaved.PlusC", params, n, () -> { k.PlusCInterleaved(d.a, d.b, d.dst, 0, n); return d.dst[0]; });
+                bench.run("interleaved.TimesC", params, n, () -> { k.TimesCInterleaved(d.a, d.b, d.dst, 0, n); return d.dst[0]; });
+                bench.run("interleaved.DivideC", params, n, () -> { k.DivideCInterleaved(d.a, d.b, d.dst, 0, n); return d.dst[0]; });
+                // the SIMD moduli are the FAST mode; under ACCURATE both run the scalar kernels
+                ComplexMeasure.Mode mode = ComplexMeasure.defaultMode();
+                try {
+                    for (ComplexMeasure.Mode m : ComplexMeasure.Mode.values()) {
+                        ComplexMeasure.setDefaultMode(m);
+                        String moduli = params + ",mode=" + m;
+                        bench.run("split.modulus", moduli, n, () -> { k.modulus(d.ar, d.ai, d.dr, 0, n); return d.dr[0]; });
+                        bench.run("interleaved.modulus", moduli, n, () -> { k.modulusInterleaved(d.a, d.dr, 0, n); return d.dr[0]; });
+                    }
+                } finally {
+                    ComplexMeasure.setDefaultMode(mode);
+                }
+            }
+        }
+    }
+
+    private static class Data {
+        final double[] ar, ai, br, bi, dr, di, a, b, dst;
+
+        Data(int n) {
+            Random random = new Random(n);
+            ar = new double[n]; ai = new double[n]; br = new double[n]; bi = new double[n];
+            dr = new double[n]; di = new double[n];
+            a = new double[2*n]; b = new double[2*n]; dst = new double[2*n];
+            for (int i = 0; i < n; i++) {
+                a[2*i] = ar[i] = random.nextGaussian();
+                a[2*i + 1] = ai[i] = random.nextGaussian();
+                b[2*i] = br[i] = random.nextGaussian();
+                b[2*i + 1] = bi[i] = random.nextGaussian();
+            }
+        }
+    }
+
+    private static void verify(ComplexKernels scalar, ComplexKernels best, int n) {
+        Data d = new Data(n);
+        Rectangular[] expected = new Rectangular[n];
+        for (int i = 0; i < n; i++)
+            expected[i] = ComplexNumber.TimesC(new Rectangular(d.ar[i], d.ai[i]), new Rectangular(d.br[i], d.bi[i]));
+        scalar.TimesC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, 0, n);
+        for (int i = 0; i < n; i++)
+            if (d.dr[i] != expected[i].real() || d.di[i] != expected[i].imag())
+                throw new AssertionError("scalar TimesC differs from ComplexNumber.TimesC at " + i);
+        for (int i = 0; i < n; i++) {
+            Rectangular q = ComplexNumber.DivideC(new Rectangular(d.ar[i], d.ai[i]), new Rectangular(d.br[i], d.bi[i]));
+            expected[i] = q;
+        }
+        scalar.DivideC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, 0, n);
+        for (int i = 0; i < n; i++)
+            if (d.dr[i] != expected[i].real() || d.di[i] != expected[i].imag())
+                throw new AssertionError("scalar DivideC differs from ComplexNumber.DivideC at " + i);
+
+        // the moduli follow the mode of ComplexMeasure
+        ComplexMeasure.Mode mode = ComplexMeasure.defaultMode();
+        try {
+            for (ComplexMeasure.Mode m : ComplexMeasure.Mode.values()) {
+                ComplexMeasure.setDefaultMode(m);
+                scalar.modulus(d.ar, d.ai, d.dr, 0, n);
+                scalar.modulusInterleaved(d.a, d.di, 0, n);
+                for (int i = 0; i < n; i++)
+                    if (d.dr[i] != ComplexMeasure.modulus(d.ar[i], d.ai[i], m) || d.di[i] != d.dr[i])
+                        throw new AssertionError("scalar modulus differs from ComplexMeasure.modulus in mode " + m + " at " + i);
+            }
+        } finally {
+            ComplexMeasure.setDefaultMode(mode);
+        }
+
+        if (best == scalar)
+            return;
+        Data s = new Data(n), v = new Data(n);
+        for (int op = 0; op < 6; op++) {
+            apply(scalar, op, s, n);
+            apply(best, op, v, n);
+            if (!Arrays.equals(s.dr, v.dr) || !Arrays.equals(s.di, v.di) || !Arrays.equals(s.dst, v.dst))
+                throw new AssertionError(best.name() + " differs from the scalar kernels in operation " + op);
+        }
+    }
+
+    private static void apply(ComplexKernels k, int op, Data d, int n) {
+        // run the split and the interleaved variant over an odd range to cover the scalar tails
+        int from = 1;
+        switch (op) {
+            case 0: k.PlusC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, from, n); k.PlusCInterleaved(d.a, d.b, d.dst, from, n); break;
+            case 1: k.MinusC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, from, n); k.MinusCInterleaved(d.a, d.b, d.dst, from, n); break;
+            case 2: k.TimesC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, from, n); k.TimesCInterleaved(d.a, d.b, d.dst, from, n); break;
+            case 3: k.DivideC(d.ar, d.ai, d.br, d.bi, d.dr, d.di, from, n); k.DivideCInterleaved(d.a, d.b, d.dst, from, n); break;
+            case 4: k.conjugate(d.ar, d.ai, d.dr, d.di, from, n); k.conjugateInterleaved(d.a, d.dst, from, n); break;
+            default: k.modulus(d.ar, d.ai, d.dr, from, n); k.modulusInterleaved(d.a, d.di, from, n); break;
+        }
+    }
+}
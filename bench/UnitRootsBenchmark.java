@@ -0,0 +1,52 @@
+/**
+ * Measures rotations by roots of unity: building a new {@link Polar} for each
+ * rotation against taking it from a {@link UnitRoots} table, and repeated
+ * component reads from a memoized {@link Polar}.
+ */
+public class UnitRootsBenchmark {
+
+    public static void main(String[] args) {
+        Bench bench = new Bench();
+        run(bench);
+        System.out.println(bench.toJson());
+    }
+
+    static void run(Bench bench) {
+        int n = 4096;
+        int rounds = 64;
+        UnitRoots cache = new UnitRoots(1 << 20);
+        Polar[] roots = new Polar[n];
+        for (int k = 0; k < n; k++)
+            roots[k] = cache.root(n, k);
+        Rectangular z = new Rectangular(0.3, -1.2);
+        String params = "n=" + n;
+
+        bench.run("rotate.newPolar", params, n, () -> {
+            double s = 0;
+            for (int k = 0; k < n; k++)
+                s += ComplexNumber.TimesC(z, new Polar(1, 2*Math.PI*k / n)).real();
+            return s;
+        });
+        bench.run("rotate.cachedRoot", params, n, () -> {
+            double s = 0;
+            for (int k = 0; k < n; k++)
+                s += ComplexNumber.TimesC(z, roots[k]).real();
+            return s;
+        });
+        bench.run("rotate.table", params, n, () -> {
+            UnitRoots.Table table = cache.table(n);
+            double s = 0;
+            for (int k = 0; k < n; k++)
+                s += z.real()*table.cos(k) - z.imag()*table.sin(k);
+            return s;
+        });
+        bench.run("polar.repeatedReal", params, (long) n * rounds, () -> {
+            double s = 0;
+            for (int r = 0; r < rounds; r++)
+                for (int k = 0; k < n; k++)
+                    s += roots[k].real() + roots[k].imag();
+            return s;
+        });
+        System.err.println(cache);
+    }
+}
@@ -0,0 +1,190 @@
+/**
+ * An immutable complex number with value semantics, for use as a hash key,
+ * in caches and in hot loops. The class is final and holds nothing but its
+ * two components, so that calls on a {@code Complex} are monomorphic and
+ * inline, where calls through {@link ComplexNumber} may see several
+ * implementations; it is also ready to become a value class.
+ *
+ * Numbers are stored in rectangular form whichever form they are created
+ * from, so a {@link Polar} on an axis and the rectangular number it
+ * denotes give equal values. {@link #equals} compares the components with
+ * -0.0 identified with 0.0 and all NaNs identified with each other, which,
+ * unlike {@code ==}, makes it an equivalence relation consistent with
+ * {@link #hashCode}.
+ */
+public final class Complex extends ComplexNumber {
+
+    public static final Complex ZERO = new Complex(0, 0);
+    public static final Complex ONE = new Complex(1, 0);
+    public static final Complex I = new Complex(0, 1);
+
+    private final double real;
+    private final double imag;
+
+    private Complex(double real, double imag) {
+        ComplexMetrics.count(ComplexMetrics.Counter.ALLOCATION);
+        this.real = real;
+        this.imag = imag;
+    }
+
+    /**
+     * Returns the complex number <i>real + imag i</i>.
+     *
+     * @param   real    the real part.
+     * @param   imag    the imaginary part.
+     *
+     * @return  the complex number.
+     */
+    public static Complex of(double real, double imag) {
+        return new Complex(real, imag);
+    }
+
+    /**
+     * Returns a complex number equal to <i>z</i>. A {@code Complex} is
+     * returned as it is; a {@link Polar} is converted through its rectangular
+     * components, which are exact on the axes.
+     *
+     * @param   z   a complex number in any form.
+     * @return  the complex number.
+     */
+    public static Complex of(ComplexNumber z) {
+        if (z instanceof Complex)
+            return (Complex) z;
+        return new Complex(z.real(), z.imag());
+    }
+
+    /**
+     * Returns the complex number <i>r e^(iθ)</i>, converted to rectangular
+     * form as {@link Polar} does.
+     *
+     * @param   r       the modulus.
+     * @param   theta   the phase, in radians.
+     *
+     * @return  the complex number.
+     */
+    public static Complex ofPolar(double r, double theta) {
+        return of(new Polar(r, theta));
+    }
+
+    public double real() {
+        return this.real;
+    }
+
+    public double imag() {
+        return this.imag;
+    }
+
+    public double modulus() {
+        return ComplexMeasure.modulus(this.real, this.imag);
+    }
+
+    public double phase() {
+        return ComplexMeasure.phase(this.real, this.imag);
+    }
+
+    public Complex conjugate() {
+        return new Complex(this.real, -this.imag);
+    }
+
+    public Complex negate() {
+        return new Complex(-this.real, -this.imag);
+    }
+
+    /**
+     * Returns <i>this + b</i>.
+     * @param   b   a complex number.
+     * @return  the sum.
+     */
+    public Complex plus(Complex b) {
+        return new Complex(this.real + b.real, this.imag + b.imag);
+    }
+
+    public Complex plus(double b) {
+        return new Complex(this.real + b, this.imag);
+    }
+
+    /**
+     * Returns <i>this - b</i>.
+     * @param   b   a complex number.
+     * @return  the difference.
+     */
+    public Complex minus(Complex b) {
+        return new Complex(this.real - b.real, this.imag - b.imag);
+    }
+
+    public Complex minus(double b) {
+        return new Complex(this.real - b, this.imag);
+    }
+
+    /**
+     * Returns <i>this × b</i>.
+     * @param   b   a complex number.
+     * @return  the product.
+     */
+    public Complex times(Complex b) {
+        return new Complex(this.real*b.real - this.imag*b.imag, this.real*b.imag + this.imag*b.real);
+    }
+
+    public Complex times(double b) {
+        return new Complex(this.real * b, this.imag * b);
+    }
+
+    /**
+     * Returns <i>this / b</i>.
+     * @param   b   a complex number.
+     * @return  the quotient.
+     */
+    public Complex divide(Complex b) {
+        double[] out = new double[2];
+        ComplexFunctions.divide(this.real, this.imag, b.real, b.imag, out);
+        return new Complex(out[0], out[1]);
+    }
+
+    public Complex divide(double b) {
+        return new Complex(this.real / b, this.imag / b);
+    }
+
+    public Rectangular toComplexRect() {
+        return new Rectangular(this.real, this.imag);
+    }
+
+    public Polar toComplexPolar() {
+        ComplexMetrics.count(ComplexMetrics.Counter.RECTANGULAR_TO_POLAR);
+        return new Polar(this.modulus(), this.phase());
+    }
+
+    /**
+     * Compares the components of two numbers, identifying -0.0 with 0.0 and
+     * every NaN with every other NaN.
+     *
+     * @param   o   an object.
+     * @return  whether <i>o</i> is a {@code Complex} with the same value.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof Complex))
+            return false;
+        Complex z = (Complex) o;
+        return bits(this.real) == bits(z.real) && bits(this.imag) == bits(z.imag);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = bits(this.real) * 31 + bits(this.imag);
+        return (int) (h ^ (h >>> 32));
+    }
+
+    // adding 0.0 turns -0.0 into 0.0, and doubleToLongBits collapses the NaNs
+    private static long bits(double x) {
+        return Double.doubleToLongBits(x + 0.0);
+    }
+
+    @Override
+    public String toString() {
+        if (imag < 0)
+            return "" + this.real + " - " + -this.imag + "i";
+        return "" + this.real + " + " + this.imag + "i";
+    }
+}
@@ -0,0 +1,576 @@
+public class ComplexArray {
+    private final double[] re;
+    private final double[] im;
+
+    /**
+     * Creates an array of <i>length</i> complex numbers, all equal to zero.
+     *
+     * @param   length  the number of elements.
+     */
+    public ComplexArray(int length) {
+        this(new double[length], new double[length]);
+    }
+
+    /**
+     * Creates an array backed by the given real and imaginary parts. The
+     * arrays are not copied, so later writes through either side are visible
+     * to the other.
+     *
+     * @param   re  the real parts.
+     * @param   im  the imaginary parts, of the same length as <i>re</i>.
+     */
+    public ComplexArray(double[] re, double[] im) {
+        if (re.length != im.length)
+            throw new IllegalArgumentException("real and imaginary parts differ in length: " + re.length + " != " + im.length);
+        this.re = re;
+        this.im = im;
+    }
+
+    /**
+     * Returns a new array holding the values of the given complex numbers.
+     *
+     * @param   values  complex numbers in either form.
+     *
+     * @return  an array with the rectangular components of <i>values</i>.
+     */
+    public static ComplexArray fromArray(ComplexNumber[] values) {
+        ComplexArray result = new ComplexArray(values.length);
+        for (int i = 0; i < values.length; i++)
+            result.set(i, values[i]);
+        return result;
+    }
+
+    public int length() {
+        return this.re.length;
+    }
+
+    /**
+     * Returns the backing array of real parts.
+     * @return  the real parts, not a copy.
+     */
+    public double[] re() {
+        return this.re;
+    }
+
+    /**
+     * Returns the backing array of imaginary parts.
+     * @return  the imaginary parts, not a copy.
+     */
+    public double[] im() {
+        return this.im;
+    }
+
+    public double real(int i) {
+        return this.re[i];
+    }
+
+    public double imag(int i) {
+        return this.im[i];
+    }
+
+    /**
+     * Returns the element at index <i>i</i> in rectangular form.
+     * @param   i   the index.
+     * @return  a new complex number in rectangular form.
+     */
+    public Rectangular get(int i) {
+        return new Rectangular(this.re[i], this.im[i]);
+    }
+
+    /**
+     * Returns the element at index <i>i</i> in polar form.
+     * @param   i   the index.
+     * @return  a new complex number in polar form.
+     */
+    public Polar getPolar(int i) {
+        return this.get(i).toComplexPolar();
+    }
+
+    /**
+     * Returns the element at index <i>i</i> as a value.
+     * @param   i   the index.
+     * @return  the complex number.
+     */
+    public Complex getComplex(int i) {
+        return Complex.of(this.re[i], this.im[i]);
+    }
+
+    public void set(int i, double real, double imag) {
+        this.re[i] = real;
+        this.im[i] = imag;
+    }
+
+    public void set(int i, ComplexNumber z) {
+        this.re[i] = z.real();
+        this.im[i] = z.imag();
+    }
+
+    /**
+     * Returns a copy of the elements as complex numbers in rectangular form.
+     * @return  a new array of complex numbers in rectangular form.
+     */
+    public Rectangular[] toArray() {
+        Rectangular[] result = new Rectangular[this.length()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = this.get(i);
+        return result;
+    }
+
+    /**
+     * Stores the element-wise sum of two arrays in <i>dst</i>. The destination
+     * may be the same array as either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a + b</i>.
+     */
+    public static void PlusC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        PlusC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    /**
+     * Stores the element-wise sum of two arrays in <i>dst</i>, for the indices
+     * from <i>from</i>, inclusive, to <i>to</i>, exclusive.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   b       an array of complex numbers.
+     * @param   dst     the array receiving the result.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     */
+    public static void PlusC(ComplexArray a, ComplexArray b, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS, to - from);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i] + br[i];
+            di[i] = ai[i] + bi[i];
+        }
+    }
+
+    /**
+     * Stores the element-wise difference of two arrays in <i>dst</i>. The
+     * destination may be the same array as either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a - b</i>.
+     */
+    public static void MinusC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        MinusC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    /**
+     * Stores the element-wise difference of two arrays in <i>dst</i>, for the indices
+     * from <i>from</i>, inclusive, to <i>to</i>, exclusive.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   b       an array of complex numbers.
+     * @param   dst     the array receiving the result.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     */
+    public static void MinusC(ComplexArray a, ComplexArray b, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS, to - from);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i] - br[i];
+            di[i] = ai[i] - bi[i];
+        }
+    }
+
+    /**
+     * Stores the element-wise product of two arrays in <i>dst</i>. The
+     * destination may be the same array as either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a × b</i>.
+     */
+    public static void TimesC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        TimesC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    /**
+     * Stores the element-wise product of two arrays in <i>dst</i>, for the indices
+     * from <i>from</i>, inclusive, to <i>to</i>, exclusive.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   b       an array of complex numbers.
+     * @param   dst     the array receiving the result.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     */
+    public static void TimesC(ComplexArray a, ComplexArray b, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES, to - from);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            double x = ar[i], y = ai[i], u = br[i], v = bi[i];
+            dr[i] = x*u - y*v;
+            di[i] = x*v + y*u;
+        }
+    }
+
+    /**
+     * Stores the element-wise quotient of two arrays in <i>dst</i>. The
+     * destination may be the same array as either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a / b</i>.
+     */
+    public static void DivideC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        DivideC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    /**
+     * Stores the element-wise quotient of two arrays in <i>dst</i>, for the indices
+     * from <i>from</i>, inclusive, to <i>to</i>, exclusive.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   b       an array of complex numbers.
+     * @param   dst     the array receiving the result.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     */
+    public static void DivideC(ComplexArray a, ComplexArray b, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE, to - from);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.divide(ar[i], ai[i], br[i], bi[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the element-wise conjugate of <i>a</i> in <i>dst</i>.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving the conjugates, possibly <i>a</i> itself.
+     */
+    public static void conjugate(ComplexArray a, ComplexArray dst) {
+        conjugate(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void conjugate(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i];
+            di[i] = -ai[i];
+        }
+    }
+
+    /**
+     * Stores the modulus of every element of <i>a</i> in <i>dst</i>.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst an array of the same length receiving the moduli.
+     */
+    public static void modulus(ComplexArray a, double[] dst) {
+        modulus(a, dst, 0, checkLength(a, dst));
+    }
+
+    public static void modulus(ComplexArray a, double[] dst, int from, int to) {
+        ComplexMeasure.modulus(a, dst, from, to, ComplexMeasure.defaultMode());
+    }
+
+    /**
+     * Stores the phase of every element of <i>a</i> in <i>dst</i>, in the
+     * range <i>[-π, π]</i>.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst an array of the same length receiving the phases.
+     */
+    public static void phase(ComplexArray a, double[] dst) {
+        phase(a, dst, 0, checkLength(a, dst));
+    }
+
+    public static void phase(ComplexArray a, double[] dst, int from, int to) {
+        ComplexMeasure.phase(a, dst, from, to, ComplexMeasure.defaultMode());
+    }
+
+    /**
+     * Stores every element of <i>a</i> raised to the real power <i>b</i> in
+     * <i>dst</i>, which may be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   a real number.
+     * @param   dst the array receiving <i>a ^ b</i>.
+     */
+    public static void power(ComplexArray a, double b, ComplexArray dst) {
+        power(a, b, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void power(ComplexArray a, double b, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER, to - from);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        boolean integer = ComplexFunctions.isSmallInteger(b);
+        for (int i = from; i < to; i++) {
+            if (integer)
+                ComplexFunctions.integerPower(ar[i], ai[i], (int) b, out);
+            else
+                ComplexFunctions.power(ar[i], ai[i], b, 0, out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the element-wise power <i>a ^ b</i> in <i>dst</i>, which may be
+     * either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a ^ b</i>.
+     */
+    public static void power(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        power(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void power(ComplexArray a, ComplexArray b, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER, to - from);
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.power(ar[i], ai[i], br[i], bi[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the exponential of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>exp a</i>.
+     */
+    public static void exp(ComplexArray a, ComplexArray dst) {
+        exp(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void exp(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.exp(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the principal natural logarithm of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>log a</i>.
+     */
+    public static void log(ComplexArray a, ComplexArray dst) {
+        log(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void log(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.log(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the principal square root of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>sqrt a</i>.
+     */
+    public static void sqrt(ComplexArray a, ComplexArray dst) {
+        sqrt(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void sqrt(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.sqrt(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the sine of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>sin a</i>.
+     */
+    public static void sin(ComplexArray a, ComplexArray dst) {
+        sin(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void sin(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.sin(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the cosine of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>cos a</i>.
+     */
+    public static void cos(ComplexArray a, ComplexArray dst) {
+        cos(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void cos(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.cos(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the tangent of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>tan a</i>.
+     */
+    public static void tan(ComplexArray a, ComplexArray dst) {
+        tan(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void tan(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.tan(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the hyperbolic sine of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>sinh a</i>.
+     */
+    public static void sinh(ComplexArray a, ComplexArray dst) {
+        sinh(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void sinh(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.sinh(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the hyperbolic cosine of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>cosh a</i>.
+     */
+    public static void cosh(ComplexArray a, ComplexArray dst) {
+        cosh(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void cosh(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.cosh(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores the hyperbolic tangent of every element of <i>a</i> in <i>dst</i>, which may
+     * be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst the array receiving <i>tanh a</i>.
+     */
+    public static void tanh(ComplexArray a, ComplexArray dst) {
+        tanh(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void tanh(ComplexArray a, ComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        double[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.tanh(ar[i], ai[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    private static int checkLengths(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        int n = a.length();
+        if (b.length() != n || dst.length() != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + b.length() + ", " + dst.length());
+        return n;
+    }
+
+    private static void checkRange(int n, int from, int to) {
+        if (from < 0 || from > to || to > n)
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for length " + n);
+    }
+
+    private static int checkLength(ComplexArray a, double[] dst) {
+        int n = a.length();
+        if (dst.length != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + dst.length);
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < this.length(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(this.get(i));
+        }
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,454 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary file format for arrays of complex numbers, with writers
+ * and readers on NIO channels.
+ *
+ * A file starts with a {@value #HEADER_SIZE}-byte header:
+ * <pre>
+ *  0  4 bytes   magic "CPLX"
+ *  4  1 byte    format version, currently 1
+ *  5  1 byte    layout: 0 interleaved (re, im, re, im, ...), 1 split (all re, then all im)
+ *  6  1 byte    precision: 4 (float32) or 8 (float64) bytes per component
+ *  7  1 byte    byte order of the data: 0 big-endian, 1 little-endian
+ *  8  8 bytes   number of complex values, big-endian
+ * 16 16 bytes   reserved, zero
+ * </pre>
+ * followed by the data. Files of any size can be read through a memory
+ * mapped {@link View} or streamed in blocks with a {@link Reader}.
+ */
+public final class ComplexFile {
+
+    public static final int HEADER_SIZE = 32;
+    private static final int MAGIC = 0x43504C58;    // "CPLX"
+    private static final int VERSION = 1;
+
+    public enum Layout { INTERLEAVED, SPLIT }
+
+    public enum Precision {
+        FLOAT32(4), FLOAT64(8);
+
+        final int bytes;
+
+        Precision(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    /** The description of a file's contents, as stored in its header. */
+    public static final class Header {
+        public final Layout layout;
+        public final Precision precision;
+        public final ByteOrder order;
+        public final long length;
+
+        public Header(Layout layout, Precision precision, ByteOrder order, long length) {
+            if (length < 0)
+                throw new IllegalArgumentException("negative length: " + length);
+            this.layout = layout;
+            this.precision = precision;
+            this.order = order;
+            this.length = length;
+        }
+
+        /** Returns the file offset of the real part of element <i>i</i>. */
+        long realOffset(long i) {
+            int size = this.precision.bytes;
+            return HEADER_SIZE + (this.layout == Layout.INTERLEAVED ? 2*i*size : i*size);
+        }
+
+        /** Returns the file offset of the imaginary part of element <i>i</i>. */
+        long imagOffset(long i) {
+            int size = this.precision.bytes;
+            return HEADER_SIZE + (this.layout == Layout.INTERLEAVED ? (2*i + 1)*size : (this.length + i)*size);
+        }
+
+        long fileSize() {
+            return HEADER_SIZE + 2*this.length*this.precision.bytes;
+        }
+
+        ByteBuffer encode() {
+            ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.BIG_ENDIAN);
+            buffer.putInt(MAGIC)
+                    .put((byte) VERSION)
+                    .put((byte) this.layout.ordinal())
+                    .put((byte) this.precision.bytes)
+                    .put((byte) (this.order == ByteOrder.BIG_ENDIAN ? 0 : 1))
+                    .putLong(this.length);
+            buffer.position(HEADER_SIZE);
+            buffer.flip();
+            return buffer;
+        }
+
+        static Header decode(ByteBuffer buffer) throws IOException {
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC)
+                throw new IOException("not a complex array file");
+            int version = buffer.get();
+            if (version != VERSION)
+                throw new IOException("unsupported format version " + version);
+            int layout = buffer.get(), precision = buffer.get(), order = buffer.get();
+            if (layout < 0 || layout > 1 || (precision != 4 && precision != 8) || order < 0 || order > 1)
+                throw new IOException("corrupt header");
+            return new Header(Layout.values()[layout], precision == 4 ? Precision.FLOAT32 : Precision.FLOAT64,
+                    order == 0 ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN, buffer.getLong());
+        }
+
+        @Override
+        public String toString() {
+            return "Header[" + this.layout + ", " + this.precision + ", " + this.order + ", length=" + this.length + "]";
+        }
+    }
+
+    private static final int BLOCK = 1 << 16;
+
+    private ComplexFile() {
+    }
+
+    /**
+     * Writes an array to a file, replacing any existing file.
+     *
+     * @param   path        the file to write.
+     * @param   a           the values to write.
+     * @param   layout      the layout of the data.
+     * @param   precision   the precision of the data; float32 rounds every component.
+     * @param   order       the byte order of the data.
+     *
+     * @throws  IOException if the file cannot be written.
+     */
+    public static void write(Path path, ComplexArray a, Layout layout, Precision precision, ByteOrder order) throws IOException {
+        Header header = new Header(layout, precision, order, a.length());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header.encode());
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BLOCK * 2 * precision.bytes).order(order);
+            int n = a.length();
+            if (layout == Layout.INTERLEAVED) {
+                for (int from = 0; from < n; from += BLOCK) {
+                    int to = Math.min(n, from + BLOCK);
+                    for (int i = from; i < to; i++) {
+                        put(buffer, precision, a.real(i));
+                        put(buffer, precision, a.imag(i));
+                    }
+                    buffer.flip();
+                    writeFully(channel, buffer);
+                    buffer.clear();
+                }
+            } else {
+                writeComponents(channel, buffer, precision, a.re());
+                writeComponents(channel, buffer, precision, a.im());
+            }
+        }
+    }
+
+    public static void write(Path path, ComplexArray a) throws IOException {
+        write(path, a, Layout.INTERLEAVED, Precision.FLOAT64, ByteOrder.nativeOrder());
+    }
+
+    private static void writeComponents(FileChannel channel, ByteBuffer buffer, Precision precision, double[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (buffer.remaining() < precision.bytes) {
+                buffer.flip();
+                writeFully(channel, buffer);
+                buffer.clear();
+            }
+            put(buffer, precision, values[i]);
+        }
+        buffer.flip();
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void put(ByteBuffer buffer, Precision precision, double value) {
+        if (precision == Precision.FLOAT64)
+            buffer.putDouble(value);
+        else
+            buffer.putFloat((float) value);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Reads the header of a file.
+     *
+     * @param   path    the file to read.
+     * @return  the header.
+     * @throws  IOException if the file cannot be read or is not in this format.
+     */
+    public static Header header(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readHeader(channel);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        while (buffer.hasRemaining())
+            if (channel.read(buffer, buffer.position()) < 0)
+                throw new IOException("truncated header");
+        buffer.flip();
+        Header header = Header.decode(buffer);
+        if (channel.size() < header.fileSize())
+            throw new IOException("file is shorter than its header says: " + channel.size() + " < " + header.fileSize());
+        return header;
+    }
+
+    /**
+     * Reads a whole file into a new array.
+     *
+     * @param   path    the file to read, of at most {@code Integer.MAX_VALUE} values.
+     * @return  the values in the file.
+     * @throws  IOException if the file cannot be read or is not in this format.
+     */
+    public static ComplexArray read(Path path) throws IOException {
+        try (Reader reader = new Reader(path)) {
+            if (reader.header().length > Integer.MAX_VALUE)
+                throw new IOException("too many values for one array: " + reader.header().length);
+            ComplexArray a = new ComplexArray((int) reader.header().length);
+            reader.read(a, 0, a.length());
+            return a;
+        }
+    }
+
+    /**
+     * Opens a memory mapped view of a file. The view reads the data in place;
+     * nothing is copied until values are requested.
+     *
+     * @param   path    the file to map.
+     * @return  a view of the values in the file.
+     * @throws  IOException if the file cannot be mapped or is not in this format.
+     */
+    public static View map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new View(channel, readHeader(channel));
+        }
+    }
+
+    /**
+     * A read-only, memory mapped view of a file. Files over 2 GB are mapped
+     * in several regions. Views may be read from several threads at once.
+     */
+    public static final class View {
+        private static final int REGION_BITS = 30;
+        private static final long REGION_MASK = (1L << REGION_BITS) - 1;
+
+        private final Header header;
+        private final MappedByteBuffer[] regions;
+
+        View(FileChannel channel, Header header) throws IOException {
+            this.header = header;
+            long size = header.fileSize();
+            this.regions = new MappedByteBuffer[(int) ((size + REGION_MASK) >>> REGION_BITS)];
+            for (int r = 0; r < this.regions.length; r++) {
+                long start = (long) r << REGION_BITS;
+                this.regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, 1L << REGION_BITS));
+                this.regions[r].order(header.order);
+            }
+        }
+
+        public Header header() {
+            return this.header;
+        }
+
+        public long length() {
+            return this.header.length;
+        }
+
+        public double real(long i) {
+            return this.component(this.header.realOffset(checkIndex(i)));
+        }
+
+        public double imag(long i) {
+            return this.component(this.header.imagOffset(checkIndex(i)));
+        }
+
+        public Rectangular get(long i) {
+            return new Rectangular(this.real(i), this.imag(i));
+        }
+
+        /**
+         * Copies <i>n</i> values, starting with value <i>from</i>, to the start of <i>dst</i>.
+         *
+         * @param   from    the index of the first value to copy.
+         * @param   dst     the array receiving the values.
+         * @param   n       the number of values to copy.
+         */
+        public void copyTo(long from, ComplexArray dst, int n) {
+            if (from < 0 || n < 0 || from + n > this.header.length || n > dst.length())
+                throw new IndexOutOfBoundsException("cannot copy " + n + " values from " + from);
+            double[] re = dst.re(), im = dst.im();
+            for (int i = 0; i < n; i++) {
+                re[i] = this.component(this.header.realOffset(from + i));
+                im[i] = this.component(this.header.imagOffset(from + i));
+            }
+        }
+
+        private long checkIndex(long i) {
+            if (i < 0 || i >= this.header.length)
+                throw new IndexOutOfBoundsException("index " + i + " out of bounds for length " + this.header.length);
+            return i;
+        }
+
+        // regions are multiples of 8 bytes long and components are aligned, so none spans two regions
+        private double component(long offset) {
+            MappedByteBuffer region = this.regions[(int) (offset >>> REGION_BITS)];
+            int index = (int) (offset & REGION_MASK);
+            return this.header.precision == Precision.FLOAT64 ? region.getDouble(index) : region.getFloat(index);
+        }
+    }
+
+    /**
+     * Reads a file sequentially in blocks, for files larger than memory.
+     * Not thread-safe.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final Header header;
+        private final ByteBuffer buffer;
+        private long position;
+
+        public Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            try {
+                this.header = readHeader(this.channel);
+            } catch (IOException e) {
+                this.channel.close();
+                throw e;
+            }
+            this.buffer = ByteBuffer.allocateDirect(BLOCK * this.header.precision.bytes * 2).order(this.header.order);
+        }
+
+        public Header header() {
+            return this.header;
+        }
+
+        /**
+         * Returns the index of the next value to be read.
+         * @return  the number of values read so far.
+         */
+        public long position() {
+            return this.position;
+        }
+
+        /**
+         * Reads the next values into <i>dst</i>, from index <i>offset</i>.
+         *
+         * @param   dst     the array receiving the values.
+         * @param   offset  the index in <i>dst</i> of the first value.
+         * @param   n       the maximum number of values to read.
+         *
+         * @return  the number of values read, 0 at the end of the file.
+         * @throws  IOException if the file cannot be read.
+         */
+        public int read(ComplexArray dst, int offset, int n) throws IOException {
+            if (offset < 0 || n < 0 || offset + n > dst.length())
+                throw new IndexOutOfBoundsException("cannot read " + n + " values at " + offset);
+            n = (int) Math.min(n, this.header.length - this.position);
+            double[] re = dst.re(), im = dst.im();
+            int done = 0;
+            while (done < n) {
+                int count = Math.min(n - done, BLOCK);
+                if (this.header.layout == Layout.INTERLEAVED) {
+                    this.fill(this.header.realOffset(this.position), 2*count);
+                    for (int i = 0; i < count; i++) {
+                        re[offset + done + i] = this.next();
+                        im[offset + done + i] = this.next();
+                    }
+                } else {
+                    this.fill(this.header.realOffset(this.position), count);
+                    for (int i = 0; i < count; i++)
+                        re[offset + done + i] = this.next();
+                    this.fill(this.header.imagOffset(this.position), count);
+                    for (int i = 0; i < count; i++)
+                        im[offset + done + i] = this.next();
+                }
+                this.position += count;
+                done += count;
+            }
+            return n;
+        }
+
+        public int read(ComplexArray dst) throws IOException {
+            return this.read(dst, 0, dst.length());
+        }
+
+        private void fill(long offset, int components) throws IOException {
+            this.buffer.clear().limit(components * this.header.precision.bytes);
+            while (this.buffer.hasRemaining())
+                if (this.channel.read(this.buffer, offset + this.buffer.position()) < 0)
+                    throw new IOException("unexpected end of file");
+            this.buffer.flip();
+        }
+
+        private double next() {
+            return this.header.precision == Precision.FLOAT64 ? this.buffer.getDouble() : this.buffer.getFloat();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Appends values to a new file in interleaved layout, for data that does
+     * not fit in memory or whose length is not known in advance. The length in
+     * the header is filled in by {@link #close()}. Not thread-safe.
+     */
+    public static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final Precision precision;
+        private final ByteOrder order;
+        private final ByteBuffer buffer;
+        private long length;
+
+        public Writer(Path path, Precision precision, ByteOrder order) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.precision = precision;
+            this.order = order;
+            this.buffer = ByteBuffer.allocateDirect(BLOCK * 2 * precision.bytes).order(order);
+            writeFully(this.channel, new Header(Layout.INTERLEAVED, precision, order, 0).encode());
+        }
+
+        public void append(double real, double imag) throws IOException {
+            if (this.buffer.remaining() < 2 * this.precision.bytes)
+                this.flush();
+            put(this.buffer, this.precision, real);
+            put(this.buffer, this.precision, imag);
+            this.length++;
+        }
+
+        public void append(ComplexArray a, int from, int to) throws IOException {
+            for (int i = from; i < to; i++)
+                this.append(a.real(i), a.imag(i));
+        }
+
+        private void flush() throws IOException {
+            this.buffer.flip();
+            writeFully(this.channel, this.buffer);
+            this.buffer.clear();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.flush();
+                this.channel.position(0);
+                writeFully(this.channel, new Header(Layout.INTERLEAVED, this.precision, this.order, this.length).encode());
+            } finally {
+                this.channel.close();
+            }
+        }
+    }
+}
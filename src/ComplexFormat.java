@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Formats complex numbers into caller supplied buffers, without creating
+ * intermediate strings. Rectangular values are written as {@code a + bi} or
+ * {@code a - bi} and polar values as {@code re^θi}, the forms of
+ * {@link Rectangular#toString()} and {@link Polar#toString()}, which
+ * {@link ComplexParser} reads back.
+ *
+ * Numbers are written in one of two modes:
+ * <ul>
+ * <li>{@link Mode#SHORTEST}, the digits of {@link Double#toString(double)},
+ * which always parse back to the same double;</li>
+ * <li>{@link Mode#FIXED}, a fixed number of digits after the decimal point,
+ * rounded half away from zero. Values too large for that many digits to be
+ * meaningful are written as in the shortest mode.</li>
+ * </ul>
+ *
+ * A format keeps scratch buffers, so it is not thread-safe; use one per
+ * thread.
+ */
+public final class ComplexFormat {
+
+    public enum Mode { SHORTEST, FIXED }
+
+    public static final int MAX_DIGITS = 17;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_DIGITS + 1];
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i <= MAX_DIGITS; i++)
+            POWERS_OF_TEN[i] = 10 * POWERS_OF_TEN[i - 1];
+    }
+
+    private final Mode mode;
+    private final int digits;
+    private final StringBuilder scratch = new StringBuilder(64);
+    private char[] chars = new char[64];
+    private ByteBuffer block;
+
+    private ComplexFormat(Mode mode, int digits) {
+        this.mode = mode;
+        this.digits = digits;
+    }
+
+    /**
+     * Returns a format writing the digits of {@link Double#toString(double)}.
+     * @return  a new format in the shortest mode.
+     */
+    public static ComplexFormat shortest() {
+        return new ComplexFormat(Mode.SHORTEST, 0);
+    }
+
+    /**
+     * Returns a format writing a fixed number of digits after the decimal point.
+     *
+     * @param   digits  the number of digits after the point, from 0 to {@value #MAX_DIGITS}.
+     * @return  a new format in the fixed mode.
+     */
+    public static ComplexFormat fixed(int digits) {
+        if (digits < 0 || digits > MAX_DIGITS)
+            throw new IllegalArgumentException("digits must be between 0 and " + MAX_DIGITS + ": " + digits);
+        return new ComplexFormat(Mode.FIXED, digits);
+    }
+
+    public Mode mode() {
+        return this.mode;
+    }
+
+    public int digits() {
+        return this.digits;
+    }
+
+    /**
+     * Appends a complex number, in polar form if it is a {@link Polar} and in
+     * rectangular form otherwise.
+     *
+     * @param   z   the number to format.
+     * @param   out the builder receiving the text.
+     *
+     * @return  <i>out</i>.
+     */
+    public StringBuilder format(ComplexNumber z, StringBuilder out) {
+        if (z instanceof Polar)
+            return this.formatPolar(z.modulus(), z.phase(), out);
+        return this.formatRectangular(z.real(), z.imag(), out);
+    }
+
+    public StringBuilder formatRectangular(double real, double imag, StringBuilder out) {
+        this.number(real, out);
+        if (imag < 0) {
+            out.append(" - ");
+            this.number(-imag, out);
+        } else {
+            out.append(" + ");
+            this.number(imag, out);
+        }
+        return out.append('i');
+    }
+
+    public StringBuilder formatPolar(double r, double theta, StringBuilder out) {
+        this.number(r, out);
+        out.append("e^");
+        this.number(theta, out);
+        return out.append('i');
+    }
+
+    /**
+     * Appends a complex number to any character sink. Writers receive the
+     * text as one array of characters, other sinks one character at a time.
+     *
+     * @param   z   the number to format.
+     * @param   out the sink receiving the text.
+     *
+     * @return  <i>out</i>.
+     * @throws  IOException if the sink fails.
+     */
+    public <A extends Appendable> A format(ComplexNumber z, A out) throws IOException {
+        if (out instanceof StringBuilder) {
+            this.format(z, (StringBuilder) out);
+            return out;
+        }
+        this.scratch.setLength(0);
+        this.format(z, this.scratch);
+        this.copy(out);
+        return out;
+    }
+
+    public <A extends Appendable> A formatRectangular(double real, double imag, A out) throws IOException {
+        this.scratch.setLength(0);
+        this.formatRectangular(real, imag, this.scratch);
+        this.copy(out);
+        return out;
+    }
+
+    private void copy(Appendable out) throws IOException {
+        int n = this.scratch.length();
+        if (out instanceof Writer) {
+            if (this.chars.length < n)
+                this.chars = new char[Math.max(n, 2*this.chars.length)];
+            this.scratch.getChars(0, n, this.chars, 0);
+            ((Writer) out).write(this.chars, 0, n);
+        } else {
+            for (int i = 0; i < n; i++)
+                out.append(this.scratch.charAt(i));
+        }
+    }
+
+    /**
+     * Writes a complex number as ASCII at the position of a buffer.
+     *
+     * @param   z   the number to format.
+     * @param   out the buffer receiving the text.
+     *
+     * @return  <i>out</i>.
+     * @throws  java.nio.BufferOverflowException if the text does not fit, in which case nothing is written.
+     */
+    public ByteBuffer format(ComplexNumber z, ByteBuffer out) {
+        this.scratch.setLength(0);
+        this.format(z, this.scratch);
+        return this.copy(out);
+    }
+
+    public ByteBuffer formatRectangular(double real, double imag, ByteBuffer out) {
+        this.scratch.setLength(0);
+        this.formatRectangular(real, imag, this.scratch);
+        return this.copy(out);
+    }
+
+    private ByteBuffer copy(ByteBuffer out) {
+        int n = this.scratch.length();
+        if (out.remaining() < n)
+            throw new java.nio.BufferOverflowException();
+        for (int i = 0; i < n; i++)
+            out.put((byte) this.scratch.charAt(i));
+        return out;
+    }
+
+    /**
+     * Appends the elements <i>from</i> to <i>to</i> of an array in
+     * rectangular form, each followed by a line break.
+     *
+     * @param   a       the values to format.
+     * @param   from    the index of the first value.
+     * @param   to      the index after the last value.
+     * @param   out     the builder receiving the text.
+     *
+     * @return  <i>out</i>.
+     */
+    public StringBuilder format(ComplexArray a, int from, int to, StringBuilder out) {
+        checkRange(a, from, to);
+        for (int i = from; i < to; i++)
+            this.formatRectangular(a.real(i), a.imag(i), out).append('\n');
+        return out;
+    }
+
+    /**
+     * Writes the elements <i>from</i> to <i>to</i> of an array in
+     * rectangular form as ASCII text to a channel, one value per line, in the
+     * format read by {@link ComplexParser.Reader}.
+     *
+     * @param   a       the values to write.
+     * @param   from    the index of the first value.
+     * @param   to      the index after the last value.
+     * @param   out     the channel receiving the text.
+     *
+     * @return  the number of bytes written.
+     * @throws  IOException if the channel fails.
+     */
+    public long write(ComplexArray a, int from, int to, WritableByteChannel out) throws IOException {
+        checkRange(a, from, to);
+        if (this.block == null)
+            this.block = ByteBuffer.allocateDirect(1 << 16);
+        ByteBuffer block = this.block;
+        block.clear();
+        long written = 0;
+        for (int i = from; i < to; i++) {
+            this.scratch.setLength(0);
+            this.formatRectangular(a.real(i), a.imag(i), this.scratch).append('\n');
+            if (block.remaining() < this.scratch.length())
+                written += flush(block, out);
+            this.copy(block);
+        }
+        return written + flush(block, out);
+    }
+
+    private static long flush(ByteBuffer block, WritableByteChannel out) throws IOException {
+        block.flip();
+        int n = block.remaining();
+        while (block.hasRemaining())
+            out.write(block);
+        block.clear();
+        return n;
+    }
+
+    private static void checkRange(ComplexArray a, int from, int to) {
+        if (from < 0 || from > to || to > a.length())
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for length " + a.length());
+    }
+
+    private void number(double x, StringBuilder out) {
+        if (this.mode == Mode.SHORTEST || !this.fixed(x, out))
+            out.append(x);
+    }
+
+    /**
+     * Appends <i>x</i> with {@link #digits} digits after the point, if the
+     * scaled value is exactly representable as a long.
+     */
+    private boolean fixed(double x, StringBuilder out) {
+        long scale = POWERS_OF_TEN[this.digits];
+        double ax = Math.abs(x);
+        double p = ax * scale;
+        if (!(p < 0x1p52))
+            return false;
+        // the exact product is p + e, since scale is exact
+        double e = Math.fma(ax, scale, -p);
+        double floor = Math.floor(p);
+        long m = (long) floor + ((p - floor) + e >= 0.5 ? 1 : 0);
+
+        if (x < 0 || (x == 0 && 1 / x < 0))
+            out.append('-');
+        out.append(m / scale);
+        if (this.digits > 0) {
+            out.append('.');
+            long fraction = m % scale;
+            for (long d = scale / 10; d > fraction && d > 1; d /= 10)
+                out.append('0');
+            out.append(fraction);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * The kernels of the elementary functions of {@link ComplexNumber} and
+ * {@link ComplexArray}. Each works on the real and imaginary parts
+ * <i>x + yi</i> of its argument and writes the result into <i>out[0]</i>
+ * and <i>out[1]</i>, using rectangular formulas that evaluate every
+ * trigonometric and hyperbolic term once.
+ */
+final class ComplexFunctions {
+
+    /** The largest exponent computed by repeated squaring rather than by log and exp. */
+    static final int MAX_INTEGER_EXPONENT = 64;
+
+    // beyond this, 1 + s² rounds to s², and cosh y = |sinh y| to within rounding
+    private static final double COSH_LIMIT = 1e8;
+
+    // beyond this, tanh x is ±1 to within rounding
+    private static final double TANH_LIMIT = 22;
+
+    private ComplexFunctions() {
+    }
+
+    static boolean isSmallInteger(double b) {
+        return b == Math.rint(b) && Math.abs(b) <= MAX_INTEGER_EXPONENT;
+    }
+
+    /**
+     * (x + yi) / (u + vi) by Smith's algorithm, which divides by the larger
+     * component of the divisor first, so the intermediate products neither
+     * overflow nor underflow unless the quotient does.
+     */
+    static void divide(double x, double y, double u, double v, double[] out) {
+        if (Math.abs(u) >= Math.abs(v)) {
+            double r = v / u, d = u + v*r;
+            out[0] = (x + y*r) / d;
+            out[1] = (y - x*r) / d;
+        } else {
+            double r = u / v, d = v + u*r;
+            out[0] = (x*r + y) / d;
+            out[1] = (y*r - x) / d;
+        }
+    }
+
+    /**
+     * (x + yi)^n by binary exponentiation; n must not exceed
+     * {@link #MAX_INTEGER_EXPONENT} in magnitude. For negative n the base is
+     * inverted first, so a power that overflows gives 0 rather than the
+     * reciprocal of an infinity, and the squaring stops with the last bit of
+     * n. A component that is exactly zero stays zero when the other one
+     * overflows, as in (10¹⁰)⁴⁰ = ∞ + 0i.
+     */
+    static void integerPower(double x, double y, int n, double[] out) {
+        if (n < 0) {
+            divide(1, 0, x, y, out);
+            x = out[0];
+            y = out[1];
+        }
+        double pr = 1, pi = 0;
+        for (int k = Math.abs(n); k != 0; k >>= 1) {
+            if ((k & 1) != 0) {
+                double t = product(pr, x) - product(pi, y);
+                pi = product(pr, y) + product(pi, x);
+                pr = t;
+            }
+            if (k > 1) {
+                double t = x*x - y*y;
+                y = 2 * product(x, y);
+                x = t;
+            }
+        }
+        out[0] = pr;
+        out[1] = pi;
+    }
+
+    /** a × b, but a signed zero where either factor is zero, rather than NaN for an infinite other one. */
+    private static double product(double a, double b) {
+        if (a == 0 || b == 0)
+            return Math.copySign(0.0, a) * Math.copySign(1.0, b);
+        return a * b;
+    }
+
+    /** (x + yi)^(u + vi) = exp((u + vi) log(x + yi)), with the logarithm taken once. */
+    static void power(double x, double y, double u, double v, double[] out) {
+        if (v == 0 && isSmallInteger(u)) {
+            integerPower(x, y, (int) u, out);
+            return;
+        }
+        double log = Math.log(Math.hypot(x, y)), phase = Math.atan2(y, x);
+        exp(u*log - v*phase, u*phase + v*log, out);
+    }
+
+    /** exp(x + yi) = e^x (cos y + i sin y). */
+    static void exp(double x, double y, double[] out) {
+        double e = Math.exp(x);
+        if (y == 0) {
+            // also keeps exp of a real infinity free of NaN
+            out[0] = e;
+            out[1] = y;
+            return;
+        }
+        out[0] = e * Math.cos(y);
+        out[1] = e * Math.sin(y);
+    }
+
+    /**
+     * log(x + yi) = log |z| + i arg z, the principal value. Near the unit
+     * circle the real part is computed as log1p(|z|² - 1)/2, with the squares
+     * split exactly by fma, which keeps its relative accuracy where log |z|
+     * is close to zero.
+     */
+    static void log(double x, double y, double[] out) {
+        double h = Math.hypot(x, y);
+        if (h > 0.7 && h < 1.4) {
+            double big = Math.max(Math.abs(x), Math.abs(y)), small = Math.min(Math.abs(x), Math.abs(y));
+            double p = big*big, q = small*small;
+            double ep = Math.fma(big, big, -p), eq = Math.fma(small, small, -q);
+            // p - 1 is exact for p in [0.5, 2], and so is the sum when it nearly cancels
+            out[0] = 0.5 * Math.log1p(((p - 1) + q) + (ep + eq));
+        } else {
+            out[0] = Math.log(h);
+        }
+        out[1] = Math.atan2(y, x);
+    }
+
+    /**
+     * The principal square root, by the stable formula of Kahan: the larger
+     * part is √((|x| + |z|) / 2), and the other follows by division, so that
+     * neither cancels.
+     */
+    static void sqrt(double x, double y, double[] out) {
+        if (x == 0 && y == 0) {
+            out[0] = 0;
+            out[1] = y;
+            return;
+        }
+        if (Double.isInfinite(y)) {
+            out[0] = Double.POSITIVE_INFINITY;
+            out[1] = y;
+            return;
+        }
+        double ax = Math.abs(x);
+        double t;
+        if (ax > 0x1p1020 || Math.abs(y) > 0x1p1020)
+            // |x| + |z| would overflow: halve the operands, and scale the root by √4
+            t = 2 * Math.sqrt((ax/4 + Math.hypot(x/4, y/4)) / 2);
+        else
+            t = Math.sqrt((ax + Math.hypot(x, y)) / 2);
+        if (x >= 0) {
+            out[0] = t;
+            out[1] = y / (2*t);
+        } else {
+            out[0] = Math.abs(y) / (2*t);
+            out[1] = Math.copySign(t, y);
+        }
+    }
+
+    /** sin(x + yi) = sin x cosh y + i cos x sinh y. */
+    static void sin(double x, double y, double[] out) {
+        double sinh = Math.sinh(y), cosh = cosh(sinh);
+        // exact zeros stay zeros, rather than becoming NaN against an infinite factor
+        out[0] = x == 0 ? x : Math.sin(x) * cosh;
+        out[1] = y == 0 ? y : Math.cos(x) * sinh;
+    }
+
+    /** cos(x + yi) = cos x cosh y - i sin x sinh y. */
+    static void cos(double x, double y, double[] out) {
+        double sinh = Math.sinh(y), cosh = cosh(sinh);
+        out[0] = Math.cos(x) * cosh;
+        out[1] = x == 0 || y == 0 ? -x * y : -Math.sin(x) * sinh;
+    }
+
+    /** tan z = -i tanh(iz). */
+    static void tan(double x, double y, double[] out) {
+        tanh(-y, x, out);
+        double re = out[1];
+        out[1] = -out[0];
+        out[0] = re;
+    }
+
+    /** sinh(x + yi) = sinh x cos y + i cosh x sin y. */
+    static void sinh(double x, double y, double[] out) {
+        double sinh = Math.sinh(x), cosh = cosh(sinh);
+        out[0] = y == 0 ? sinh : x == 0 ? x : sinh * Math.cos(y);
+        out[1] = y == 0 ? y : cosh * Math.sin(y);
+    }
+
+    /** cosh(x + yi) = cosh x cos y + i sinh x sin y. */
+    static void cosh(double x, double y, double[] out) {
+        double sinh = Math.sinh(x), cosh = cosh(sinh);
+        out[0] = y == 0 ? cosh : cosh * Math.cos(y);
+        out[1] = x == 0 || y == 0 ? x * y : sinh * Math.sin(y);
+    }
+
+    /**
+     * tanh(x + yi), by Kahan's formula: with t = tan y, s = sinh x,
+     * β = 1 + t² and ρ = √(1 + s²), tanh z = (βρs + it) / (1 + βs²).
+     * For large |x| the real part is ±1 and the imaginary part decays as
+     * 4 sin y cos y e^(-2|x|).
+     */
+    static void tanh(double x, double y, double[] out) {
+        if (Math.abs(x) > TANH_LIMIT) {
+            out[0] = Math.copySign(1, x);
+            out[1] = 4 * Math.sin(y) * Math.cos(y) * Math.exp(-2 * Math.abs(x));
+            return;
+        }
+        double t = Math.tan(y);
+        double beta = 1 + t*t;
+        double s = Math.sinh(x);
+        double rho = Math.sqrt(1 + s*s);
+        double d = 1 + beta*s*s;
+        out[0] = beta*rho*s / d;
+        out[1] = t / d;
+    }
+
+    /** cosh from sinh of the same argument, sharing its exponential. */
+    private static double cosh(double sinh) {
+        double a = Math.abs(sinh);
+        return a > COSH_LIMIT ? a : Math.sqrt(1 + sinh*sinh);
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Element-wise kernels over primitive complex arrays, in two layouts:
+ * <ul>
+ * <li><i>split</i>, with the real and imaginary parts in separate arrays, as
+ * in {@link ComplexArray};</li>
+ * <li><i>interleaved</i>, with element <i>i</i> stored at indices <i>2i</i>
+ * (real part) and <i>2i + 1</i> (imaginary part) of a single array.</li>
+ * </ul>
+ * Ranges are given in elements, from <i>from</i> inclusive to <i>to</i>
+ * exclusive. Destinations may be the same arrays as the operands.
+ *
+ * {@link #scalar()} is a plain loop implementation. {@link #best()} returns a
+ * SIMD implementation on the incubating Vector API when it is available, that
+ * is when the {@code vector/} sources are on the class path and the JVM runs
+ * with {@code --add-modules jdk.incubator.vector}, and the scalar kernels
+ * otherwise.
+ */
+public interface ComplexKernels {
+
+    String name();
+
+    void PlusC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to);
+
+    void MinusC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to);
+
+    void TimesC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to);
+
+    void DivideC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to);
+
+    void conjugate(double[] ar, double[] ai, double[] dr, double[] di, int from, int to);
+
+    /**
+     * Stores the moduli in the {@link ComplexMeasure#defaultMode() default
+     * mode}: without spurious overflow or underflow when it is
+     * {@code ACCURATE}, and as the unscaled <i>√(x² + y²)</i> when it is
+     * {@code FAST}.
+     */
+    void modulus(double[] ar, double[] ai, double[] dst, int from, int to);
+
+    void PlusCInterleaved(double[] a, double[] b, double[] dst, int from, int to);
+
+    void MinusCInterleaved(double[] a, double[] b, double[] dst, int from, int to);
+
+    void TimesCInterleaved(double[] a, double[] b, double[] dst, int from, int to);
+
+    void DivideCInterleaved(double[] a, double[] b, double[] dst, int from, int to);
+
+    void conjugateInterleaved(double[] a, double[] dst, int from, int to);
+
+    /** Stores the moduli in the default mode of {@link ComplexMeasure}, as {@link #modulus} does. */
+    void modulusInterleaved(double[] a, double[] dst, int from, int to);
+
+    /**
+     * Returns the plain loop kernels.
+     * @return  the scalar kernels.
+     */
+    static ComplexKernels scalar() {
+        return ScalarKernels.INSTANCE;
+    }
+
+    /**
+     * Returns the fastest kernels available in this JVM.
+     * @return  the SIMD kernels if the Vector API can be used, or the scalar kernels.
+     */
+    static ComplexKernels best() {
+        return ScalarKernels.BEST;
+    }
+}
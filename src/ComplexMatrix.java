@@ -0,0 +1,485 @@
+import java.util.Arrays;
+
+/**
+ * A dense matrix of complex numbers, stored row by row in split arrays of
+ * real and imaginary parts, like {@link ComplexArray}. Element <i>(i, j)</i>
+ * is at index <i>i × cols + j</i>.
+ *
+ * The product is computed in cache sized blocks with the innermost loop
+ * running along contiguous rows, and is split across the threads of a
+ * {@link ParallelComplex} by blocks of rows. Each element is always summed
+ * in the same order, so the parallel product is bit-for-bit the sequential
+ * one. {@link #lu()} factors square matrices for solving, inverting and
+ * determinants.
+ */
+public class ComplexMatrix {
+
+    // the block of B (BLOCK_K rows × BLOCK_J columns) stays in cache while it is used for every row of A
+    private static final int BLOCK_K = 64;
+    private static final int BLOCK_J = 256;
+    private static final int TRANSPOSE_BLOCK = 32;
+
+    private final int rows;
+    private final int cols;
+    private final double[] re;
+    private final double[] im;
+
+    /**
+     * Creates a matrix of zeros.
+     *
+     * @param   rows    the number of rows.
+     * @param   cols    the number of columns.
+     */
+    public ComplexMatrix(int rows, int cols) {
+        this(rows, cols, new double[checkSize(rows, cols)], new double[rows * cols]);
+    }
+
+    /**
+     * Creates a matrix backed by the given real and imaginary parts, in row
+     * major order. The arrays are not copied.
+     *
+     * @param   rows    the number of rows.
+     * @param   cols    the number of columns.
+     * @param   re      the real parts, of length <i>rows × cols</i>.
+     * @param   im      the imaginary parts, of the same length.
+     */
+    public ComplexMatrix(int rows, int cols, double[] re, double[] im) {
+        if (re.length != checkSize(rows, cols) || im.length != re.length)
+            throw new IllegalArgumentException("a " + rows + "×" + cols + " matrix needs arrays of length " + rows * cols);
+        this.rows = rows;
+        this.cols = cols;
+        this.re = re;
+        this.im = im;
+    }
+
+    private static int checkSize(int rows, int cols) {
+        if (rows < 0 || cols < 0 || (long) rows * cols > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("invalid matrix size: " + rows + "×" + cols);
+        return rows * cols;
+    }
+
+    public static ComplexMatrix identity(int n) {
+        ComplexMatrix m = new ComplexMatrix(n, n);
+        for (int i = 0; i < n; i++)
+            m.re[i * n + i] = 1;
+        return m;
+    }
+
+    /**
+     * Returns a new matrix holding the values of the given complex numbers.
+     * @param   values  rows of complex numbers in either form, all of the same length.
+     * @return  a matrix with the rectangular components of <i>values</i>.
+     */
+    public static ComplexMatrix fromArray(ComplexNumber[][] values) {
+        int cols = values.length == 0 ? 0 : values[0].length;
+        ComplexMatrix m = new ComplexMatrix(values.length, cols);
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].length != cols)
+                throw new IllegalArgumentException("row " + i + " has " + values[i].length + " elements, not " + cols);
+            for (int j = 0; j < cols; j++)
+                m.set(i, j, values[i][j]);
+        }
+        return m;
+    }
+
+    public int rows() {
+        return this.rows;
+    }
+
+    public int cols() {
+        return this.cols;
+    }
+
+    /**
+     * Returns the backing array of real parts.
+     * @return  the real parts in row major order, not a copy.
+     */
+    public double[] re() {
+        return this.re;
+    }
+
+    /**
+     * Returns the backing array of imaginary parts.
+     * @return  the imaginary parts in row major order, not a copy.
+     */
+    public double[] im() {
+        return this.im;
+    }
+
+    public double real(int i, int j) {
+        return this.re[this.index(i, j)];
+    }
+
+    public double imag(int i, int j) {
+        return this.im[this.index(i, j)];
+    }
+
+    public Rectangular get(int i, int j) {
+        int k = this.index(i, j);
+        return new Rectangular(this.re[k], this.im[k]);
+    }
+
+    public void set(int i, int j, double real, double imag) {
+        int k = this.index(i, j);
+        this.re[k] = real;
+        this.im[k] = imag;
+    }
+
+    public void set(int i, int j, ComplexNumber z) {
+        this.set(i, j, z.real(), z.imag());
+    }
+
+    private int index(int i, int j) {
+        if (i < 0 || i >= this.rows || j < 0 || j >= this.cols)
+            throw new IndexOutOfBoundsException("(" + i + ", " + j + ") out of bounds for a " + this.rows + "×" + this.cols + " matrix");
+        return i * this.cols + j;
+    }
+
+    public ComplexMatrix copy() {
+        return new ComplexMatrix(this.rows, this.cols, this.re.clone(), this.im.clone());
+    }
+
+    /**
+     * Returns a copy of the elements as complex numbers in rectangular form.
+     * @return  new rows of complex numbers in rectangular form.
+     */
+    public Rectangular[][] toArray() {
+        Rectangular[][] result = new Rectangular[this.rows][this.cols];
+        for (int i = 0; i < this.rows; i++)
+            for (int j = 0; j < this.cols; j++)
+                result[i][j] = this.get(i, j);
+        return result;
+    }
+
+    /**
+     * Returns the conjugate transpose, the matrix whose element <i>(j, i)</i>
+     * is the conjugate of element <i>(i, j)</i> of this one.
+     * @return  a new matrix.
+     */
+    public ComplexMatrix conjugateTranspose() {
+        ComplexMatrix t = new ComplexMatrix(this.cols, this.rows);
+        // in square tiles, so that both the reads and the writes stay in cache
+        for (int ii = 0; ii < this.rows; ii += TRANSPOSE_BLOCK) {
+            int iMax = Math.min(this.rows, ii + TRANSPOSE_BLOCK);
+            for (int jj = 0; jj < this.cols; jj += TRANSPOSE_BLOCK) {
+                int jMax = Math.min(this.cols, jj + TRANSPOSE_BLOCK);
+                for (int i = ii; i < iMax; i++) {
+                    for (int j = jj; j < jMax; j++) {
+                        t.re[j * this.rows + i] = this.re[i * this.cols + j];
+                        t.im[j * this.rows + i] = -this.im[i * this.cols + j];
+                    }
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Returns the matrix product <i>this × b</i>, computed in parallel on
+     * the common pool when it is large enough.
+     *
+     * @param   b   a matrix with as many rows as this one has columns.
+     * @return  a new matrix.
+     */
+    public ComplexMatrix multiply(ComplexMatrix b) {
+        ComplexMatrix c = new ComplexMatrix(this.rows, b.cols);
+        ParallelComplex.common().multiply(this, b, c);
+        return c;
+    }
+
+    /**
+     * Stores the matrix product <i>a × b</i> in <i>dst</i>, on the calling thread.
+     *
+     * @param   a   a matrix.
+     * @param   b   a matrix with as many rows as <i>a</i> has columns.
+     * @param   dst the matrix receiving the product, distinct from <i>a</i> and <i>b</i>.
+     */
+    public static void multiply(ComplexMatrix a, ComplexMatrix b, ComplexMatrix dst) {
+        checkProduct(a, b, dst);
+        multiplyRows(a, b, dst, 0, a.rows);
+    }
+
+    static void checkProduct(ComplexMatrix a, ComplexMatrix b, ComplexMatrix dst) {
+        if (a.cols != b.rows || dst.rows != a.rows || dst.cols != b.cols)
+            throw new IllegalArgumentException("cannot multiply a " + a.rows + "×" + a.cols + " matrix by a "
+                    + b.rows + "×" + b.cols + " matrix into a " + dst.rows + "×" + dst.cols + " matrix");
+        if (dst.re == a.re || dst.re == b.re)
+            throw new IllegalArgumentException("the destination must not be an operand");
+    }
+
+    /** Computes rows <i>from</i> to <i>to</i> of <i>a × b</i> into <i>dst</i>. */
+    static void multiplyRows(ComplexMatrix a, ComplexMatrix b, ComplexMatrix dst, int from, int to) {
+        int n = a.cols, m = b.cols;
+        double[] ar = a.re, ai = a.im, br = b.re, bi = b.im, cr = dst.re, ci = dst.im;
+        Arrays.fill(cr, from * m, to * m, 0);
+        Arrays.fill(ci, from * m, to * m, 0);
+        for (int kk = 0; kk < n; kk += BLOCK_K) {
+            int kMax = Math.min(n, kk + BLOCK_K);
+            for (int jj = 0; jj < m; jj += BLOCK_J) {
+                int jMax = Math.min(m, jj + BLOCK_J);
+                for (int i = from; i < to; i++) {
+                    int c = i * m;
+                    for (int k = kk; k < kMax; k++) {
+                        double x = ar[i * n + k], y = ai[i * n + k];
+                        int r = k * m;
+                        for (int j = jj; j < jMax; j++) {
+                            double u = br[r + j], v = bi[r + j];
+                            cr[c + j] += x*u - y*v;
+                            ci[c + j] += x*v + y*u;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Stores the matrix-vector product <i>this × x</i> in <i>dst</i>.
+     *
+     * @param   x   a vector with one element per column.
+     * @param   dst the vector receiving the product, with one element per row, distinct from <i>x</i>.
+     */
+    public void multiply(ComplexArray x, ComplexArray dst) {
+        if (x.length() != this.cols || dst.length() != this.rows)
+            throw new IllegalArgumentException("cannot multiply a " + this.rows + "×" + this.cols + " matrix by a vector of "
+                    + x.length() + " into a vector of " + dst.length());
+        double[] xr = x.re(), xi = x.im();
+        for (int i = 0; i < this.rows; i++) {
+            double sr = 0, si = 0;
+            for (int j = 0, k = i * this.cols; j < this.cols; j++, k++) {
+                sr += this.re[k]*xr[j] - this.im[k]*xi[j];
+                si += this.re[k]*xi[j] + this.im[k]*xr[j];
+            }
+            dst.set(i, sr, si);
+        }
+    }
+
+    /**
+     * Factors this square matrix, in parallel on the common pool when it is
+     * large enough.
+     * @return  the LU decomposition with partial pivoting.
+     */
+    public LU lu() {
+        return new LU(this, ParallelComplex.common());
+    }
+
+    /**
+     * Solves <i>this × X = b</i>.
+     * @param   b   a matrix with as many rows as this one.
+     * @return  the solution <i>X</i>.
+     * @throws  ArithmeticException if this matrix is singular.
+     */
+    public ComplexMatrix solve(ComplexMatrix b) {
+        return this.lu().solve(b);
+    }
+
+    /**
+     * Returns the inverse.
+     * @return  a new matrix.
+     * @throws  ArithmeticException if this matrix is singular.
+     */
+    public ComplexMatrix inverse() {
+        return this.lu().inverse();
+    }
+
+    public Rectangular determinant() {
+        return this.lu().determinant();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        ComplexFormat format = ComplexFormat.shortest();
+        for (int i = 0; i < this.rows; i++) {
+            sb.append(i == 0 ? "[" : " ");
+            for (int j = 0; j < this.cols; j++) {
+                if (j > 0)
+                    sb.append(", ");
+                format.formatRectangular(this.re[i * this.cols + j], this.im[i * this.cols + j], sb);
+            }
+            sb.append(i == this.rows - 1 ? "]" : "\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The decomposition <i>PA = LU</i> of a square matrix, with <i>P</i> a
+     * row permutation, <i>L</i> unit lower triangular and <i>U</i> upper
+     * triangular. At each step the row with the largest pivot is swapped in.
+     * Decompositions are immutable once created.
+     */
+    public static final class LU {
+        private final int n;
+        // L below the diagonal and U on and above it, row major
+        private final double[] re;
+        private final double[] im;
+        private final int[] pivot;
+        private final boolean oddPermutation;
+        private final boolean singular;
+
+        LU(ComplexMatrix a, ParallelComplex parallel) {
+            if (a.rows != a.cols)
+                throw new IllegalArgumentException("only square matrices have an LU decomposition: " + a.rows + "×" + a.cols);
+            int n = this.n = a.rows;
+            double[] re = this.re = a.re.clone(), im = this.im = a.im.clone();
+            this.pivot = new int[n];
+            boolean odd = false, singular = false;
+
+            for (int k = 0; k < n; k++) {
+                int p = k;
+                double max = -1;
+                for (int i = k; i < n; i++) {
+                    // |x| + |y| rather than the squared modulus, which underflows to zero below 1e-162
+                    double m = Math.abs(re[i * n + k]) + Math.abs(im[i * n + k]);
+                    if (m > max) {
+                        max = m;
+                        p = i;
+                    }
+                }
+                this.pivot[k] = p;
+                if (p != k) {
+                    swapRows(re, n, p, k);
+                    swapRows(im, n, p, k);
+                    odd = !odd;
+                }
+                if (max == 0) {
+                    singular = true;
+                    continue;
+                }
+                int step = k;
+                int rowsLeft = n - k - 1;
+                // rows below k are independent, so large updates are split across threads
+                if (parallel != null && (long) rowsLeft * rowsLeft > parallel.threshold()) {
+                    int grain = Math.max(1, parallel.threshold() / rowsLeft);
+                    new ParallelComplex(parallel.pool(), grain).forEach(rowsLeft,
+                            (from, to) -> this.eliminate(step, step + 1 + from, step + 1 + to));
+                } else {
+                    this.eliminate(step, k + 1, n);
+                }
+            }
+            this.oddPermutation = odd;
+            this.singular = singular;
+        }
+
+        private static void swapRows(double[] a, int n, int p, int k) {
+            for (int j = 0; j < n; j++) {
+                double t = a[p * n + j];
+                a[p * n + j] = a[k * n + j];
+                a[k * n + j] = t;
+            }
+        }
+
+        /** Eliminates column <i>k</i> from rows <i>from</i> to <i>to</i>, storing the multipliers. */
+        private void eliminate(int k, int from, int to) {
+            int n = this.n;
+            double[] re = this.re, im = this.im;
+            double pr = re[k * n + k], pi = im[k * n + k];
+            double[] out = new double[2];
+            for (int i = from; i < to; i++) {
+                int row = i * n;
+                // l = a[i][k] / a[k][k]
+                ComplexFunctions.divide(re[row + k], im[row + k], pr, pi, out);
+                double lr = out[0], li = out[1];
+                re[row + k] = lr;
+                im[row + k] = li;
+                if (lr == 0 && li == 0)
+                    continue;
+                for (int j = k + 1, u = k * n + k + 1; j < n; j++, u++) {
+                    double ur = re[u], ui = im[u];
+                    re[row + j] -= lr*ur - li*ui;
+                    im[row + j] -= lr*ui + li*ur;
+                }
+            }
+        }
+
+        public boolean isSingular() {
+            return this.singular;
+        }
+
+        /**
+         * Returns the determinant, the product of the pivots with the sign of the permutation.
+         * @return  the determinant as a complex number in rectangular form.
+         */
+        public Rectangular determinant() {
+            double dr = this.oddPermutation ? -1 : 1, di = 0;
+            for (int k = 0; k < this.n; k++) {
+                double x = this.re[k * this.n + k], y = this.im[k * this.n + k], t = dr*x - di*y;
+                di = dr*y + di*x;
+                dr = t;
+            }
+            return new Rectangular(dr, di);
+        }
+
+        /**
+         * Solves <i>A × X = b</i> for the factored matrix <i>A</i>.
+         * @param   b   a matrix with <i>n</i> rows.
+         * @return  the solution <i>X</i>, a new matrix.
+         * @throws  ArithmeticException if the matrix is singular.
+         */
+        public ComplexMatrix solve(ComplexMatrix b) {
+            if (b.rows != this.n)
+                throw new IllegalArgumentException("right hand side has " + b.rows + " rows, not " + this.n);
+            ComplexMatrix x = b.copy();
+            this.solveInPlace(x.re, x.im, b.cols);
+            return x;
+        }
+
+        /**
+         * Solves <i>A × x = b</i> for the factored matrix <i>A</i>.
+         * @param   b   a vector of <i>n</i> elements.
+         * @return  the solution <i>x</i>, a new vector.
+         * @throws  ArithmeticException if the matrix is singular.
+         */
+        public ComplexArray solve(ComplexArray b) {
+            if (b.length() != this.n)
+                throw new IllegalArgumentException("right hand side has " + b.length() + " elements, not " + this.n);
+            ComplexArray x = new ComplexArray(b.re().clone(), b.im().clone());
+            this.solveInPlace(x.re(), x.im(), 1);
+            return x;
+        }
+
+        public ComplexMatrix inverse() {
+            return this.solve(identity(this.n));
+        }
+
+        /** Overwrites the n × m row major matrix <i>b</i> with the solution, working a row at a time. */
+        private void solveInPlace(double[] br, double[] bi, int m) {
+            if (this.singular)
+                throw new ArithmeticException("matrix is singular");
+            int n = this.n;
+            double[] re = this.re, im = this.im;
+            double[] out = new double[2];
+            for (int k = 0; k < n; k++)
+                if (this.pivot[k] != k) {
+                    swapRows(br, m, this.pivot[k], k);
+                    swapRows(bi, m, this.pivot[k], k);
+                }
+            // forward substitution with L: row i -= Σ L[i][k] row k
+            for (int i = 0; i < n; i++)
+                for (int k = 0; k < i; k++)
+                    subtractRow(br, bi, m, i, k, re[i * n + k], im[i * n + k]);
+            // back substitution with U
+            for (int i = n - 1; i >= 0; i--) {
+                for (int k = i + 1; k < n; k++)
+                    subtractRow(br, bi, m, i, k, re[i * n + k], im[i * n + k]);
+                double pr = re[i * n + i], pi = im[i * n + i];
+                for (int j = i * m; j < (i + 1) * m; j++) {
+                    ComplexFunctions.divide(br[j], bi[j], pr, pi, out);
+                    br[j] = out[0];
+                    bi[j] = out[1];
+                }
+            }
+        }
+
+        /** Row i of b -= (cr + ci i) × row k of b. */
+        private static void subtractRow(double[] br, double[] bi, int m, int i, int k, double cr, double ci) {
+            if (cr == 0 && ci == 0)
+                return;
+            for (int j = 0, a = i * m, b = k * m; j < m; j++, a++, b++) {
+                double x = br[b], y = bi[b];
+                br[a] -= cr*x - ci*y;
+                bi[a] -= cr*y + ci*x;
+            }
+        }
+    }
+}
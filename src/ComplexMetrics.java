@@ -0,0 +1,218 @@
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Opt-in counters for the hot paths of the library: calls of the static
+ * operators of {@link ComplexNumber}, conversions between the rectangular
+ * and polar forms, evaluations of trigonometric functions and square roots
+ * for those conversions and for moduli and phases, and allocations of
+ * complex numbers.
+ *
+ * Counting is off unless the system property {@code complex.metrics} is
+ * {@code true} or {@link #setEnabled} turns it on. While it is off, a
+ * counting site costs one read of a volatile flag. The counters are
+ * {@link LongAdder}s, so threads counting at the same time do not contend.
+ *
+ * An operator call is counted once, by the overload that does the work, so
+ * an overload delegating to another after converting an operand counts one
+ * call and one conversion. Bulk operations count their elements.
+ */
+public final class ComplexMetrics {
+
+    public enum Counter {
+        PLUS,
+        MINUS,
+        TIMES,
+        DIVIDE,
+        POWER,
+        /** {@code toComplexRect()} on a number in polar form */
+        POLAR_TO_RECTANGULAR,
+        /** {@code toComplexPolar()} on a number in rectangular form */
+        RECTANGULAR_TO_POLAR,
+        /** sines, cosines and arc tangents */
+        TRIG,
+        /** square roots for moduli */
+        SQRT,
+        /** instances of the complex number classes, such as {@link Rectangular}, {@link Polar} and {@link DDComplex} */
+        ALLOCATION
+    }
+
+    public static final String OBJECT_NAME = "complex:type=ComplexMetrics";
+
+    private static final Counter[] COUNTERS = Counter.values();
+    private static final LongAdder[] ADDERS = new LongAdder[COUNTERS.length];
+
+    static {
+        for (int i = 0; i < ADDERS.length; i++)
+            ADDERS[i] = new LongAdder();
+    }
+
+    private static volatile boolean enabled = Boolean.getBoolean("complex.metrics");
+
+    private ComplexMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Turns counting on or off. Counts are kept while it is off.
+     * @param   on  whether to count.
+     */
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    static void count(Counter counter) {
+        if (enabled)
+            ADDERS[counter.ordinal()].increment();
+    }
+
+    static void count(Counter counter, long n) {
+        if (enabled)
+            ADDERS[counter.ordinal()].add(n);
+    }
+
+    /**
+     * Returns the current count.
+     * @param   counter the counter.
+     * @return  the count since the last reset.
+     */
+    public static long get(Counter counter) {
+        return ADDERS[counter.ordinal()].sum();
+    }
+
+    /** Sets every count to zero. Counts made while this runs may be lost. */
+    public static void reset() {
+        for (LongAdder adder : ADDERS)
+            adder.reset();
+    }
+
+    /**
+     * Returns the current counts. They are read one after the other, so
+     * while other threads count, the snapshot is not taken at one instant.
+     *
+     * @return  a snapshot of every counter.
+     */
+    public static Snapshot snapshot() {
+        long[] counts = new long[COUNTERS.length];
+        for (int i = 0; i < counts.length; i++)
+            counts[i] = ADDERS[i].sum();
+        return new Snapshot(counts);
+    }
+
+    /**
+     * Registers the counters with the platform MBean server under
+     * {@link #OBJECT_NAME}, unless they already are.
+     *
+     * @throws  IllegalStateException   if the registration fails.
+     */
+    public static synchronized void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name))
+                server.registerMBean(new StandardMBean(new Bean(), ComplexMetricsMBean.class), name);
+        } catch (JMException e) {
+            throw new IllegalStateException("cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /** The counts at one time; take two and {@link #minus} them to measure a section of code. */
+    public static final class Snapshot {
+        private final long[] counts;
+
+        private Snapshot(long[] counts) {
+            this.counts = counts;
+        }
+
+        public long get(Counter counter) {
+            return this.counts[counter.ordinal()];
+        }
+
+        /**
+         * Returns the counts made between an earlier snapshot and this one.
+         * @param   earlier the earlier snapshot.
+         * @return  the differences.
+         */
+        public Snapshot minus(Snapshot earlier) {
+            long[] counts = new long[this.counts.length];
+            for (int i = 0; i < counts.length; i++)
+                counts[i] = this.counts[i] - earlier.counts[i];
+            return new Snapshot(counts);
+        }
+
+        public Map<Counter, Long> toMap() {
+            Map<Counter, Long> map = new EnumMap<>(Counter.class);
+            for (Counter counter : COUNTERS)
+                map.put(counter, this.counts[counter.ordinal()]);
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return this.toMap().toString();
+        }
+    }
+
+    private static final class Bean implements ComplexMetricsMBean {
+        public boolean isEnabled() {
+            return ComplexMetrics.isEnabled();
+        }
+
+        public void setEnabled(boolean enabled) {
+            ComplexMetrics.setEnabled(enabled);
+        }
+
+        public long getPlusCalls() {
+            return get(Counter.PLUS);
+        }
+
+        public long getMinusCalls() {
+            return get(Counter.MINUS);
+        }
+
+        public long getTimesCalls() {
+            return get(Counter.TIMES);
+        }
+
+        public long getDivideCalls() {
+            return get(Counter.DIVIDE);
+        }
+
+        public long getPowerCalls() {
+            return get(Counter.POWER);
+        }
+
+        public long getPolarToRectangularConversions() {
+            return get(Counter.POLAR_TO_RECTANGULAR);
+        }
+
+        public long getRectangularToPolarConversions() {
+            return get(Counter.RECTANGULAR_TO_POLAR);
+        }
+
+        public long getTrigEvaluations() {
+            return get(Counter.TRIG);
+        }
+
+        public long getSqrtEvaluations() {
+            return get(Counter.SQRT);
+        }
+
+        public long getAllocations() {
+            return get(Counter.ALLOCATION);
+        }
+
+        public void reset() {
+            ComplexMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+/**
+ * The management interface of {@link ComplexMetrics}, registered with
+ * {@link ComplexMetrics#register()}. Every count is the total since the
+ * last reset.
+ */
+public interface ComplexMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getPlusCalls();
+
+    long getMinusCalls();
+
+    long getTimesCalls();
+
+    long getDivideCalls();
+
+    long getPowerCalls();
+
+    long getPolarToRectangularConversions();
+
+    long getRectangularToPolarConversions();
+
+    long getTrigEvaluations();
+
+    long getSqrtEvaluations();
+
+    long getAllocations();
+
+    /** Sets every count to zero. */
+    void reset();
+}
@@ -15,6 +15,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a + b</i> as a complex number in rectangular form.
      */
     public static Rectangular PlusC(Rectangular a, Rectangular b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS);
         return new Rectangular(a.real()+b.real(), a.imag()+b.imag());
     }
 
@@ -114,6 +115,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a - b</i> as a complex number in rectangular form.
      */
     public static Rectangular MinusC(Rectangular a, Rectangular b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS);
         return new Rectangular(a.real() - b.real(), a.imag() - b.imag());
     }
 
@@ -165,6 +167,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a - b</i> as a complex number in rectangular form.
      */
     public static Rectangular MinusC(Rectangular a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS);
         return new Rectangular(a.real() - b, a.imag());
     }
 
@@ -178,6 +181,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a - b</i> as a complex number in rectangular form.
      */
     public static Rectangular MinusC(double a, Rectangular b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS);
         return new Rectangular(a - b.real(), -b.imag());
     }
 
@@ -216,6 +220,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a × b</i> as a complex number in rectangular form.
      */
     public static Rectangular TimesC(Rectangular a, Rectangular b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
         return new Rectangular(a.real()*b.real() - a.imag()*b.imag(), a.real()*b.imag() + a.imag()*b.real());
     }
 
@@ -254,6 +259,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a × b</i> as a complex number in polar form.
      */
     public static Polar TimesC(Polar a, Polar b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
         return new Polar(a.modulus() * b.modulus(), a.phase() + b.phase());
     }
 
@@ -267,6 +273,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a × b</i> as a complex number in rectangular form.
      */
     public static Rectangular TimesC(Rectangular a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
         return new Rectangular(a.real() * b, a.imag() * b);
     }
 
@@ -292,6 +299,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a × b</i> as a complex number in polar form.
      */
     public static Polar TimesC(Polar a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
         return new Polar(a.modulus() * b, a.phase());
     }
 
@@ -309,6 +317,8 @@ public abstract class ComplexNumber {
 
     /**
      * Returns the quotient of two complex numbers in rectangular form.
+     * Uses Smith's algorithm, which needs no trigonometry and does not
+     * overflow or underflow in the intermediate <i>|b|²</i>.
      * 
      * @param   a   a complex number in rectangular form.
      * @param   b   a complex number in rectangular form.
@@ -316,7 +326,50 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a / b</i> as a complex number in rectangular form.
      */
     public static Rectangular DivideC(Rectangular a, Rectangular b) {
-        return new Polar(a.modulus() / b.modulus(), a.phase() - b.phase()).toComplexRect();
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        return smith(a.real(), a.imag(), b.real(), b.imag());
+    }
+
+    private static Rectangular smith(double x, double y, double u, double v) {
+        double[] out = new double[2];
+        ComplexFunctions.divide(x, y, u, v, out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the quotient of two complex numbers in rectangular form, with
+     * each component within a few ulps of the exact result. The operands are
+     * first scaled by powers of two, which is exact and rules out overflow and
+     * underflow in between, and the numerators are computed with fused
+     * multiply-adds so that cancellation between their two products costs no
+     * accuracy. Several times slower than {@link #DivideC(Rectangular, Rectangular)},
+     * whose components can lose most of their digits to cancellation.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * @param   b   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>a / b</i> as a complex number in rectangular form.
+     */
+    public static Rectangular DivideCStrict(Rectangular a, Rectangular b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        double x = a.real(), y = a.imag(), u = b.real(), v = b.imag();
+        int ea = Math.getExponent(Math.max(Math.abs(x), Math.abs(y)));
+        int eb = Math.getExponent(Math.max(Math.abs(u), Math.abs(v)));
+        x = Math.scalb(x, -ea);
+        y = Math.scalb(y, -ea);
+        u = Math.scalb(u, -eb);
+        v = Math.scalb(v, -eb);
+        double d = u*u + v*v;
+        double re = differenceOfProducts(x, u, -y, v) / d;
+        double im = differenceOfProducts(y, u, x, v) / d;
+        return new Rectangular(Math.scalb(re, ea - eb), Math.scalb(im, ea - eb));
+    }
+
+    /** Returns <i>ab - cd</i> within 1.5 ulps, by Kahan's algorithm. */
+    private static double differenceOfProducts(double a, double b, double c, double d) {
+        double cd = c * d;
+        double error = Math.fma(-c, d, cd);
+        return Math.fma(a, b, -cd) + error;
     }
 
     /**
@@ -354,6 +407,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a / b</i> as a complex number in polar form.
      */
     public static Polar DivideC(Polar a, Polar b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
         return new Polar(a.modulus() / b.modulus(), a.phase() - b.phase());
     }
 
@@ -367,7 +421,8 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a / b</i> as a complex number in rectangular form.
      */
     public static Rectangular DivideC(Rectangular a, double b) {
-        return DivideC(a, new Rectangular(b, 0));
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        return new Rectangular(a.real() / b, a.imag() / b);
     }
 
     /**
@@ -380,7 +435,8 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a / b</i> as a complex number in rectangular form.
      */
     public static Rectangular DivideC(double a, Rectangular b) {
-        return DivideC(new Rectangular(a, 0), b);
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        return smith(a, 0, b.real(), b.imag());
     }
 
     /**
@@ -392,6 +448,7 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a / b</i> as a complex number in polar form.
      */
     public static Polar DivideC(Polar a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
         return new Polar(a.modulus() / b, a.phase());
     }
 
@@ -404,13 +461,17 @@ public abstract class ComplexNumber {
      * @return  the value of <i>a / b</i> as a complex number in polar form.
      */
     public static Polar DivideC(double a, Polar b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
         return new Polar(a / b.modulus(), -b.phase());
     }
     
     /**
      * Raises the power of a complex number in rectangular form to another
-     * complex number in rectangular form. Special case:
-     * <ul>><li>if the base is 0, the result will be NaN + NaNi.</li></ul>
+     * complex number in rectangular form. Real integer exponents up to 64 in
+     * magnitude are computed by repeated squaring, without logarithms.
+     * Special case:
+     * <ul><li>if the base is 0 and the exponent is not such an integer, the
+     * result will be NaN + NaNi.</li></ul>
      * 
      * @param   a   a complex number in rectangular form.
      * @param   b   a complex number in rectangular form.
@@ -418,9 +479,10 @@ public abstract class ComplexNumber {
      * @return  the value of a ^ b as a complex number in rectangular form.
      */
     public static Rectangular power(Rectangular a, Rectangular b) {
-        return new Polar(Math.pow(Math.E, b.real() * Math.log(a.modulus()) - b.imag() * a.phase()), b.real() * a.phase() + b.imag() * Math.log(a.modulus())).toComplexRect();
-        // Rectangular z = TimesC(new Rectangular(Math.log(a.mag()), a.phase()), b);
-        // return new Polar(Math.pow(Math.E, z.real()), z.imag()).toComplexRect();
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER);
+        double[] out = new double[2];
+        ComplexFunctions.power(a.real(), a.imag(), b.real(), b.imag(), out);
+        return new Rectangular(out[0], out[1]);
     }
 
     /**
@@ -464,7 +526,8 @@ public abstract class ComplexNumber {
 
     /**
      * Raises the power of a complex number in rectangular form to a 
-     * real number.
+     * real number. Integer exponents up to 64 in magnitude are computed by
+     * repeated squaring, without trigonometry.
      * 
      * @param   a   a complex number in rectangular form.
      * @param   b   a real number.
@@ -472,6 +535,12 @@ public abstract class ComplexNumber {
      * @return  the value of a ^ b as a complex number in rectangular form.
      */
     public static Rectangular power(Rectangular a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER);
+        if (ComplexFunctions.isSmallInteger(b)) {
+            double[] out = new double[2];
+            ComplexFunctions.integerPower(a.real(), a.imag(), (int) b, out);
+            return new Rectangular(out[0], out[1]);
+        }
         Polar z = a.toComplexPolar();
         return new Polar(Math.pow(z.modulus(), b), z.phase() * b).toComplexRect();
     }
@@ -486,6 +555,7 @@ public abstract class ComplexNumber {
      * @return  the value of a ^ b as a complex number in rectangular form.
      */
     public static Rectangular power(double a, Rectangular b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER);
         return new Polar(Math.pow(a, b.real()), b.imag() * Math.log(a)).toComplexRect();
     }
 
@@ -499,6 +569,7 @@ public abstract class ComplexNumber {
      * @return  the value of a ^ b as a complex number in polar form.
      */
     public static Polar power(Polar a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER);
         return new Polar(Math.pow(a.modulus(), b), a.phase() * b);
     }
     
@@ -514,4 +585,158 @@ public abstract class ComplexNumber {
     public static Polar power(double a, Polar b) {
         return power(a, b.toComplexRect()).toComplexPolar();
     }
+
+    /**
+     * Returns the exponential of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>e ^ a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular exp(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.exp(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the exponential of a complex number in polar form.
+     * 
+     * @param   a   a complex number in polar form.
+     * 
+     * @return  the value of <i>e ^ a</i> as a complex number in polar form.
+     */
+    public static Polar exp(Polar a) {
+        return new Polar(Math.exp(a.real()), a.imag());
+    }
+
+    /**
+     * Returns the principal natural logarithm of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>log a</i>, with an imaginary part in [-π, π], as a complex number in rectangular form.
+     */
+    public static Rectangular log(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.log(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the principal natural logarithm of a complex number in polar
+     * form, which needs no conversion: <i>log |r| + iθ</i>, with θ turned by
+     * π for a negative <i>r</i>.
+     * 
+     * @param   a   a complex number in polar form.
+     * 
+     * @return  the value of <i>log a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular log(Polar a) {
+        return new Rectangular(Math.log(a.modulus()), a.argument());
+    }
+
+    /**
+     * Returns the principal square root of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>√a</i>, with a non-negative real part, as a complex number in rectangular form.
+     */
+    public static Rectangular sqrt(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.sqrt(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the principal square root of a complex number in polar form,
+     * which needs no conversion: <i>√|r| e^(iθ/2)</i>, with θ turned by π
+     * for a negative <i>r</i>.
+     * 
+     * @param   a   a complex number in polar form.
+     * 
+     * @return  the value of <i>√a</i> as a complex number in polar form.
+     */
+    public static Polar sqrt(Polar a) {
+        return new Polar(Math.sqrt(a.modulus()), a.argument() / 2);
+    }
+
+    /**
+     * Returns the sine of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>sin a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular sin(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.sin(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the cosine of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>cos a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular cos(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.cos(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the tangent of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>tan a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular tan(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.tan(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the hyperbolic sine of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>sinh a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular sinh(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.sinh(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the hyperbolic cosine of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>cosh a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular cosh(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.cosh(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Returns the hyperbolic tangent of a complex number in rectangular form.
+     * 
+     * @param   a   a complex number in rectangular form.
+     * 
+     * @return  the value of <i>tanh a</i> as a complex number in rectangular form.
+     */
+    public static Rectangular tanh(Rectangular a) {
+        double[] out = new double[2];
+        ComplexFunctions.tanh(a.real(), a.imag(), out);
+        return new Rectangular(out[0], out[1]);
+    }
 }
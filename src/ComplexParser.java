@@ -0,0 +1,431 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Parses complex numbers from text, without regular expressions and, for
+ * most inputs, without allocating. The accepted forms are those printed by
+ * {@link Rectangular#toString()} and {@link Polar#toString()}, with or
+ * without the spaces around the sign:
+ * <pre>
+ *   3.0 + 4.0i     3.0 - 4.0i     3+4i     -2.5e-3 + -0.0i
+ *   5.0e^0.927i    (modulus e^ phase i)
+ *   4.0i   -i   i  (imaginary only)
+ *   3.0   NaN   -Infinity   (real only)
+ * </pre>
+ * {@code j} may be used in place of {@code i}. Numbers use the syntax of
+ * {@link Double#parseDouble}, without hexadecimal forms or type suffixes.
+ *
+ * Numbers whose significant digits form an integer of at most 2^53, with a
+ * decimal exponent of at most 22 in magnitude, are converted exactly with one
+ * multiplication or division (Clinger's fast path); others fall back to
+ * {@link Double#parseDouble}. Either way the result is correctly rounded.
+ */
+public final class ComplexParser {
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // the input is either a CharSequence or a ByteBuffer of ASCII text
+    private CharSequence chars;
+    private ByteBuffer bytes;
+    private int pos;
+    private int end;
+
+    // the result: real and imaginary parts, or modulus and phase
+    private double a;
+    private double b;
+    private boolean polar;
+
+    private ComplexParser() {
+    }
+
+    /**
+     * Parses a complex number.
+     *
+     * @param   s   the text, in any of the accepted forms.
+     * @return  a {@link Polar} number for the polar form, and a {@link Rectangular} one otherwise.
+     * @throws  NumberFormatException if the text is not a complex number.
+     */
+    public static ComplexNumber parse(CharSequence s) {
+        ComplexParser p = new ComplexParser();
+        p.parse(s, 0, s.length());
+        return p.result();
+    }
+
+    /**
+     * Parses a complex number from the bytes between the position and the
+     * limit of a buffer, which are not changed.
+     *
+     * @param   s   the text, in ASCII.
+     * @return  a {@link Polar} number for the polar form, and a {@link Rectangular} one otherwise.
+     * @throws  NumberFormatException if the text is not a complex number.
+     */
+    public static ComplexNumber parse(ByteBuffer s) {
+        ComplexParser p = new ComplexParser();
+        p.parse(s, s.position(), s.limit());
+        return p.result();
+    }
+
+    /**
+     * Parses a complex number from part of a character sequence into
+     * <i>dst</i>, converting the polar form to rectangular.
+     *
+     * @param   s       the text.
+     * @param   from    the index of the first character.
+     * @param   to      the index after the last character.
+     * @param   dst     the number receiving the value.
+     *
+     * @return  <i>dst</i>.
+     * @throws  NumberFormatException if the text is not a complex number.
+     */
+    public static MutableRectangular parse(CharSequence s, int from, int to, MutableRectangular dst) {
+        ComplexParser p = new ComplexParser();
+        p.parse(s, from, to);
+        return dst.set(p.real(), p.imag());
+    }
+
+    /**
+     * Parses a complex number from part of a buffer into <i>dst</i>,
+     * converting the polar form to rectangular.
+     *
+     * @param   s       the text, in ASCII.
+     * @param   from    the index of the first byte.
+     * @param   to      the index after the last byte.
+     * @param   dst     the number receiving the value.
+     *
+     * @return  <i>dst</i>.
+     * @throws  NumberFormatException if the text is not a complex number.
+     */
+    public static MutableRectangular parse(ByteBuffer s, int from, int to, MutableRectangular dst) {
+        ComplexParser p = new ComplexParser();
+        p.parse(s, from, to);
+        return dst.set(p.real(), p.imag());
+    }
+
+    private void parse(CharSequence s, int from, int to) {
+        this.chars = s;
+        this.bytes = null;
+        this.parse(from, to);
+    }
+
+    private void parse(ByteBuffer s, int from, int to) {
+        this.chars = null;
+        this.bytes = s;
+        this.parse(from, to);
+    }
+
+    private ComplexNumber result() {
+        return this.polar ? new Polar(this.a, this.b) : new Rectangular(this.a, this.b);
+    }
+
+    private double real() {
+        return this.polar ? this.a * Math.cos(this.b) : this.a;
+    }
+
+    private double imag() {
+        return this.polar ? this.a * Math.sin(this.b) : this.b;
+    }
+
+    private int at(int i) {
+        return this.chars != null ? this.chars.charAt(i) : this.bytes.get(i) & 0xff;
+    }
+
+    private int peek() {
+        return this.pos < this.end ? this.at(this.pos) : -1;
+    }
+
+    private void skipSpaces() {
+        while (this.pos < this.end && isSpace(this.at(this.pos)))
+            this.pos++;
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t';
+    }
+
+    private static boolean isUnit(int c) {
+        return c == 'i' || c == 'j';
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void parse(int from, int to) {
+        this.pos = from;
+        this.end = to;
+        this.polar = false;
+        this.skipSpaces();
+        // trailing spaces are insignificant
+        while (this.end > this.pos && isSpace(this.at(this.end - 1)))
+            this.end--;
+        if (this.pos == this.end)
+            throw this.error("empty input");
+
+        double sign = this.sign();
+        boolean present = this.isNumberStart();
+        double first = present ? sign * this.unsignedNumber() : sign;
+        this.skipSpaces();
+        int c = this.peek();
+
+        if (c == -1) {
+            if (!present)
+                throw this.error("number expected");
+            this.a = first;
+            this.b = 0;
+        } else if (isUnit(c)) {
+            this.pos++;
+            this.a = 0;
+            this.b = first;
+        } else if (c == 'e' && present && this.pos + 1 < this.end && this.at(this.pos + 1) == '^') {
+            this.pos += 2;
+            this.skipSpaces();
+            sign = this.sign();
+            if (!this.isNumberStart())
+                throw this.error("phase expected");
+            this.b = sign * this.unsignedNumber();
+            this.skipSpaces();
+            if (!isUnit(this.peek()))
+                throw this.error("'i' expected");
+            this.pos++;
+            this.a = first;
+            this.polar = true;
+        } else if ((c == '+' || c == '-') && present) {
+            sign = this.sign();
+            this.skipSpaces();
+            double second = sign;
+            if (this.peek() == '+' || this.peek() == '-')
+                second *= this.sign();
+            if (this.isNumberStart())
+                second *= this.unsignedNumber();
+            this.skipSpaces();
+            if (!isUnit(this.peek()))
+                throw this.error("'i' expected");
+            this.pos++;
+            this.a = first;
+            this.b = second;
+        } else {
+            throw this.error("unexpected character");
+        }
+
+        this.skipSpaces();
+        if (this.pos != this.end)
+            throw this.error("unexpected character");
+    }
+
+    private double sign() {
+        int c = this.peek();
+        if (c == '+' || c == '-') {
+            this.pos++;
+            return c == '-' ? -1 : 1;
+        }
+        return 1;
+    }
+
+    private boolean isNumberStart() {
+        int c = this.peek();
+        if (isDigit(c) || c == 'N' || c == 'I')
+            return true;
+        return c == '.' && this.pos + 1 < this.end && isDigit(this.at(this.pos + 1));
+    }
+
+    private double unsignedNumber() {
+        int c = this.peek();
+        if (c == 'N')
+            return this.word("NaN", Double.NaN);
+        if (c == 'I')
+            return this.word("Infinity", Double.POSITIVE_INFINITY);
+
+        int start = this.pos;
+        long mantissa = 0;
+        int digits = 0;             // significant digits accumulated in the mantissa
+        boolean truncated = false;  // more significant digits than the mantissa holds
+        int exponent = 0;           // decimal exponent of the mantissa's last digit
+        boolean seen = false;
+
+        for (; this.pos < this.end && isDigit(c = this.at(this.pos)); this.pos++) {
+            seen = true;
+            if (digits < 18) {
+                mantissa = 10*mantissa + (c - '0');
+                if (mantissa != 0)
+                    digits++;
+            } else {
+                truncated |= c != '0';
+                exponent++;
+            }
+        }
+        if (this.peek() == '.') {
+            this.pos++;
+            for (; this.pos < this.end && isDigit(c = this.at(this.pos)); this.pos++) {
+                seen = true;
+                if (digits < 18) {
+                    mantissa = 10*mantissa + (c - '0');
+                    if (mantissa != 0)
+                        digits++;
+                    exponent--;
+                } else {
+                    truncated |= c != '0';
+                }
+            }
+        }
+        if (!seen)
+            throw this.error("digit expected");
+
+        c = this.peek();
+        // an 'e' followed by '^' starts the polar form, not an exponent
+        if ((c == 'e' || c == 'E') && this.pos + 1 < this.end) {
+            int p = this.pos + 1;
+            int d = this.at(p);
+            boolean negative = d == '-';
+            if ((d == '+' || d == '-') && p + 1 < this.end)
+                d = this.at(++p);
+            if (isDigit(d)) {
+                int e = 0;
+                for (; p < this.end && isDigit(d = this.at(p)); p++)
+                    e = Math.min(10*e + (d - '0'), 100000);
+                exponent += negative ? -e : e;
+                this.pos = p;
+            }
+        }
+
+        if (mantissa == 0 && !truncated)
+            return 0;
+        if (!truncated && mantissa <= (1L << 53) && exponent >= -22 && exponent <= 22)
+            return exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        return Double.parseDouble(this.text(start, this.pos));
+    }
+
+    private double word(String word, double value) {
+        if (this.end - this.pos < word.length())
+            throw this.error("'" + word + "' expected");
+        for (int i = 0; i < word.length(); i++)
+            if (this.at(this.pos + i) != word.charAt(i))
+                throw this.error("'" + word + "' expected");
+        this.pos += word.length();
+        return value;
+    }
+
+    private String text(int from, int to) {
+        if (this.chars != null)
+            return this.chars.subSequence(from, to).toString();
+        char[] text = new char[to - from];
+        for (int i = 0; i < text.length; i++)
+            text[i] = (char) this.at(from + i);
+        return new String(text);
+    }
+
+    private NumberFormatException error(String message) {
+        int from = Math.max(0, this.pos - 40), to = Math.min(this.end, Math.max(this.pos + 1, from + 80));
+        return new NumberFormatException(message + " at index " + this.pos + " in \"" + this.text(from, Math.max(from, to)) + "\"");
+    }
+
+    /**
+     * Reads complex numbers from a text file into primitive arrays, one block
+     * at a time. Values are separated by line breaks, commas or semicolons;
+     * empty values are skipped. Polar values are converted to rectangular
+     * form. Not thread-safe.
+     */
+    public static final class Reader implements Closeable {
+        private static final int BUFFER_SIZE = 1 << 16;
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final ComplexParser parser = new ComplexParser();
+        private boolean eof;
+        private long count;
+
+        public Reader(Path path) throws IOException {
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.buffer.flip();
+        }
+
+        /**
+         * Returns the number of values read so far.
+         * @return  the number of values read.
+         */
+        public long count() {
+            return this.count;
+        }
+
+        /**
+         * Reads the next values into <i>dst</i>, from index <i>offset</i>.
+         *
+         * @param   dst     the array receiving the values.
+         * @param   offset  the index in <i>dst</i> of the first value.
+         * @param   n       the maximum number of values to read.
+         *
+         * @return  the number of values read, 0 at the end of the file.
+         * @throws  IOException if the file cannot be read, or a value cannot be parsed.
+         */
+        public int read(ComplexArray dst, int offset, int n) throws IOException {
+            if (offset < 0 || n < 0 || offset + n > dst.length())
+                throw new IndexOutOfBoundsException("cannot read " + n + " values at " + offset);
+            double[] re = dst.re(), im = dst.im();
+            int done = 0;
+            while (done < n) {
+                int start = this.buffer.position(), limit = this.buffer.limit(), stop = start;
+                while (stop < limit && !isSeparator(this.buffer.get(stop)))
+                    stop++;
+                if (stop == limit && !this.eof) {
+                    // the value may continue in the next block
+                    if (start == 0 && limit == BUFFER_SIZE)
+                        throw new IOException("value " + this.count + " is longer than " + BUFFER_SIZE + " bytes");
+                    this.fill();
+                    continue;
+                }
+                if (start == stop && stop == limit)
+                    break;
+                this.buffer.position(stop == limit ? stop : stop + 1);
+                if (isBlank(start, stop))
+                    continue;
+                try {
+                    this.parser.parse(this.buffer, start, stop);
+                } catch (NumberFormatException e) {
+                    throw new IOException("value " + this.count + ": " + e.getMessage(), e);
+                }
+                re[offset + done] = this.parser.real();
+                im[offset + done] = this.parser.imag();
+                done++;
+                this.count++;
+            }
+            return done;
+        }
+
+        public int read(ComplexArray dst) throws IOException {
+            return this.read(dst, 0, dst.length());
+        }
+
+        private static boolean isSeparator(byte c) {
+            return c == '\n' || c == '\r' || c == ',' || c == ';';
+        }
+
+        private boolean isBlank(int from, int to) {
+            for (int i = from; i < to; i++)
+                if (!isSpace(this.buffer.get(i)))
+                    return false;
+            return true;
+        }
+
+        private void fill() throws IOException {
+            this.buffer.compact();
+            while (this.buffer.hasRemaining()) {
+                if (this.channel.read(this.buffer) < 0) {
+                    this.eof = true;
+                    break;
+                }
+            }
+            this.buffer.flip();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.channel.close();
+        }
+    }
+}
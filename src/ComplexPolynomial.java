@@ -0,0 +1,355 @@
+import java.util.Arrays;
+
+/**
+ * A polynomial with complex coefficients,
+ * <i>c<sub>0</sub> + c<sub>1</sub>z + ... + c<sub>n</sub>z<sup>n</sup></i>.
+ * The coefficients are stored in split arrays, lowest degree first, and
+ * trailing zero coefficients are dropped, so the last one is never zero
+ * unless the polynomial is the constant zero. Polynomials are immutable.
+ *
+ * Evaluation uses Horner's scheme on primitive values and allocates nothing
+ * when the result is written into a {@link MutableRectangular} or a
+ * {@link ComplexArray}. Batched evaluation of a range of points runs four
+ * independent Horner recurrences at once, which keeps the multiplier busy
+ * while each step waits for the previous one; {@link ParallelComplex}
+ * splits larger batches across threads.
+ */
+public class ComplexPolynomial {
+
+    public static final int DEFAULT_MAX_ITERATIONS = 500;
+
+    private final double[] re;
+    private final double[] im;
+
+    /**
+     * Creates a polynomial from its coefficients, lowest degree first. The
+     * arrays are copied.
+     *
+     * @param   re  the real parts of the coefficients.
+     * @param   im  the imaginary parts of the coefficients, of the same length.
+     */
+    public ComplexPolynomial(double[] re, double[] im) {
+        if (re.length != im.length)
+            throw new IllegalArgumentException("array lengths differ: " + re.length + ", " + im.length);
+        int n = re.length;
+        while (n > 1 && re[n - 1] == 0 && im[n - 1] == 0)
+            n--;
+        this.re = Arrays.copyOf(re, Math.max(n, 1));
+        this.im = Arrays.copyOf(im, Math.max(n, 1));
+    }
+
+    /**
+     * Creates a polynomial from its coefficients, lowest degree first.
+     * @param   coefficients    complex numbers in either form.
+     * @return  the polynomial.
+     */
+    public static ComplexPolynomial of(ComplexNumber... coefficients) {
+        double[] re = new double[coefficients.length], im = new double[coefficients.length];
+        for (int i = 0; i < coefficients.length; i++) {
+            re[i] = coefficients[i].real();
+            im[i] = coefficients[i].imag();
+        }
+        return new ComplexPolynomial(re, im);
+    }
+
+    /**
+     * Returns the monic polynomial with the given roots,
+     * <i>(z - r<sub>0</sub>)(z - r<sub>1</sub>)...</i>.
+     *
+     * @param   roots   the roots, repeated as often as their multiplicity.
+     * @return  the polynomial.
+     */
+    public static ComplexPolynomial fromRoots(ComplexArray roots) {
+        int n = roots.length();
+        double[] re = new double[n + 1], im = new double[n + 1];
+        re[0] = 1;
+        // multiply by (z - r) for each root; c[0..k] holds the product so far
+        for (int k = 0; k < n; k++) {
+            double u = -roots.real(k), v = -roots.imag(k);
+            re[k + 1] = re[k];
+            im[k + 1] = im[k];
+            for (int j = k; j > 0; j--) {
+                double x = re[j], y = im[j];
+                re[j] = re[j - 1] + x*u - y*v;
+                im[j] = im[j - 1] + x*v + y*u;
+            }
+            double x = re[0];
+            re[0] = x*u - im[0]*v;
+            im[0] = x*v + im[0]*u;
+        }
+        return new ComplexPolynomial(re, im);
+    }
+
+    public int degree() {
+        return this.re.length - 1;
+    }
+
+    public double real(int k) {
+        return this.re[k];
+    }
+
+    public double imag(int k) {
+        return this.im[k];
+    }
+
+    /**
+     * Returns a coefficient.
+     * @param   k   the power of <i>z</i> the coefficient multiplies.
+     * @return  the coefficient as a complex number in rectangular form.
+     */
+    public Rectangular coefficient(int k) {
+        return new Rectangular(this.re[k], this.im[k]);
+    }
+
+    /**
+     * Returns the value at a point.
+     * @param   z   a complex number in either form.
+     * @return  the value as a complex number in rectangular form.
+     */
+    public Rectangular evaluate(ComplexNumber z) {
+        MutableRectangular p = this.evaluate(z.real(), z.imag(), new MutableRectangular());
+        return new Rectangular(p.real(), p.imag());
+    }
+
+    public MutableRectangular evaluate(ComplexNumber z, MutableRectangular dst) {
+        return this.evaluate(z.real(), z.imag(), dst);
+    }
+
+    /**
+     * Computes the value at the point <i>x + yi</i> into <i>dst</i>.
+     *
+     * @param   x   the real part of the point.
+     * @param   y   the imaginary part of the point.
+     * @param   dst the number receiving the value.
+     *
+     * @return  <i>dst</i>.
+     */
+    public MutableRectangular evaluate(double x, double y, MutableRectangular dst) {
+        double[] re = this.re, im = this.im;
+        double pr = re[re.length - 1], pi = im[im.length - 1];
+        for (int k = re.length - 2; k >= 0; k--) {
+            double t = pr*x - pi*y + re[k];
+            pi = pr*y + pi*x + im[k];
+            pr = t;
+        }
+        return dst.set(pr, pi);
+    }
+
+    /**
+     * Evaluates the polynomial at every point of an array.
+     *
+     * @param   z   the points.
+     * @param   dst the array receiving the values, which may be <i>z</i>.
+     */
+    public void evaluate(ComplexArray z, ComplexArray dst) {
+        if (z.length() != dst.length())
+            throw new IllegalArgumentException("array lengths differ: " + z.length() + ", " + dst.length());
+        this.evaluate(z, dst, 0, z.length());
+    }
+
+    /**
+     * Evaluates the polynomial at the points <i>from</i> to <i>to</i> of an array.
+     *
+     * @param   z       the points.
+     * @param   dst     the array receiving the values, which may be <i>z</i>.
+     * @param   from    the index of the first point.
+     * @param   to      the index after the last point.
+     */
+    public void evaluate(ComplexArray z, ComplexArray dst, int from, int to) {
+        if (from < 0 || from > to || to > z.length() || to > dst.length())
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds");
+        double[] re = this.re, im = this.im;
+        double[] zr = z.re(), zi = z.im(), dr = dst.re(), di = dst.im();
+        int top = re.length - 1;
+        int i = from;
+        for (; i + 4 <= to; i += 4) {
+            double x0 = zr[i], y0 = zi[i], x1 = zr[i + 1], y1 = zi[i + 1];
+            double x2 = zr[i + 2], y2 = zi[i + 2], x3 = zr[i + 3], y3 = zi[i + 3];
+            double r0 = re[top], i0 = im[top], r1 = r0, i1 = i0, r2 = r0, i2 = i0, r3 = r0, i3 = i0;
+            for (int k = top - 1; k >= 0; k--) {
+                double cr = re[k], ci = im[k], t;
+                t = r0*x0 - i0*y0 + cr; i0 = r0*y0 + i0*x0 + ci; r0 = t;
+                t = r1*x1 - i1*y1 + cr; i1 = r1*y1 + i1*x1 + ci; r1 = t;
+                t = r2*x2 - i2*y2 + cr; i2 = r2*y2 + i2*x2 + ci; r2 = t;
+                t = r3*x3 - i3*y3 + cr; i3 = r3*y3 + i3*x3 + ci; r3 = t;
+            }
+            dr[i] = r0; di[i] = i0;
+            dr[i + 1] = r1; di[i + 1] = i1;
+            dr[i + 2] = r2; di[i + 2] = i2;
+            dr[i + 3] = r3; di[i + 3] = i3;
+        }
+        for (; i < to; i++) {
+            double x = zr[i], y = zi[i], pr = re[top], pi = im[top];
+            for (int k = top - 1; k >= 0; k--) {
+                double t = pr*x - pi*y + re[k];
+                pi = pr*y + pi*x + im[k];
+                pr = t;
+            }
+            dr[i] = pr;
+            di[i] = pi;
+        }
+    }
+
+    /**
+     * Returns the derivative.
+     * @return  the polynomial <i>c<sub>1</sub> + 2c<sub>2</sub>z + ... + nc<sub>n</sub>z<sup>n-1</sup></i>.
+     */
+    public ComplexPolynomial derivative() {
+        int n = this.degree();
+        if (n == 0)
+            return new ComplexPolynomial(new double[1], new double[1]);
+        double[] re = new double[n], im = new double[n];
+        for (int k = 1; k <= n; k++) {
+            re[k - 1] = k * this.re[k];
+            im[k - 1] = k * this.im[k];
+        }
+        return new ComplexPolynomial(re, im);
+    }
+
+    public Rectangular[] roots() {
+        return this.roots(DEFAULT_MAX_ITERATIONS, 4 * Math.ulp(1.0));
+    }
+
+    /**
+     * Finds all roots by the Aberth–Ehrlich method, which refines every root
+     * at once with Newton steps that repel each estimate from the others.
+     * The estimates start on a circle around the centroid of the roots whose
+     * radius is their geometric mean modulus. At points outside the unit
+     * circle the Newton step is computed from the reversed polynomial, so
+     * that high degrees do not overflow.
+     *
+     * @param   maxIterations   the maximum number of sweeps over the roots.
+     * @param   tolerance       the relative size of a step below which a root is considered converged.
+     *
+     * @return  the roots, repeated as often as their multiplicity, in no particular order;
+     *          none for a nonzero constant.
+     * @throws  ArithmeticException for the zero polynomial, of which every number is a root.
+     */
+    public Rectangular[] roots(int maxIterations, double tolerance) {
+        int n = this.degree();
+        if (n == 0) {
+            // trailing zeros are trimmed, so only the zero polynomial has a zero leading coefficient
+            if (this.re[0] == 0 && this.im[0] == 0)
+                throw new ArithmeticException("the zero polynomial has no finite set of roots");
+            return new Rectangular[0];
+        }
+
+        double[] zr = new double[n], zi = new double[n];
+        boolean[] converged = new boolean[n];
+        double[] step = new double[2];
+        this.initialEstimates(zr, zi);
+
+        for (int iteration = 0, remaining = n; iteration < maxIterations && remaining > 0; iteration++) {
+            for (int i = 0; i < n; i++) {
+                if (converged[i])
+                    continue;
+                double x = zr[i], y = zi[i];
+                this.newtonStep(x, y, step);
+                double nr = step[0], ni = step[1];
+                if (!Double.isFinite(nr) || !Double.isFinite(ni)) {
+                    // a critical point of p: move off it and try again in the next sweep
+                    zr[i] = x + 1e-8 * (1 + Math.abs(x));
+                    continue;
+                }
+                if (nr == 0 && ni == 0) {
+                    converged[i] = true;
+                    remaining--;
+                    continue;
+                }
+                // s = Σ 1 / (z_i - z_j)
+                double sr = 0, si = 0;
+                for (int j = 0; j < n; j++) {
+                    if (j == i)
+                        continue;
+                    double dx = x - zr[j], dy = y - zi[j], d = dx*dx + dy*dy;
+                    sr += dx / d;
+                    si -= dy / d;
+                }
+                // w = N / (1 - N s)
+                ComplexFunctions.divide(nr, ni, 1 - (nr*sr - ni*si), -(nr*si + ni*sr), step);
+                double wr = step[0], wi = step[1];
+                if (!Double.isFinite(wr) || !Double.isFinite(wi)) {
+                    wr = nr;
+                    wi = ni;
+                }
+                zr[i] = x - wr;
+                zi[i] = y - wi;
+                if (Math.hypot(wr, wi) <= tolerance * Math.hypot(zr[i], zi[i]) || !Double.isFinite(zr[i] + zi[i])) {
+                    converged[i] = true;
+                    remaining--;
+                }
+            }
+        }
+
+        Rectangular[] roots = new Rectangular[n];
+        for (int i = 0; i < n; i++)
+            roots[i] = new Rectangular(zr[i], zi[i]);
+        return roots;
+    }
+
+    private void initialEstimates(double[] zr, double[] zi) {
+        int n = this.degree();
+        // the centroid of the roots is -c[n-1] / (n c[n])
+        double[] c = new double[2];
+        ComplexFunctions.divide(-this.re[n - 1], -this.im[n - 1], n * this.re[n], n * this.im[n], c);
+        double cr = c[0], ci = c[1];
+        double c0 = Math.hypot(this.re[0], this.im[0]), cn = Math.hypot(this.re[n], this.im[n]);
+        double radius = c0 == 0 ? 1 : Math.exp((Math.log(c0) - Math.log(cn)) / n);
+        if (!(radius > 0) || !Double.isFinite(radius))
+            radius = 1;
+        // an offset angle avoids starting symmetric to real coefficients
+        for (int i = 0; i < n; i++) {
+            double angle = 2 * Math.PI * i / n + 0.4;
+            zr[i] = cr + radius * Math.cos(angle);
+            zi[i] = ci + radius * Math.sin(angle);
+        }
+    }
+
+    /** Computes the Newton correction p(z) / p'(z) at <i>x + yi</i> into <i>out</i>. */
+    private void newtonStep(double x, double y, double[] out) {
+        double[] re = this.re, im = this.im;
+        int n = re.length - 1;
+        if (x*x + y*y <= 1) {
+            double pr = re[n], pi = im[n], dr = 0, di = 0;
+            for (int k = n - 1; k >= 0; k--) {
+                double t = dr*x - di*y + pr;
+                di = dr*y + di*x + pi;
+                dr = t;
+                t = pr*x - pi*y + re[k];
+                pi = pr*y + pi*x + im[k];
+                pr = t;
+            }
+            ComplexFunctions.divide(pr, pi, dr, di, out);
+            return;
+        }
+        // with w = 1/z and q the reversed polynomial, p/p' = z / (n - w q'(w) / q(w))
+        ComplexFunctions.divide(1, 0, x, y, out);
+        double wx = out[0], wy = out[1];
+        double qr = re[0], qi = im[0], dr = 0, di = 0;
+        for (int k = 1; k <= n; k++) {
+            double t = dr*wx - di*wy + qr;
+            di = dr*wy + di*wx + qi;
+            dr = t;
+            t = qr*wx - qi*wy + re[k];
+            qi = qr*wy + qi*wx + im[k];
+            qr = t;
+        }
+        ComplexFunctions.divide(dr, di, qr, qi, out);
+        double rr = out[0], ri = out[1];
+        ComplexFunctions.divide(x, y, n - (wx*rr - wy*ri), -(wx*ri + wy*rr), out);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        ComplexFormat format = ComplexFormat.shortest();
+        for (int k = 0; k < this.re.length; k++) {
+            if (k > 0)
+                sb.append(" + ");
+            format.formatRectangular(this.re[k], this.im[k], sb.append('(')).append(')');
+            if (k > 0)
+                sb.append(k == 1 ? "z" : "z^" + k);
+        }
+        return sb.toString();
+    }
+}
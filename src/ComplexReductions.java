@@ -0,0 +1,524 @@
+/**
+ * Sums, means, dot products and sums of squared moduli over ranges of
+ * {@link ComplexArray}s and over sequences of complex numbers, in three
+ * modes trading speed for accuracy. Results are stored in a caller supplied
+ * {@link MutableRectangular}, and nothing is allocated per element.
+ *
+ * For each component, with <i>u = 2⁻⁵³</i>, <i>n</i> elements and <i>S</i>
+ * the sum of the absolute values of the terms (of the components for a sum,
+ * of the products for a dot product), the error is at most:
+ * <ul>
+ * <li>{@link Mode#NAIVE}, a running sum: <i>(n + 1) u S</i>;
+ * <li>{@link Mode#PAIRWISE}, naive sums of blocks of {@value #BLOCK} terms
+ *     added in a balanced tree: <i>({@value #BLOCK} + 1 + ⌈log₂ n⌉) u S</i>;
+ * <li>{@link Mode#COMPENSATED}, Neumaier's variant of Kahan summation,
+ *     with the rounding errors of the products recovered exactly by
+ *     {@link Math#fma}: <i>2u |s| + 8n² u² S</i>, for the exact result
+ *     <i>s</i>, about as accurate as computing in twice the precision and
+ *     rounding once.
+ * </ul>
+ * The bounds only matter when terms cancel: without cancellation <i>S</i> is
+ * <i>|s|</i>, and the bounds are relative to the result.
+ *
+ * Every reduction over an array takes a range, so the work can be split.
+ * For sequences, and for combining the results of ranges reduced on other
+ * threads without losing the compensation, use an {@link Accumulator}.
+ */
+public final class ComplexReductions {
+
+    public enum Mode {
+        NAIVE,
+        PAIRWISE,
+        COMPENSATED
+    }
+
+    /** The length of the ranges summed naively by the pairwise mode. */
+    public static final int BLOCK = 64;
+
+    private ComplexReductions() {
+    }
+
+    /**
+     * Stores the sum of the elements in <i>dst</i>.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   mode    the summation mode.
+     * @param   dst     the number receiving the sum.
+     *
+     * @return  <i>dst</i>.
+     */
+    public static MutableRectangular sum(ComplexArray a, Mode mode, MutableRectangular dst) {
+        return sum(a, 0, a.length(), mode, dst);
+    }
+
+    /**
+     * Stores the sum of the elements at the indices from <i>from</i>,
+     * inclusive, to <i>to</i>, exclusive, in <i>dst</i>.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     * @param   mode    the summation mode.
+     * @param   dst     the number receiving the sum.
+     *
+     * @return  <i>dst</i>.
+     */
+    public static MutableRectangular sum(ComplexArray a, int from, int to, Mode mode, MutableRectangular dst) {
+        checkRange(a.length(), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS, to - from);
+        return reduce(a.re(), a.im(), null, null, 0, from, to, mode, dst);
+    }
+
+    /**
+     * Stores the sum of a sequence of complex numbers in <i>dst</i>.
+     *
+     * @param   values  complex numbers in either form.
+     * @param   mode    the summation mode.
+     * @param   dst     the number receiving the sum.
+     *
+     * @return  <i>dst</i>.
+     */
+    public static MutableRectangular sum(Iterable<? extends ComplexNumber> values, Mode mode, MutableRectangular dst) {
+        return accumulate(values, mode).sum(dst);
+    }
+
+    public static MutableRectangular mean(ComplexArray a, Mode mode, MutableRectangular dst) {
+        return mean(a, 0, a.length(), mode, dst);
+    }
+
+    /**
+     * Stores the mean of the elements in a range in <i>dst</i>, the sum
+     * divided by the number of elements.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   from    the first index.
+     * @param   to      the index after the last, greater than <i>from</i>.
+     * @param   mode    the summation mode.
+     * @param   dst     the number receiving the mean.
+     *
+     * @return  <i>dst</i>.
+     */
+    public static MutableRectangular mean(ComplexArray a, int from, int to, Mode mode, MutableRectangular dst) {
+        checkRange(a.length(), from, to);
+        if (from == to)
+            throw new IllegalArgumentException("mean of an empty range");
+        return sum(a, from, to, mode, dst).divInPlace(to - from);
+    }
+
+    public static MutableRectangular mean(Iterable<? extends ComplexNumber> values, Mode mode, MutableRectangular dst) {
+        return accumulate(values, mode).mean(dst);
+    }
+
+    public static MutableRectangular dot(ComplexArray a, ComplexArray b, Mode mode, MutableRectangular dst) {
+        return dot(a, b, 0, checkLengths(a, b), mode, dst);
+    }
+
+    /**
+     * Stores the dot product <i>Σ a[i] × b[i]</i> over a range in <i>dst</i>.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   b       an array of complex numbers of the same length.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     * @param   mode    the summation mode.
+     * @param   dst     the number receiving the dot product.
+     *
+     * @return  <i>dst</i>.
+     */
+    public static MutableRectangular dot(ComplexArray a, ComplexArray b, int from, int to, Mode mode, MutableRectangular dst) {
+        checkRange(checkLengths(a, b), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES, to - from);
+        return reduce(a.re(), a.im(), b.re(), b.im(), 1, from, to, mode, dst);
+    }
+
+    public static MutableRectangular conjugateDot(ComplexArray a, ComplexArray b, Mode mode, MutableRectangular dst) {
+        return conjugateDot(a, b, 0, checkLengths(a, b), mode, dst);
+    }
+
+    /**
+     * Stores the Hermitian inner product <i>Σ conj(a[i]) × b[i]</i> over a
+     * range in <i>dst</i>, without conjugating <i>a</i>.
+     *
+     * @param   a       an array of complex numbers, conjugated.
+     * @param   b       an array of complex numbers of the same length.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     * @param   mode    the summation mode.
+     * @param   dst     the number receiving the inner product.
+     *
+     * @return  <i>dst</i>.
+     */
+    public static MutableRectangular conjugateDot(ComplexArray a, ComplexArray b, int from, int to, Mode mode, MutableRectangular dst) {
+        checkRange(checkLengths(a, b), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES, to - from);
+        return reduce(a.re(), a.im(), b.re(), b.im(), -1, from, to, mode, dst);
+    }
+
+    public static double sumOfSquaredModuli(ComplexArray a, Mode mode) {
+        return sumOfSquaredModuli(a, 0, a.length(), mode);
+    }
+
+    /**
+     * Returns the sum of squared moduli <i>Σ |a[i]|²</i> over a range, the
+     * square of the Euclidean norm. The terms are all positive, so the
+     * error bounds are relative to the result.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     * @param   mode    the summation mode.
+     *
+     * @return  the sum of squared moduli.
+     */
+    public static double sumOfSquaredModuli(ComplexArray a, int from, int to, Mode mode) {
+        checkRange(a.length(), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES, to - from);
+        double[] re = a.re(), im = a.im();
+        switch (mode) {
+            case NAIVE:
+                return squares(re, im, from, to);
+            case PAIRWISE:
+                return pairwiseSquares(re, im, from, to);
+            default:
+                return compensatedSquares(re, im, from, to);
+        }
+    }
+
+    private static Accumulator accumulate(Iterable<? extends ComplexNumber> values, Mode mode) {
+        Accumulator accumulator = new Accumulator(mode);
+        for (ComplexNumber z : values)
+            accumulator.add(z);
+        return accumulator;
+    }
+
+    // sign 0 sums a; sign 1 sums a × b and sign -1 sums conj(a) × b, by flipping the sign of the imaginary part of a
+    private static MutableRectangular reduce(double[] ar, double[] ai, double[] br, double[] bi, int sign, int from, int to,
+            Mode mode, MutableRectangular dst) {
+        switch (mode) {
+            case NAIVE:
+                return naive(ar, ai, br, bi, sign, from, to, dst);
+            case PAIRWISE:
+                return pairwise(ar, ai, br, bi, sign, from, to, dst);
+            default:
+                return compensated(ar, ai, br, bi, sign, from, to, dst);
+        }
+    }
+
+    private static MutableRectangular naive(double[] ar, double[] ai, double[] br, double[] bi, int sign, int from, int to,
+            MutableRectangular dst) {
+        double sr = 0, si = 0;
+        if (sign == 0) {
+            for (int i = from; i < to; i++) {
+                sr += ar[i];
+                si += ai[i];
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                double x = ar[i], y = sign * ai[i], u = br[i], v = bi[i];
+                sr += x*u - y*v;
+                si += x*v + y*u;
+            }
+        }
+        return dst.set(sr, si);
+    }
+
+    private static MutableRectangular pairwise(double[] ar, double[] ai, double[] br, double[] bi, int sign, int from, int to,
+            MutableRectangular dst) {
+        if (to - from <= BLOCK)
+            return naive(ar, ai, br, bi, sign, from, to, dst);
+        int mid = (from + to) >>> 1;
+        pairwise(ar, ai, br, bi, sign, from, mid, dst);
+        double lr = dst.real(), li = dst.imag();
+        pairwise(ar, ai, br, bi, sign, mid, to, dst);
+        return dst.set(lr + dst.real(), li + dst.imag());
+    }
+
+    private static MutableRectangular compensated(double[] ar, double[] ai, double[] br, double[] bi, int sign, int from, int to,
+            MutableRectangular dst) {
+        // running sums and the accumulated rounding errors that the sums dropped
+        double sr = 0, cr = 0, si = 0, ci = 0;
+        if (sign == 0) {
+            for (int i = from; i < to; i++) {
+                double x = ar[i], t = sr + x;
+                cr += error(sr, x, t);
+                sr = t;
+                double y = ai[i];
+                t = si + y;
+                ci += error(si, y, t);
+                si = t;
+            }
+        } else {
+            for (int i = from; i < to; i++) {
+                double x = ar[i], y = sign * ai[i], u = br[i], v = bi[i];
+                double p = x*u, q = -y*v;
+                cr += Math.fma(x, u, -p) + Math.fma(-y, v, -q);
+                double t = sr + p;
+                cr += error(sr, p, t);
+                sr = t;
+                t = sr + q;
+                cr += error(sr, q, t);
+                sr = t;
+
+                p = x*v;
+                q = y*u;
+                ci += Math.fma(x, v, -p) + Math.fma(y, u, -q);
+                t = si + p;
+                ci += error(si, p, t);
+                si = t;
+                t = si + q;
+                ci += error(si, q, t);
+                si = t;
+            }
+        }
+        return dst.set(sr + cr, si + ci);
+    }
+
+    private static double squares(double[] re, double[] im, int from, int to) {
+        double s = 0;
+        for (int i = from; i < to; i++)
+            s += re[i]*re[i] + im[i]*im[i];
+        return s;
+    }
+
+    private static double pairwiseSquares(double[] re, double[] im, int from, int to) {
+        if (to - from <= BLOCK)
+            return squares(re, im, from, to);
+        int mid = (from + to) >>> 1;
+        return pairwiseSquares(re, im, from, mid) + pairwiseSquares(re, im, mid, to);
+    }
+
+    private static double compensatedSquares(double[] re, double[] im, int from, int to) {
+        double s = 0, c = 0;
+        for (int i = from; i < to; i++) {
+            double x = re[i], y = im[i], p = x*x, q = y*y;
+            c += Math.fma(x, x, -p) + Math.fma(y, y, -q);
+            double t = s + p;
+            c += error(s, p, t);
+            s = t;
+            t = s + q;
+            c += error(s, q, t);
+            s = t;
+        }
+        return s + c;
+    }
+
+    /** Returns the rounding error of <i>t = s + x</i>, exactly, as long as the sum does not overflow. */
+    static double error(double s, double x, double t) {
+        return Math.abs(s) >= Math.abs(x) ? (s - t) + x : (x - t) + s;
+    }
+
+    /**
+     * A running sum of complex numbers, added one at a time, in one of the
+     * modes of {@link ComplexReductions}. The pairwise mode keeps one partial
+     * sum for each power of two blocks added, which gives an error bound of
+     * the same order as the array reduction without holding on to the terms.
+     *
+     * Accumulators for different parts of a sequence can be filled on
+     * different threads and then {@link #combine}d, so that
+     * {@code IntStream.range(...).parallel().collect(...)} works, and in the
+     * compensated mode the compensations are combined too. An accumulator is
+     * not safe for use by several threads at once.
+     */
+    public static final class Accumulator {
+        private final Mode mode;
+        // the sum, or for the pairwise mode the sum of the current block
+        private double re, im;
+        // the compensations of the compensated mode
+        private double cre, cim;
+        // the partial sums of the pairwise mode, the sum of 2^k blocks at level k where bit k of levels is set
+        private final double[] levelRe, levelIm;
+        private long levels;
+        private int inBlock;
+        private long count;
+
+        public Accumulator(Mode mode) {
+            if (mode == null)
+                throw new IllegalArgumentException("mode must not be null");
+            this.mode = mode;
+            this.levelRe = mode == Mode.PAIRWISE ? new double[Long.SIZE] : null;
+            this.levelIm = mode == Mode.PAIRWISE ? new double[Long.SIZE] : null;
+        }
+
+        public Mode mode() {
+            return this.mode;
+        }
+
+        /**
+         * Returns the number of values added, including those of accumulators combined into this one.
+         * @return  the number of values.
+         */
+        public long count() {
+            return this.count;
+        }
+
+        public Accumulator add(ComplexNumber z) {
+            return this.add(z.real(), z.imag());
+        }
+
+        /**
+         * Adds a complex number given by its components.
+         *
+         * @param   real    the real part.
+         * @param   imag    the imaginary part.
+         *
+         * @return  this accumulator.
+         */
+        public Accumulator add(double real, double imag) {
+            ComplexMetrics.count(ComplexMetrics.Counter.PLUS);
+            this.count++;
+            switch (this.mode) {
+                case NAIVE:
+                    this.re += real;
+                    this.im += imag;
+                    break;
+                case PAIRWISE:
+                    this.re += real;
+                    this.im += imag;
+                    if (++this.inBlock == BLOCK)
+                        this.carry();
+                    break;
+                default:
+                    this.compensate(real, imag);
+            }
+            return this;
+        }
+
+        /**
+         * Adds the elements of an array in a range.
+         *
+         * @param   a       an array of complex numbers.
+         * @param   from    the first index.
+         * @param   to      the index after the last.
+         *
+         * @return  this accumulator.
+         */
+        public Accumulator add(ComplexArray a, int from, int to) {
+            checkRange(a.length(), from, to);
+            double[] re = a.re(), im = a.im();
+            for (int i = from; i < to; i++)
+                this.add(re[i], im[i]);
+            return this;
+        }
+
+        /**
+         * Adds the values of another accumulator of the same mode, which
+         * should hold the terms following those of this one.
+         *
+         * @param   other   an accumulator, left unchanged.
+         * @return  this accumulator.
+         */
+        public Accumulator combine(Accumulator other) {
+            if (other.mode != this.mode)
+                throw new IllegalArgumentException("cannot combine " + this.mode + " and " + other.mode + " sums");
+            this.count += other.count;
+            switch (this.mode) {
+                case NAIVE:
+                    this.re += other.re;
+                    this.im += other.im;
+                    break;
+                case PAIRWISE:
+                    // the other sum is one more term of the current block
+                    this.re += other.pairwiseReal();
+                    this.im += other.pairwiseImag();
+                    break;
+                default:
+                    this.compensate(other.re, other.im);
+                    this.cre += other.cre;
+                    this.cim += other.cim;
+            }
+            return this;
+        }
+
+        /**
+         * Stores the sum of the values added in <i>dst</i>.
+         * @param   dst the number receiving the sum.
+         * @return  <i>dst</i>.
+         */
+        public MutableRectangular sum(MutableRectangular dst) {
+            switch (this.mode) {
+                case NAIVE:
+                    return dst.set(this.re, this.im);
+                case PAIRWISE:
+                    return dst.set(this.pairwiseReal(), this.pairwiseImag());
+                default:
+                    return dst.set(this.re + this.cre, this.im + this.cim);
+            }
+        }
+
+        /**
+         * Stores the mean of the values added in <i>dst</i>.
+         *
+         * @param   dst the number receiving the mean.
+         * @return  <i>dst</i>.
+         *
+         * @throws  IllegalArgumentException    if no values were added.
+         */
+        public MutableRectangular mean(MutableRectangular dst) {
+            if (this.count == 0)
+                throw new IllegalArgumentException("mean of no values");
+            return this.sum(dst).divInPlace(this.count);
+        }
+
+        /** Empties the accumulator. */
+        public void reset() {
+            this.re = this.im = this.cre = this.cim = 0;
+            this.levels = 0;
+            this.inBlock = 0;
+            this.count = 0;
+        }
+
+        private void compensate(double x, double y) {
+            double t = this.re + x;
+            this.cre += error(this.re, x, t);
+            this.re = t;
+            t = this.im + y;
+            this.cim += error(this.im, y, t);
+            this.im = t;
+        }
+
+        // adds the full block to the partial sums, like incrementing a binary counter
+        private void carry() {
+            double sr = this.re, si = this.im;
+            int k = 0;
+            while ((this.levels & 1L << k) != 0) {
+                sr = this.levelRe[k] + sr;
+                si = this.levelIm[k] + si;
+                this.levels &= ~(1L << k);
+                k++;
+            }
+            this.levelRe[k] = sr;
+            this.levelIm[k] = si;
+            this.levels |= 1L << k;
+            this.re = this.im = 0;
+            this.inBlock = 0;
+        }
+
+        private double pairwiseReal() {
+            double s = this.re;
+            for (int k = 0; k < Long.SIZE; k++)
+                if ((this.levels & 1L << k) != 0)
+                    s += this.levelRe[k];
+            return s;
+        }
+
+        private double pairwiseImag() {
+            double s = this.im;
+            for (int k = 0; k < Long.SIZE; k++)
+                if ((this.levels & 1L << k) != 0)
+                    s += this.levelIm[k];
+            return s;
+        }
+    }
+
+    private static int checkLengths(ComplexArray a, ComplexArray b) {
+        int n = a.length();
+        if (b.length() != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + b.length());
+        return n;
+    }
+
+    private static void checkRange(int n, int from, int to) {
+        if (from < 0 || from > to || to > n)
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for length " + n);
+    }
+}
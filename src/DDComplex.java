@@ -0,0 +1,322 @@
+import java.math.BigDecimal;
+import java.math.MathContext;
+
+/**
+ * An immutable complex number in double-double precision: each part is an
+ * unevaluated sum of two doubles, <i>high + low</i>, for about 106 bits,
+ * or 32 significant digits. For computations that lose more digits than a
+ * double can spare, such as evaluating ill-conditioned polynomials or deep
+ * zooms into fractals, at a small multiple of the cost of {@link Rectangular}
+ * and a fraction of that of {@link BigDecimal}. The range is that of a
+ * double.
+ *
+ * The operators mirror those of {@link ComplexNumber}, and are accurate to
+ * a small multiple of <i>2⁻¹⁰⁶</i> relative to the modulus of the result.
+ * Values from the double precision types convert exactly; {@link #real()},
+ * {@link #imag()} and the conversions back round each part to the nearest
+ * double.
+ */
+public final class DDComplex extends ComplexNumber {
+
+    public static final DDComplex ZERO = new DDComplex(0, 0, 0, 0);
+    public static final DDComplex ONE = new DDComplex(1, 0, 0, 0);
+    public static final DDComplex I = new DDComplex(0, 0, 1, 0);
+
+    private static final MathContext DIGITS = new MathContext(32);
+
+    private final double realHigh, realLow;
+    private final double imagHigh, imagLow;
+
+    private DDComplex(double realHigh, double realLow, double imagHigh, double imagLow) {
+        ComplexMetrics.count(ComplexMetrics.Counter.ALLOCATION);
+        this.realHigh = realHigh;
+        this.realLow = realLow;
+        this.imagHigh = imagHigh;
+        this.imagLow = imagLow;
+    }
+
+    public static DDComplex of(double real, double imag) {
+        return new DDComplex(real, 0, imag, 0);
+    }
+
+    /**
+     * Returns the complex number whose parts are the sums <i>realHigh +
+     * realLow</i> and <i>imagHigh + imagLow</i>, which need not be
+     * normalized.
+     *
+     * @param   realHigh    the high part of the real part.
+     * @param   realLow     the low part of the real part.
+     * @param   imagHigh    the high part of the imaginary part.
+     * @param   imagLow     the low part of the imaginary part.
+     *
+     * @return  the complex number.
+     */
+    public static DDComplex of(double realHigh, double realLow, double imagHigh, double imagLow) {
+        double[] out = new double[4];
+        DoubleDouble.normalize(realHigh, realLow, out, 0);
+        DoubleDouble.normalize(imagHigh, imagLow, out, 2);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    /**
+     * Returns a complex number equal to <i>z</i>, exactly for numbers in
+     * rectangular form; a {@link Polar} is converted through its rectangular
+     * components.
+     *
+     * @param   z   a complex number in any form.
+     * @return  the complex number.
+     */
+    public static DDComplex of(ComplexNumber z) {
+        if (z instanceof DDComplex)
+            return (DDComplex) z;
+        return new DDComplex(z.real(), 0, z.imag(), 0);
+    }
+
+    /**
+     * Returns the nearest double-double complex number to the given decimal parts.
+     *
+     * @param   real    the real part.
+     * @param   imag    the imaginary part.
+     *
+     * @return  the complex number, with each part correct to about 32 digits.
+     */
+    public static DDComplex of(BigDecimal real, BigDecimal imag) {
+        double rh = real.doubleValue(), ih = imag.doubleValue();
+        return of(rh, real.subtract(new BigDecimal(rh)).doubleValue(), ih, imag.subtract(new BigDecimal(ih)).doubleValue());
+    }
+
+    public double real() {
+        return this.realHigh;
+    }
+
+    public double imag() {
+        return this.imagHigh;
+    }
+
+    public double realHigh() {
+        return this.realHigh;
+    }
+
+    public double realLow() {
+        return this.realLow;
+    }
+
+    public double imagHigh() {
+        return this.imagHigh;
+    }
+
+    public double imagLow() {
+        return this.imagLow;
+    }
+
+    /**
+     * Returns the exact value of the real part.
+     * @return  <i>realHigh + realLow</i> as a decimal.
+     */
+    public BigDecimal exactReal() {
+        return new BigDecimal(this.realHigh).add(new BigDecimal(this.realLow));
+    }
+
+    /**
+     * Returns the exact value of the imaginary part.
+     * @return  <i>imagHigh + imagLow</i> as a decimal.
+     */
+    public BigDecimal exactImag() {
+        return new BigDecimal(this.imagHigh).add(new BigDecimal(this.imagLow));
+    }
+
+    /**
+     * Returns the modulus rounded to double precision.
+     * @return  the modulus.
+     */
+    public double modulus() {
+        ComplexMetrics.count(ComplexMetrics.Counter.SQRT);
+        double[] out = new double[4];
+        DoubleDouble.modulus(this.realHigh, this.realLow, this.imagHigh, this.imagLow, out);
+        return out[0];
+    }
+
+    public double phase() {
+        ComplexMetrics.count(ComplexMetrics.Counter.TRIG);
+        return Math.atan2(this.imagHigh, this.realHigh);
+    }
+
+    public DDComplex conjugate() {
+        return new DDComplex(this.realHigh, this.realLow, -this.imagHigh, -this.imagLow);
+    }
+
+    public DDComplex negate() {
+        return new DDComplex(-this.realHigh, -this.realLow, -this.imagHigh, -this.imagLow);
+    }
+
+    /**
+     * Returns the modulus in double-double precision, as the real part of a
+     * complex number.
+     *
+     * @param   a   a complex number.
+     * @return  <i>|a|</i>, correct to a few units in the 106th bit.
+     */
+    public static DDComplex modulus(DDComplex a) {
+        ComplexMetrics.count(ComplexMetrics.Counter.SQRT);
+        double[] out = new double[4];
+        DoubleDouble.modulus(a.realHigh, a.realLow, a.imagHigh, a.imagLow, out);
+        return new DDComplex(out[0], out[1], 0, 0);
+    }
+
+    /**
+     * Returns the sum of two double-double complex numbers.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a + b</i>.
+     */
+    public static DDComplex PlusC(DDComplex a, DDComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS);
+        double[] out = new double[4];
+        DoubleDouble.add(a.realHigh, a.realLow, b.realHigh, b.realLow, out, 0);
+        DoubleDouble.add(a.imagHigh, a.imagLow, b.imagHigh, b.imagLow, out, 2);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    /**
+     * Returns the difference of two double-double complex numbers.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a - b</i>.
+     */
+    public static DDComplex MinusC(DDComplex a, DDComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS);
+        double[] out = new double[4];
+        DoubleDouble.add(a.realHigh, a.realLow, -b.realHigh, -b.realLow, out, 0);
+        DoubleDouble.add(a.imagHigh, a.imagLow, -b.imagHigh, -b.imagLow, out, 2);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    /**
+     * Returns the product of two double-double complex numbers.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a × b</i>.
+     */
+    public static DDComplex TimesC(DDComplex a, DDComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
+        double[] out = new double[4];
+        DoubleDouble.times(a.realHigh, a.realLow, a.imagHigh, a.imagLow, b.realHigh, b.realLow, b.imagHigh, b.imagLow, out);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    public static DDComplex TimesC(DDComplex a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
+        double[] out = new double[4];
+        DoubleDouble.multiply(a.realHigh, a.realLow, b, 0, out, 0);
+        DoubleDouble.multiply(a.imagHigh, a.imagLow, b, 0, out, 2);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    /**
+     * Returns the quotient of two double-double complex numbers. Both
+     * operands are scaled by powers of two first, so no intermediate result
+     * overflows or underflows unless the quotient does.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a / b</i>.
+     */
+    public static DDComplex DivideC(DDComplex a, DDComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        double[] out = new double[4];
+        DoubleDouble.divide(a.realHigh, a.realLow, a.imagHigh, a.imagLow, b.realHigh, b.realLow, b.imagHigh, b.imagLow, out);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    public static DDComplex DivideC(DDComplex a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        double[] out = new double[4];
+        DoubleDouble.divide(a.realHigh, a.realLow, b, 0, out, 0);
+        DoubleDouble.divide(a.imagHigh, a.imagLow, b, 0, out, 2);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    /**
+     * Raises a double-double complex number to an integer power, by repeated
+     * squaring. The error grows with the number of squarings, about
+     * <i>log₂ |n|</i>.
+     *
+     * @param   a   a complex number.
+     * @param   n   an integer; for negative <i>n</i> the result is <i>1 / a^-n</i>.
+     *
+     * @return  the value of <i>a ^ n</i>.
+     */
+    public static DDComplex power(DDComplex a, int n) {
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER);
+        double[] out = new double[4];
+        DoubleDouble.power(a.realHigh, a.realLow, a.imagHigh, a.imagLow, n, out);
+        return new DDComplex(out[0], out[1], out[2], out[3]);
+    }
+
+    /**
+     * Returns the value rounded to double precision.
+     * @return  the complex number in rectangular form.
+     */
+    public Rectangular toComplexRect() {
+        return new Rectangular(this.realHigh, this.imagHigh);
+    }
+
+    public Polar toComplexPolar() {
+        ComplexMetrics.count(ComplexMetrics.Counter.RECTANGULAR_TO_POLAR);
+        return new Polar(this.modulus(), this.phase());
+    }
+
+    /**
+     * Compares the parts of two numbers, identifying -0.0 with 0.0 and every
+     * NaN with every other NaN, as {@link Complex#equals} does. Numbers are
+     * kept normalized, so equal values have equal parts.
+     *
+     * @param   o   an object.
+     * @return  whether <i>o</i> is a {@code DDComplex} with the same value.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof DDComplex))
+            return false;
+        DDComplex z = (DDComplex) o;
+        return bits(this.realHigh) == bits(z.realHigh) && bits(this.realLow) == bits(z.realLow)
+                && bits(this.imagHigh) == bits(z.imagHigh) && bits(this.imagLow) == bits(z.imagLow);
+    }
+
+    @Override
+    public int hashCode() {
+        long h = bits(this.realHigh);
+        h = 31 * h + bits(this.realLow);
+        h = 31 * h + bits(this.imagHigh);
+        h = 31 * h + bits(this.imagLow);
+        return Long.hashCode(h);
+    }
+
+    private static long bits(double x) {
+        return Double.doubleToLongBits(x + 0.0);
+    }
+
+    /** Shows each part to 32 significant digits, or as a double where it is not finite. */
+    @Override
+    public String toString() {
+        String re = format(this.realHigh, this.realLow);
+        if (this.imagHigh < 0)
+            return re + " - " + format(-this.imagHigh, -this.imagLow) + "i";
+        return re + " + " + format(this.imagHigh, this.imagLow) + "i";
+    }
+
+    private static String format(double high, double low) {
+        if (!Double.isFinite(high))
+            return Double.toString(high);
+        return new BigDecimal(high).add(new BigDecimal(low)).round(DIGITS).toString();
+    }
+}
@@ -0,0 +1,286 @@
+/**
+ * An array of double-double complex numbers, the bulk counterpart of
+ * {@link DDComplex}. Each part is kept as two {@code double} arrays, the
+ * high and the low words, so an element takes 32 bytes and the kernels
+ * stream through primitive arrays without allocating.
+ */
+public class DDComplexArray {
+    private final double[] reHigh, reLow;
+    private final double[] imHigh, imLow;
+
+    /**
+     * Creates an array of <i>length</i> complex numbers, all equal to zero.
+     *
+     * @param   length  the number of elements.
+     */
+    public DDComplexArray(int length) {
+        this(new double[length], new double[length], new double[length], new double[length]);
+    }
+
+    /**
+     * Creates an array backed by the given words, which are not copied and
+     * are expected to be normalized, as {@link DDComplex#of(double, double, double, double)}
+     * would leave them.
+     *
+     * @param   reHigh  the high words of the real parts.
+     * @param   reLow   the low words of the real parts.
+     * @param   imHigh  the high words of the imaginary parts.
+     * @param   imLow   the low words of the imaginary parts.
+     */
+    public DDComplexArray(double[] reHigh, double[] reLow, double[] imHigh, double[] imLow) {
+        int n = reHigh.length;
+        if (reLow.length != n || imHigh.length != n || imLow.length != n)
+            throw new IllegalArgumentException("words differ in length: " + n + ", " + reLow.length + ", " + imHigh.length + ", " + imLow.length);
+        this.reHigh = reHigh;
+        this.reLow = reLow;
+        this.imHigh = imHigh;
+        this.imLow = imLow;
+    }
+
+    /**
+     * Returns the values of a double precision array, exactly.
+     *
+     * @param   a   an array of complex numbers.
+     * @return  a new array.
+     */
+    public static DDComplexArray fromComplexArray(ComplexArray a) {
+        DDComplexArray result = new DDComplexArray(a.length());
+        System.arraycopy(a.re(), 0, result.reHigh, 0, a.length());
+        System.arraycopy(a.im(), 0, result.imHigh, 0, a.length());
+        return result;
+    }
+
+    public int length() {
+        return this.reHigh.length;
+    }
+
+    /**
+     * Returns the backing array of the high words of the real parts.
+     * @return  the high words, not a copy.
+     */
+    public double[] reHigh() {
+        return this.reHigh;
+    }
+
+    public double[] reLow() {
+        return this.reLow;
+    }
+
+    public double[] imHigh() {
+        return this.imHigh;
+    }
+
+    public double[] imLow() {
+        return this.imLow;
+    }
+
+    public DDComplex get(int i) {
+        return DDComplex.of(this.reHigh[i], this.reLow[i], this.imHigh[i], this.imLow[i]);
+    }
+
+    public void set(int i, DDComplex z) {
+        this.reHigh[i] = z.realHigh();
+        this.reLow[i] = z.realLow();
+        this.imHigh[i] = z.imagHigh();
+        this.imLow[i] = z.imagLow();
+    }
+
+    public void set(int i, double real, double imag) {
+        this.reHigh[i] = real;
+        this.reLow[i] = 0;
+        this.imHigh[i] = imag;
+        this.imLow[i] = 0;
+    }
+
+    /**
+     * Stores the value of <i>z</i>, exactly for numbers in rectangular form.
+     * @param   i   the index.
+     * @param   z   a complex number in any form.
+     */
+    public void set(int i, ComplexNumber z) {
+        this.set(i, DDComplex.of(z));
+    }
+
+    /**
+     * Returns the values rounded to double precision.
+     * @return  a new array.
+     */
+    public ComplexArray toComplexArray() {
+        return new ComplexArray(this.reHigh.clone(), this.imHigh.clone());
+    }
+
+    /**
+     * Stores the element-wise sum of two arrays in <i>dst</i>, which may be
+     * either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a + b</i>.
+     */
+    public static void PlusC(DDComplexArray a, DDComplexArray b, DDComplexArray dst) {
+        PlusC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void PlusC(DDComplexArray a, DDComplexArray b, DDComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS, to - from);
+        double[] out = new double[4];
+        for (int i = from; i < to; i++) {
+            DoubleDouble.add(a.reHigh[i], a.reLow[i], b.reHigh[i], b.reLow[i], out, 0);
+            DoubleDouble.add(a.imHigh[i], a.imLow[i], b.imHigh[i], b.imLow[i], out, 2);
+            dst.store(i, out);
+        }
+    }
+
+    /**
+     * Stores the element-wise difference of two arrays in <i>dst</i>, which
+     * may be either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a - b</i>.
+     */
+    public static void MinusC(DDComplexArray a, DDComplexArray b, DDComplexArray dst) {
+        MinusC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void MinusC(DDComplexArray a, DDComplexArray b, DDComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS, to - from);
+        double[] out = new double[4];
+        for (int i = from; i < to; i++) {
+            DoubleDouble.add(a.reHigh[i], a.reLow[i], -b.reHigh[i], -b.reLow[i], out, 0);
+            DoubleDouble.add(a.imHigh[i], a.imLow[i], -b.imHigh[i], -b.imLow[i], out, 2);
+            dst.store(i, out);
+        }
+    }
+
+    /**
+     * Stores the element-wise product of two arrays in <i>dst</i>, which may
+     * be either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a × b</i>.
+     */
+    public static void TimesC(DDComplexArray a, DDComplexArray b, DDComplexArray dst) {
+        TimesC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void TimesC(DDComplexArray a, DDComplexArray b, DDComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES, to - from);
+        double[] out = new double[4];
+        for (int i = from; i < to; i++) {
+            DoubleDouble.times(a.reHigh[i], a.reLow[i], a.imHigh[i], a.imLow[i],
+                    b.reHigh[i], b.reLow[i], b.imHigh[i], b.imLow[i], out);
+            dst.store(i, out);
+        }
+    }
+
+    /**
+     * Stores the element-wise quotient of two arrays in <i>dst</i>, which may
+     * be either operand, computed as {@link DDComplex#DivideC(DDComplex, DDComplex)} does.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a / b</i>.
+     */
+    public static void DivideC(DDComplexArray a, DDComplexArray b, DDComplexArray dst) {
+        DivideC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void DivideC(DDComplexArray a, DDComplexArray b, DDComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE, to - from);
+        double[] out = new double[4];
+        for (int i = from; i < to; i++) {
+            DoubleDouble.divide(a.reHigh[i], a.reLow[i], a.imHigh[i], a.imLow[i],
+                    b.reHigh[i], b.reLow[i], b.imHigh[i], b.imLow[i], out);
+            dst.store(i, out);
+        }
+    }
+
+    public static void modulus(DDComplexArray a, double[] high, double[] low) {
+        modulus(a, high, low, 0, checkLength(a, high, low));
+    }
+
+    /**
+     * Stores the moduli of the elements in a range, in double-double
+     * precision, as high and low words.
+     *
+     * @param   a       an array of complex numbers.
+     * @param   high    the array receiving the high words.
+     * @param   low     the array receiving the low words.
+     * @param   from    the first index.
+     * @param   to      the index after the last.
+     */
+    public static void modulus(DDComplexArray a, double[] high, double[] low, int from, int to) {
+        checkRange(checkLength(a, high, low), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.SQRT, to - from);
+        double[] out = new double[4];
+        for (int i = from; i < to; i++) {
+            DoubleDouble.modulus(a.reHigh[i], a.reLow[i], a.imHigh[i], a.imLow[i], out);
+            high[i] = out[0];
+            low[i] = out[1];
+        }
+    }
+
+    /**
+     * Stores every element of <i>a</i> raised to the integer power <i>n</i>
+     * in <i>dst</i>, which may be <i>a</i> itself.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   n   an integer.
+     * @param   dst the array receiving <i>a ^ n</i>.
+     */
+    public static void power(DDComplexArray a, int n, DDComplexArray dst) {
+        power(a, n, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void power(DDComplexArray a, int n, DDComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER, to - from);
+        double[] out = new double[4];
+        for (int i = from; i < to; i++) {
+            DoubleDouble.power(a.reHigh[i], a.reLow[i], a.imHigh[i], a.imLow[i], n, out);
+            dst.store(i, out);
+        }
+    }
+
+    private void store(int i, double[] out) {
+        this.reHigh[i] = out[0];
+        this.reLow[i] = out[1];
+        this.imHigh[i] = out[2];
+        this.imLow[i] = out[3];
+    }
+
+    private static int checkLengths(DDComplexArray a, DDComplexArray b, DDComplexArray dst) {
+        int n = a.length();
+        if (b.length() != n || dst.length() != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + b.length() + ", " + dst.length());
+        return n;
+    }
+
+    private static void checkRange(int n, int from, int to) {
+        if (from < 0 || from > to || to > n)
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for length " + n);
+    }
+
+    private static int checkLength(DDComplexArray a, double[] high, double[] low) {
+        int n = a.length();
+        if (high.length != n || low.length != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + high.length + ", " + low.length);
+        return n;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < this.length(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(this.get(i));
+        }
+        return sb.append(']').toString();
+    }
+}
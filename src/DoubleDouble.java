@@ -0,0 +1,182 @@
+/**
+ * The kernels of {@link DDComplex} and {@link DDComplexArray}. A
+ * double-double number is an unevaluated sum <i>hi + lo</i> of two doubles
+ * with <i>|lo| ≤ ulp(hi) / 2</i>, which carries about 106 bits. The
+ * kernels are built on error-free transformations: TwoSum gives the
+ * rounding error of a sum exactly and {@link Math#fma} that of a product,
+ * so that what one double operation drops is kept in the low part.
+ *
+ * Each kernel writes its result into <i>out[at]</i> and <i>out[at + 1]</i>,
+ * or for complex results the real and imaginary parts into <i>out[0..1]</i>
+ * and <i>out[2..3]</i>. With <i>u = 2⁻¹⁰⁶</i>, sums, products and square
+ * roots are within a few <i>u</i> of the exact result, and quotients within
+ * about 10 <i>u</i>; complex results are within a small multiple of that,
+ * relative to their modulus.
+ */
+final class DoubleDouble {
+
+    private DoubleDouble() {
+    }
+
+    /** (ah + al) + (bh + bl), with the low parts added separately, as in the QD library's accurate addition. */
+    static void add(double ah, double al, double bh, double bl, double[] out, int at) {
+        double s = ah + bh, v = s - ah, e = (ah - (s - v)) + (bh - v);
+        double t = al + bl;
+        v = t - al;
+        double f = (al - (t - v)) + (bl - v);
+        e += t;
+        double h = s + e;
+        e -= h - s;
+        e += f;
+        s = h + e;
+        out[at] = s;
+        out[at + 1] = e - (s - h);
+    }
+
+    /** (ah + al)(bh + bl), dropping only al bl, which is below the precision. */
+    static void multiply(double ah, double al, double bh, double bl, double[] out, int at) {
+        double p = ah * bh, e = Math.fma(ah, bh, -p) + (ah*bl + al*bh);
+        double s = p + e;
+        out[at] = s;
+        out[at + 1] = e - (s - p);
+    }
+
+    /** (ah + al) / (bh + bl), by long division: three quotient digits, each from the remainder of the last. */
+    static void divide(double ah, double al, double bh, double bl, double[] out, int at) {
+        double q1 = ah / bh;
+        multiply(q1, 0, bh, bl, out, at);
+        add(ah, al, -out[at], -out[at + 1], out, at);
+        double q2 = out[at] / bh;
+        double rh = out[at], rl = out[at + 1];
+        multiply(q2, 0, bh, bl, out, at);
+        add(rh, rl, -out[at], -out[at + 1], out, at);
+        double q3 = out[at] / bh;
+        double s = q1 + q2, e = q2 - (s - q1);
+        add(s, e, q3, 0, out, at);
+    }
+
+    /** √(ah + al), by one Newton step from the double square root, with the residual computed exactly. */
+    static void sqrt(double ah, double al, double[] out, int at) {
+        if (!(ah > 0) || Double.isInfinite(ah)) {
+            out[at] = Math.sqrt(ah);
+            out[at + 1] = 0;
+            return;
+        }
+        double s = Math.sqrt(ah), p = s * s, e = Math.fma(s, s, -p);
+        // ah - p is exact, s² being within an ulp of ah
+        double c = (((ah - p) - e) + al) / (2 * s);
+        double h = s + c;
+        out[at] = h;
+        out[at + 1] = c - (h - s);
+    }
+
+    /** (x + yi)(u + vi), each part the sum of two double-double products. */
+    static void times(double xh, double xl, double yh, double yl, double uh, double ul, double vh, double vl, double[] out) {
+        multiply(xh, xl, uh, ul, out, 0);
+        multiply(yh, yl, vh, vl, out, 2);
+        add(out[0], out[1], -out[2], -out[3], out, 0);
+        double rh = out[0], rl = out[1];
+        multiply(xh, xl, vh, vl, out, 0);
+        multiply(yh, yl, uh, ul, out, 2);
+        add(out[0], out[1], out[2], out[3], out, 2);
+        out[0] = rh;
+        out[1] = rl;
+    }
+
+    /**
+     * (x + yi) / (u + vi) = (x + yi)(u - vi) / (u² + v²), with the dividend
+     * and the divisor first scaled by powers of two to magnitudes in
+     * <i>[1, 2)</i>, which is exact and keeps the products from overflowing
+     * or underflowing. The scales are applied to the quotient at the end,
+     * so it overflows or underflows only if the exact quotient does.
+     */
+    static void divide(double xh, double xl, double yh, double yl, double uh, double ul, double vh, double vl, double[] out) {
+        int a = Math.getExponent(Math.max(Math.abs(xh), Math.abs(yh)));
+        int b = Math.getExponent(Math.max(Math.abs(uh), Math.abs(vh)));
+        // powers of two, normal or subnormal, so the products by them are exact scalings
+        double f = Math.scalb(1.0, -a), g = Math.scalb(1.0, -b);
+        xh *= f;
+        xl *= f;
+        yh *= f;
+        yl *= f;
+        uh *= g;
+        ul *= g;
+        vh *= g;
+        vl *= g;
+        squaredModulus(uh, ul, vh, vl, out);
+        double dh = out[0], dl = out[1];
+
+        multiply(xh, xl, uh, ul, out, 0);
+        multiply(yh, yl, vh, vl, out, 2);
+        add(out[0], out[1], out[2], out[3], out, 0);
+        divide(out[0], out[1], dh, dl, out, 0);
+        double rh = out[0], rl = out[1];
+
+        multiply(yh, yl, uh, ul, out, 0);
+        multiply(xh, xl, vh, vl, out, 2);
+        add(out[0], out[1], -out[2], -out[3], out, 0);
+        divide(out[0], out[1], dh, dl, out, 0);
+        out[2] = Math.scalb(out[0], a - b);
+        out[3] = Math.scalb(out[1], a - b);
+        out[0] = Math.scalb(rh, a - b);
+        out[1] = Math.scalb(rl, a - b);
+    }
+
+    /** |x + yi| = √(x² + y²), scaled by a power of two like {@link #divide}; the result is in out[0..1]. */
+    static void modulus(double xh, double xl, double yh, double yl, double[] out) {
+        int scale = Math.getExponent(Math.max(Math.abs(xh), Math.abs(yh)));
+        if (scale == Double.MAX_EXPONENT + 1 || scale == Double.MIN_EXPONENT - 1) {
+            // an infinity or NaN part, or zero or subnormal ones, which have no low part to keep
+            out[0] = Math.hypot(xh, yh);
+            out[1] = 0;
+            return;
+        }
+        squaredModulus(Math.scalb(xh, -scale), Math.scalb(xl, -scale), Math.scalb(yh, -scale), Math.scalb(yl, -scale), out);
+        sqrt(out[0], out[1], out, 0);
+        out[0] = Math.scalb(out[0], scale);
+        out[1] = Math.scalb(out[1], scale);
+    }
+
+    /** x² + y², without scaling; the result is in out[0..1]. */
+    private static void squaredModulus(double xh, double xl, double yh, double yl, double[] out) {
+        multiply(xh, xl, xh, xl, out, 0);
+        multiply(yh, yl, yh, yl, out, 2);
+        add(out[0], out[1], out[2], out[3], out, 0);
+    }
+
+    /** (x + yi)^n by binary exponentiation, and the reciprocal of the power for negative <i>n</i>. */
+    static void power(double xh, double xl, double yh, double yl, int n, double[] out) {
+        double ph = 1, pl = 0, qh = 0, ql = 0;
+        for (long k = Math.abs((long) n); k != 0; k >>= 1) {
+            if ((k & 1) != 0) {
+                times(ph, pl, qh, ql, xh, xl, yh, yl, out);
+                ph = out[0];
+                pl = out[1];
+                qh = out[2];
+                ql = out[3];
+            }
+            if (k > 1) {
+                times(xh, xl, yh, yl, xh, xl, yh, yl, out);
+                xh = out[0];
+                xl = out[1];
+                yh = out[2];
+                yl = out[3];
+            }
+        }
+        if (n < 0) {
+            divide(1, 0, 0, 0, ph, pl, qh, ql, out);
+            return;
+        }
+        out[0] = ph;
+        out[1] = pl;
+        out[2] = qh;
+        out[3] = ql;
+    }
+
+    /** Splits <i>hi + lo</i> into a normalized pair, for sums given by the caller. */
+    static void normalize(double hi, double lo, double[] out, int at) {
+        double s = hi + lo, v = s - hi;
+        out[at] = s;
+        out[at + 1] = (hi - (s - v)) + (lo - v);
+    }
+}
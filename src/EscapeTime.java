@@ -0,0 +1,338 @@
+/**
+ * Iterates <i>z → z^k + c</i> over many points at once, for Mandelbrot
+ * sets, where <i>c</i> is the point and the orbit starts at <i>z = c</i>,
+ * and for Julia sets, where <i>c</i> is fixed and the orbit starts at the
+ * point. Each point gets the number of iterations before <i>|z|</i>
+ * exceeded the bailout radius and, optionally, a smooth iteration count
+ * for coloring without bands.
+ *
+ * The exponent <i>k</i> is any real number above 1, with the semantics of
+ * {@link ComplexArray#power(ComplexArray, double, ComplexArray)}: integers
+ * up to 64 by repeated squaring, others through the principal logarithm.
+ * For <i>k</i> = 2 the step is inlined, and gives bit-for-bit the orbit of
+ * {@code PlusC(TimesC(z, z), c)}.
+ *
+ * Points are iterated in batches of {@value #LANES}, one step for every
+ * point of the batch in turn, which keeps several independent orbits in
+ * flight instead of waiting on one. Points that escape are dropped from the
+ * batch, the last point moving into their place, so the batch only does
+ * work for points still iterating. With
+ * periodicity checking on, an orbit that returns exactly to a value it had
+ * at an earlier power of two iterations is cyclic, so the point is stopped
+ * and counted as not escaping, which is what iterating on would have
+ * found; inside the set this saves most of the iterations.
+ */
+public class EscapeTime {
+
+    public static final double DEFAULT_BAILOUT = 256;
+
+    /** The largest bailout radius, whose square is still finite. */
+    public static final double MAX_BAILOUT = 0x1p511;
+
+    /** The number of points iterated together. */
+    static final int LANES = 64;
+
+    /** The number of points in a tile, the unit of work of the parallel methods. */
+    static final int TILE = 1 << 12;
+
+    private final double exponent;
+    private final int maxIterations;
+    private final double bailout;
+    private final boolean periodicityChecking;
+
+    /**
+     * Creates an engine with the default bailout radius and periodicity checking.
+     *
+     * @param   exponent        the power <i>k</i>, above 1.
+     * @param   maxIterations   the number of iterations after which a point is taken not to escape.
+     */
+    public EscapeTime(double exponent, int maxIterations) {
+        this(exponent, maxIterations, DEFAULT_BAILOUT, true);
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param   exponent            the power <i>k</i>, above 1.
+     * @param   maxIterations       the number of iterations after which a point is taken not to escape.
+     * @param   bailout             the radius beyond which a point has escaped, at least 2 and at most
+     *                              {@link #MAX_BAILOUT}. A large radius makes the smooth count smoother,
+     *                              at the cost of a few iterations.
+     * @param   periodicityChecking whether to stop orbits found to be cyclic.
+     */
+    public EscapeTime(double exponent, int maxIterations, double bailout, boolean periodicityChecking) {
+        if (!(exponent > 1) || Double.isInfinite(exponent))
+            throw new IllegalArgumentException("exponent must be finite and above 1: " + exponent);
+        if (maxIterations < 1)
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        if (!(bailout >= 2 && bailout <= MAX_BAILOUT))
+            throw new IllegalArgumentException("bailout must be between 2 and " + MAX_BAILOUT + ": " + bailout);
+        this.exponent = exponent;
+        this.maxIterations = maxIterations;
+        this.bailout = bailout;
+        this.periodicityChecking = periodicityChecking;
+    }
+
+    public double exponent() {
+        return this.exponent;
+    }
+
+    public int maxIterations() {
+        return this.maxIterations;
+    }
+
+    public double bailout() {
+        return this.bailout;
+    }
+
+    public boolean periodicityChecking() {
+        return this.periodicityChecking;
+    }
+
+    /**
+     * Returns the centers of a grid of <i>width × height</i> pixels covering
+     * a rectangle of the complex plane, row by row from the top, the row of
+     * the largest imaginary part.
+     *
+     * @param   minRe   the left edge.
+     * @param   minIm   the bottom edge.
+     * @param   maxRe   the right edge.
+     * @param   maxIm   the top edge.
+     * @param   width   the number of columns.
+     * @param   height  the number of rows.
+     *
+     * @return  an array of <i>width × height</i> points.
+     */
+    public static ComplexArray grid(double minRe, double minIm, double maxRe, double maxIm, int width, int height) {
+        if (width < 1 || height < 1)
+            throw new IllegalArgumentException("invalid grid size: " + width + "×" + height);
+        ComplexArray points = new ComplexArray(Math.multiplyExact(width, height));
+        double[] re = points.re(), im = points.im();
+        double dx = (maxRe - minRe) / width, dy = (maxIm - minIm) / height;
+        for (int row = 0; row < height; row++) {
+            double y = maxIm - (row + 0.5) * dy;
+            for (int col = 0; col < width; col++) {
+                re[row * width + col] = minRe + (col + 0.5) * dx;
+                im[row * width + col] = y;
+            }
+        }
+        return points;
+    }
+
+    public void mandelbrot(ComplexArray c, int[] iterations, double[] smooth) {
+        this.mandelbrot(c, iterations, smooth, 0, checkLengths(c, iterations, smooth));
+    }
+
+    /**
+     * Iterates the points of <i>c</i> at the indices from <i>from</i>,
+     * inclusive, to <i>to</i>, exclusive, as parameters of the Mandelbrot
+     * iteration <i>z₀ = 0, z₁ = c, zₙ₊₁ = zₙ^k + c</i>.
+     *
+     * @param   c           the points.
+     * @param   iterations  receives the first <i>n</i> with <i>|zₙ| &gt;</i> bailout, or the maximum
+     *                      number of iterations for points that do not escape.
+     * @param   smooth      receives the smooth iteration count, about between <i>n - 1</i> and <i>n</i> for
+     *                      points that escape, and the maximum number of iterations for the others; may be null.
+     * @param   from        the first index.
+     * @param   to          the index after the last.
+     */
+    public void mandelbrot(ComplexArray c, int[] iterations, double[] smooth, int from, int to) {
+        checkRange(checkLengths(c, iterations, smooth), from, to);
+        new Batch().run(c.re(), c.im(), true, 0, 0, iterations, smooth, from, to);
+    }
+
+    /**
+     * Iterates the points of <i>c</i> like {@link #mandelbrot(ComplexArray, int[], double[])},
+     * with tiles of consecutive points, bands of rows of a {@link #grid},
+     * computed in parallel. The results do not depend on the number of threads.
+     *
+     * @param   c           the points.
+     * @param   iterations  receives the iteration counts.
+     * @param   smooth      receives the smooth iteration counts; may be null.
+     * @param   parallel    the executor whose pool runs the tiles.
+     */
+    public void mandelbrot(ComplexArray c, int[] iterations, double[] smooth, ParallelComplex parallel) {
+        int n = checkLengths(c, iterations, smooth);
+        new ParallelComplex(parallel.pool(), TILE).forEach(n, (from, to) -> this.mandelbrot(c, iterations, smooth, from, to));
+    }
+
+    public void julia(ComplexArray z, ComplexNumber c, int[] iterations, double[] smooth) {
+        this.julia(z, c, iterations, smooth, 0, checkLengths(z, iterations, smooth));
+    }
+
+    /**
+     * Iterates the points of <i>z</i> in a range as starting values of the
+     * Julia iteration <i>z₀ = z, zₙ₊₁ = zₙ^k + c</i>.
+     *
+     * @param   z           the points.
+     * @param   c           the constant.
+     * @param   iterations  receives the iteration counts, as for the Mandelbrot iteration.
+     * @param   smooth      receives the smooth iteration counts; may be null.
+     * @param   from        the first index.
+     * @param   to          the index after the last.
+     */
+    public void julia(ComplexArray z, ComplexNumber c, int[] iterations, double[] smooth, int from, int to) {
+        checkRange(checkLengths(z, iterations, smooth), from, to);
+        new Batch().run(z.re(), z.im(), false, c.real(), c.imag(), iterations, smooth, from, to);
+    }
+
+    public void julia(ComplexArray z, ComplexNumber c, int[] iterations, double[] smooth, ParallelComplex parallel) {
+        int n = checkLengths(z, iterations, smooth);
+        Rectangular constant = new Rectangular(c.real(), c.imag());
+        new ParallelComplex(parallel.pool(), TILE).forEach(n, (from, to) -> this.julia(z, constant, iterations, smooth, from, to));
+    }
+
+    /** The state of the points of one batch, reused for every batch of a range. */
+    private final class Batch {
+        private final double[] zr = new double[LANES], zi = new double[LANES];
+        private final double[] cr = new double[LANES], ci = new double[LANES];
+        // the orbit values saved for periodicity checking
+        private final double[] sr = new double[LANES], si = new double[LANES];
+        // the indices of the points in the lanes
+        private final int[] index = new int[LANES];
+        private final double[] out = new double[2];
+
+        void run(double[] re, double[] im, boolean mandelbrot, double jr, double ji, int[] iterations, double[] smooth,
+                int from, int to) {
+            long steps = 0;
+            for (int start = from; start < to; start += LANES) {
+                int m = Math.min(LANES, to - start);
+                for (int l = 0; l < m; l++) {
+                    this.index[l] = start + l;
+                    this.zr[l] = re[start + l];
+                    this.zi[l] = im[start + l];
+                    this.cr[l] = mandelbrot ? re[start + l] : jr;
+                    this.ci[l] = mandelbrot ? im[start + l] : ji;
+                    this.sr[l] = Double.NaN;
+                    this.si[l] = Double.NaN;
+                }
+                int n = mandelbrot ? 1 : 0;
+                if (exponent == 2 && !periodicityChecking)
+                    steps += this.iterateSquare(m, n, iterations, smooth);
+                else
+                    steps += this.iterate(m, n, iterations, smooth);
+            }
+            ComplexMetrics.count(ComplexMetrics.Counter.POWER, steps);
+        }
+
+        /**
+         * Iterates the first <i>m</i> lanes, whose orbits are at iteration
+         * <i>n</i>, for <i>k</i> = 2 without periodicity checking, and
+         * returns the number of steps taken. This is {@link #iterate} with
+         * the other cases taken out, which leaves the loop fewer arrays to
+         * keep live.
+         */
+        private long iterateSquare(int m, int n, int[] iterations, double[] smooth) {
+            double limit = bailout * bailout;
+            int max = maxIterations;
+            double[] zr = this.zr, zi = this.zi, cr = this.cr, ci = this.ci;
+            int[] index = this.index;
+            long steps = 0;
+            for (; m > 0; n++) {
+                for (int l = 0; l < m; ) {
+                    double x = zr[l], y = zi[l], r2 = x*x + y*y;
+                    if (!(r2 <= limit) || n >= max) {
+                        this.finish(l, n, x, y, iterations, smooth);
+                        m--;
+                        zr[l] = zr[m];
+                        zi[l] = zi[m];
+                        cr[l] = cr[m];
+                        ci[l] = ci[m];
+                        index[l] = index[m];
+                        continue;
+                    }
+                    zr[l] = x*x - y*y + cr[l];
+                    zi[l] = 2*x*y + ci[l];
+                    l++;
+                }
+                steps += m;
+            }
+            return steps;
+        }
+
+        /** Iterates the first <i>m</i> lanes, whose orbits are at iteration <i>n</i>, and returns the number of steps taken. */
+        private long iterate(int m, int n, int[] iterations, double[] smooth) {
+            double k = exponent, limit = bailout * bailout;
+            int max = maxIterations;
+            boolean checking = periodicityChecking, square = k == 2, integer = ComplexFunctions.isSmallInteger(k);
+            double[] zr = this.zr, zi = this.zi, cr = this.cr, ci = this.ci, sr = this.sr, si = this.si;
+            int[] index = this.index;
+            int nextSave = Math.max(n, 1);
+            long steps = 0;
+            for (; m > 0; n++) {
+                boolean save = checking && n == nextSave;
+                if (save)
+                    nextSave *= 2;
+                // steps every lane still iterating, and moves the last lane into the place of one that escaped or cycled
+                for (int l = 0; l < m; ) {
+                    double x = zr[l], y = zi[l], r2 = x*x + y*y;
+                    // an orbit that overflowed into NaN has escaped too
+                    if (!(r2 <= limit) || n >= max || (checking && x == sr[l] && y == si[l])) {
+                        this.finish(l, n, x, y, iterations, smooth);
+                        m--;
+                        zr[l] = zr[m];
+                        zi[l] = zi[m];
+                        cr[l] = cr[m];
+                        ci[l] = ci[m];
+                        sr[l] = sr[m];
+                        si[l] = si[m];
+                        index[l] = index[m];
+                        continue;
+                    }
+                    if (save) {
+                        sr[l] = x;
+                        si[l] = y;
+                    }
+                    if (square) {
+                        zr[l] = x*x - y*y + cr[l];
+                        zi[l] = 2*x*y + ci[l];
+                    } else {
+                        this.power(l, x, y, integer);
+                    }
+                    l++;
+                }
+                steps += m;
+            }
+            return steps;
+        }
+
+        /** Steps lane <i>l</i> for an exponent other than 2. */
+        private void power(int l, double x, double y, boolean integer) {
+            double k = exponent;
+            if (integer) {
+                ComplexFunctions.integerPower(x, y, (int) k, this.out);
+            } else {
+                ComplexFunctions.power(x, y, k, 0, this.out);
+            }
+            this.zr[l] = this.out[0] + this.cr[l];
+            this.zi[l] = this.out[1] + this.ci[l];
+        }
+
+        /** Stores the results of lane <i>l</i>, stopped at iteration <i>n</i> with <i>zₙ = x + yi</i>. */
+        private void finish(int l, int n, double x, double y, int[] iterations, double[] smooth) {
+            boolean escaped = !(x*x + y*y <= bailout * bailout);
+            iterations[this.index[l]] = escaped ? n : maxIterations;
+            if (smooth != null) {
+                // log |zₙ| / log bailout is about in [1, k) at the first escape, so this is about in (n - 1, n];
+                // a large k can overflow zₙ itself, and the ratio is then held at k
+                double ratio = Math.log(Math.hypot(x, y)) / Math.log(bailout);
+                if (!(ratio < exponent))
+                    ratio = exponent;
+                smooth[this.index[l]] = escaped ? n - Math.log(ratio) / Math.log(exponent) : maxIterations;
+            }
+        }
+    }
+
+    private static int checkLengths(ComplexArray points, int[] iterations, double[] smooth) {
+        int n = points.length();
+        if (iterations.length != n || (smooth != null && smooth.length != n))
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + iterations.length
+                    + (smooth != null ? ", " + smooth.length : ""));
+        return n;
+    }
+
+    private static void checkRange(int n, int from, int to) {
+        if (from < 0 || from > to || to > n)
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for length " + n);
+    }
+}
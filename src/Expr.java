@@ -0,0 +1,397 @@
+/**
+ * A lazily evaluated complex expression, such as
+ * {@code Expr.of(z).times(w).plus(v).pow(2)}. Building an expression performs
+ * no arithmetic. Each node is planned when it is created: sums and
+ * differences work in rectangular form, products and quotients in whichever
+ * form both operands already share, real powers in polar form, and small
+ * integer powers of rectangular values by repeated multiplication. A value is
+ * converted between forms only where its consumer needs the other one, and
+ * intermediate results are never materialized as objects.
+ *
+ * Only {@link #toRectangular()} and {@link #toPolar()} evaluate the
+ * expression. Expressions are immutable and may be evaluated any number of
+ * times, from any thread.
+ */
+public abstract class Expr {
+
+    /** The representation a node computes its value in. */
+    enum Form { RECTANGULAR, POLAR }
+
+    final Form form;
+
+    Expr(Form form) {
+        this.form = form;
+    }
+
+    /**
+     * Computes the value of this node in its own form into <i>out</i>:
+     * the real and imaginary parts, or the modulus and phase.
+     */
+    abstract void evaluate(double[] out);
+
+    /** Returns the number of conversions between forms made by evaluating this node. */
+    abstract int conversions();
+
+    /** Computes the value in rectangular form, converting if needed. */
+    final void rectangular(double[] out) {
+        this.evaluate(out);
+        if (this.form == Form.POLAR) {
+            double r = out[0], theta = out[1];
+            out[0] = r * Math.cos(theta);
+            out[1] = r * Math.sin(theta);
+        }
+    }
+
+    /**
+     * Computes the value in polar form, converting if needed. The polar
+     * nodes add and negate phases freely, so the phase is brought back into
+     * <i>[-π, π]</i> here, before a power scales it onto another branch.
+     */
+    final void polar(double[] out) {
+        this.evaluate(out);
+        if (this.form == Form.RECTANGULAR) {
+            double x = out[0], y = out[1];
+            out[0] = ComplexMeasure.modulus(x, y);
+            out[1] = Math.atan2(y, x);
+        } else {
+            out[1] = Polar.normalize(out[1]);
+        }
+    }
+
+    final int conversionsTo(Form form) {
+        return this.conversions() + (this.form == form ? 0 : 1);
+    }
+
+    public static Expr of(Rectangular z) {
+        return new Leaf(Form.RECTANGULAR, z.real(), z.imag());
+    }
+
+    public static Expr of(Polar z) {
+        // a negative radius is the number at the opposite phase
+        return new Leaf(Form.POLAR, z.modulus(), z.argument());
+    }
+
+    public static Expr of(ComplexNumber z) {
+        if (z instanceof Polar)
+            return of((Polar) z);
+        return new Leaf(Form.RECTANGULAR, z.real(), z.imag());
+    }
+
+    public static Expr of(double x) {
+        return new Leaf(Form.RECTANGULAR, x, 0);
+    }
+
+    public Expr plus(Expr b) {
+        return new Sum(this, b, false);
+    }
+
+    public Expr plus(ComplexNumber b) {
+        return this.plus(of(b));
+    }
+
+    public Expr plus(double b) {
+        return this.plus(of(b));
+    }
+
+    public Expr minus(Expr b) {
+        return new Sum(this, b, true);
+    }
+
+    public Expr minus(ComplexNumber b) {
+        return this.minus(of(b));
+    }
+
+    public Expr minus(double b) {
+        return this.minus(of(b));
+    }
+
+    public Expr times(Expr b) {
+        return new Product(this, b, false);
+    }
+
+    public Expr times(ComplexNumber b) {
+        return this.times(of(b));
+    }
+
+    public Expr times(double b) {
+        return new Scale(this, b);
+    }
+
+    public Expr divide(Expr b) {
+        return new Product(this, b, true);
+    }
+
+    public Expr divide(ComplexNumber b) {
+        return this.divide(of(b));
+    }
+
+    public Expr divide(double b) {
+        return new Scale(this, 1 / b);
+    }
+
+    /**
+     * Raises this expression to a real power. Integer exponents up to
+     * {@value IntegerPower#MAX} of a rectangular value are computed by
+     * repeated multiplication, without trigonometry.
+     *
+     * @param   b   a real number.
+     * @return  the expression <i>this ^ b</i>.
+     */
+    public Expr pow(double b) {
+        if (this.form == Form.RECTANGULAR && b == Math.rint(b) && Math.abs(b) <= IntegerPower.MAX)
+            return new IntegerPower(this, (int) b);
+        return new RealPower(this, b);
+    }
+
+    public Expr pow(Expr b) {
+        return new ComplexPower(this, b);
+    }
+
+    public Expr pow(ComplexNumber b) {
+        return this.pow(of(b));
+    }
+
+    public Expr conjugate() {
+        return new Conjugate(this);
+    }
+
+    /**
+     * Evaluates the expression.
+     * @return  the value as a complex number in rectangular form.
+     */
+    public Rectangular toRectangular() {
+        double[] out = new double[2];
+        this.rectangular(out);
+        return new Rectangular(out[0], out[1]);
+    }
+
+    /**
+     * Evaluates the expression.
+     * @return  the value as a complex number in polar form.
+     */
+    public Polar toPolar() {
+        double[] out = new double[2];
+        this.polar(out);
+        return new Polar(out[0], out[1]);
+    }
+
+    /**
+     * Evaluates the expression into a mutable accumulator, allocating nothing.
+     *
+     * @param   dst     the number receiving the value.
+     * @param   scratch an array of at least two elements, overwritten.
+     *
+     * @return  <i>dst</i>.
+     */
+    public MutableRectangular evaluateInto(MutableRectangular dst, double[] scratch) {
+        this.rectangular(scratch);
+        return dst.set(scratch[0], scratch[1]);
+    }
+
+    /**
+     * Returns the number of conversions between rectangular and polar form
+     * that evaluating this expression to rectangular form performs.
+     * @return  the number of conversions in the plan.
+     */
+    public int plannedConversions() {
+        return this.conversionsTo(Form.RECTANGULAR);
+    }
+
+    private static final class Leaf extends Expr {
+        private final double a, b;
+
+        Leaf(Form form, double a, double b) {
+            super(form);
+            this.a = a;
+            this.b = b;
+        }
+
+        void evaluate(double[] out) {
+            out[0] = this.a;
+            out[1] = this.b;
+        }
+
+        int conversions() {
+            return 0;
+        }
+    }
+
+    private static final class Sum extends Expr {
+        private final Expr left, right;
+        private final boolean subtract;
+
+        Sum(Expr left, Expr right, boolean subtract) {
+            super(Form.RECTANGULAR);
+            this.left = left;
+            this.right = right;
+            this.subtract = subtract;
+        }
+
+        void evaluate(double[] out) {
+            this.left.rectangular(out);
+            double x = out[0], y = out[1];
+            this.right.rectangular(out);
+            if (this.subtract) {
+                out[0] = x - out[0];
+                out[1] = y - out[1];
+            } else {
+                out[0] += x;
+                out[1] += y;
+            }
+        }
+
+        int conversions() {
+            return this.left.conversionsTo(Form.RECTANGULAR) + this.right.conversionsTo(Form.RECTANGULAR);
+        }
+    }
+
+    private static final class Product extends Expr {
+        private final Expr left, right;
+        private final boolean divide;
+
+        Product(Expr left, Expr right, boolean divide) {
+            // polar only if no operand has to be converted to it
+            super(left.form == Form.POLAR && right.form == Form.POLAR ? Form.POLAR : Form.RECTANGULAR);
+            this.left = left;
+            this.right = right;
+            this.divide = divide;
+        }
+
+        void evaluate(double[] out) {
+            if (this.form == Form.POLAR) {
+                this.left.evaluate(out);
+                double r = out[0], theta = out[1];
+                this.right.evaluate(out);
+                out[0] = this.divide ? r / out[0] : r * out[0];
+                out[1] = this.divide ? theta - out[1] : theta + out[1];
+                return;
+            }
+            this.left.rectangular(out);
+            double x = out[0], y = out[1];
+            this.right.rectangular(out);
+            double u = out[0], v = out[1];
+            if (this.divide) {
+                ComplexFunctions.divide(x, y, u, v, out);
+            } else {
+                out[0] = x*u - y*v;
+                out[1] = x*v + y*u;
+            }
+        }
+
+        int conversions() {
+            return this.left.conversionsTo(this.form) + this.right.conversionsTo(this.form);
+        }
+    }
+
+    private static final class Scale extends Expr {
+        private final Expr operand;
+        private final double factor;
+
+        Scale(Expr operand, double factor) {
+            super(operand.form);
+            this.operand = operand;
+            this.factor = factor;
+        }
+
+        void evaluate(double[] out) {
+            this.operand.evaluate(out);
+            if (this.form == Form.POLAR) {
+                // keep the modulus non-negative
+                out[0] *= Math.abs(this.factor);
+                if (this.factor < 0)
+                    out[1] += Math.PI;
+            } else {
+                out[0] *= this.factor;
+                out[1] *= this.factor;
+            }
+        }
+
+        int conversions() {
+            return this.operand.conversions();
+        }
+    }
+
+    private static final class Conjugate extends Expr {
+        private final Expr operand;
+
+        Conjugate(Expr operand) {
+            super(operand.form);
+            this.operand = operand;
+        }
+
+        void evaluate(double[] out) {
+            this.operand.evaluate(out);
+            out[1] = -out[1];
+        }
+
+        int conversions() {
+            return this.operand.conversions();
+        }
+    }
+
+    private static final class IntegerPower extends Expr {
+        static final int MAX = ComplexFunctions.MAX_INTEGER_EXPONENT;
+
+        private final Expr base;
+        private final int exponent;
+
+        IntegerPower(Expr base, int exponent) {
+            super(Form.RECTANGULAR);
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        void evaluate(double[] out) {
+            this.base.rectangular(out);
+            ComplexFunctions.integerPower(out[0], out[1], this.exponent, out);
+        }
+
+        int conversions() {
+            return this.base.conversionsTo(Form.RECTANGULAR);
+        }
+    }
+
+    private static final class RealPower extends Expr {
+        private final Expr base;
+        private final double exponent;
+
+        RealPower(Expr base, double exponent) {
+            super(Form.POLAR);
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        void evaluate(double[] out) {
+            this.base.polar(out);
+            out[0] = Math.pow(out[0], this.exponent);
+            out[1] *= this.exponent;
+        }
+
+        int conversions() {
+            return this.base.conversionsTo(Form.POLAR);
+        }
+    }
+
+    private static final class ComplexPower extends Expr {
+        private final Expr base, exponent;
+
+        ComplexPower(Expr base, Expr exponent) {
+            super(Form.POLAR);
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        void evaluate(double[] out) {
+            this.base.polar(out);
+            double log = Math.log(out[0]), phase = out[1];
+            this.exponent.rectangular(out);
+            double c = out[0], d = out[1];
+            out[0] = Math.exp(c*log - d*phase);
+            out[1] = c*phase + d*log;
+        }
+
+        int conversions() {
+            return this.base.conversionsTo(Form.POLAR) + this.exponent.conversionsTo(Form.RECTANGULAR);
+        }
+    }
+}
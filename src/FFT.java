@@ -0,0 +1,261 @@
+import java.util.Arrays;
+
+/**
+ * A discrete Fourier transform of a fixed length, computed in place on
+ * primitive arrays of real and imaginary parts. Powers of two use an
+ * iterative radix-2 algorithm; other lengths are reduced to a power-of-two
+ * convolution with Bluestein's algorithm. Twiddle factors are taken from the
+ * shared {@link UnitRoots} cache when the transform is created.
+ *
+ * The forward transform computes <i>X[k] = Σ x[j] e^(-2πijk/n)</i> and the
+ * inverse divides by <i>n</i>, so that one undoes the other. Instances hold
+ * scratch buffers and must not be shared between threads.
+ */
+public class FFT {
+    private final int n;
+
+    // radix-2 tables, for power-of-two lengths
+    private final int[] reversed;
+    private final UnitRoots.Table roots;
+
+    // Bluestein's algorithm, for any other length
+    private final FFT convolution;
+    private final double[] chirpRe, chirpIm;
+    private final double[] kernelRe, kernelIm;
+    private final double[] workRe, workIm;
+
+    // real-input transforms, through a complex transform of half the length
+    private FFT half;
+    private double[] halfRe, halfIm;
+    private UnitRoots.Table halfRoots;
+
+    public FFT(int n) {
+        if (n < 1)
+            throw new IllegalArgumentException("length must be positive: " + n);
+        this.n = n;
+        if (isPowerOfTwo(n)) {
+            this.reversed = bitReversal(n);
+            this.roots = UnitRoots.shared().table(n);
+            this.convolution = null;
+            this.chirpRe = this.chirpIm = this.kernelRe = this.kernelIm = this.workRe = this.workIm = null;
+        } else {
+            int m = Integer.highestOneBit(2*n - 1) << 1;
+            this.convolution = new FFT(m);
+            this.chirpRe = new double[n];
+            this.chirpIm = new double[n];
+            UnitRoots.Table chirp = UnitRoots.shared().table(2*n);
+            for (int k = 0; k < n; k++) {
+                // e^(-πik²/n) is the (k² mod 2n)-th of the 2n-th roots of unity, conjugated
+                int j = (int) ((long) k * k % (2L * n));
+                this.chirpRe[k] = chirp.cos[j];
+                this.chirpIm[k] = -chirp.sin[j];
+            }
+            this.kernelRe = new double[m];
+            this.kernelIm = new double[m];
+            this.kernelRe[0] = this.chirpRe[0];
+            this.kernelIm[0] = -this.chirpIm[0];
+            for (int k = 1; k < n; k++) {
+                this.kernelRe[k] = this.kernelRe[m - k] = this.chirpRe[k];
+                this.kernelIm[k] = this.kernelIm[m - k] = -this.chirpIm[k];
+            }
+            this.convolution.transform(this.kernelRe, this.kernelIm);
+            this.workRe = new double[m];
+            this.workIm = new double[m];
+            this.reversed = null;
+            this.roots = null;
+        }
+    }
+
+    public int length() {
+        return this.n;
+    }
+
+    /**
+     * Replaces the arrays with their forward transform.
+     *
+     * @param   re  the real parts, of the transform's length.
+     * @param   im  the imaginary parts, of the transform's length.
+     */
+    public void transform(double[] re, double[] im) {
+        checkLength(re.length);
+        checkLength(im.length);
+        if (this.convolution == null)
+            this.radix2(re, im);
+        else
+            this.bluestein(re, im);
+    }
+
+    /**
+     * Replaces the arrays with their inverse transform, scaled by <i>1/n</i>.
+     *
+     * @param   re  the real parts, of the transform's length.
+     * @param   im  the imaginary parts, of the transform's length.
+     */
+    public void inverse(double[] re, double[] im) {
+        checkLength(im.length);
+        for (int i = 0; i < this.n; i++)
+            im[i] = -im[i];
+        this.transform(re, im);
+        double scale = 1.0 / this.n;
+        for (int i = 0; i < this.n; i++) {
+            re[i] *= scale;
+            im[i] *= -scale;
+        }
+    }
+
+    public void transform(ComplexArray a) {
+        this.transform(a.re(), a.im());
+    }
+
+    public void inverse(ComplexArray a) {
+        this.inverse(a.re(), a.im());
+    }
+
+    /**
+     * Returns the forward transform of the given complex numbers.
+     *
+     * @param   x   complex numbers in rectangular form, of the transform's length.
+     *
+     * @return  the transform as complex numbers in rectangular form.
+     */
+    public Rectangular[] transform(Rectangular[] x) {
+        ComplexArray a = ComplexArray.fromArray(x);
+        this.transform(a);
+        return a.toArray();
+    }
+
+    /**
+     * Returns the inverse transform of the given complex numbers.
+     *
+     * @param   x   complex numbers in rectangular form, of the transform's length.
+     *
+     * @return  the inverse transform as complex numbers in rectangular form.
+     */
+    public Rectangular[] inverse(Rectangular[] x) {
+        ComplexArray a = ComplexArray.fromArray(x);
+        this.inverse(a);
+        return a.toArray();
+    }
+
+    /**
+     * Computes the forward transform of a real sequence. Since the transform
+     * of real input is conjugate-symmetric, only the bins <i>0</i> to
+     * <i>n/2</i> are stored. For even lengths the work is done by a complex
+     * transform of half the length.
+     *
+     * @param   x       the real input, of the transform's length.
+     * @param   outRe   receives the real parts of bins <i>0</i> to <i>n/2</i>.
+     * @param   outIm   receives the imaginary parts of bins <i>0</i> to <i>n/2</i>.
+     */
+    public void realTransform(double[] x, double[] outRe, double[] outIm) {
+        checkLength(x.length);
+        int bins = this.n/2 + 1;
+        if (outRe.length < bins || outIm.length < bins)
+            throw new IllegalArgumentException("output arrays need " + bins + " elements");
+
+        if (this.n % 2 != 0) {
+            double[] re = x.clone(), im = new double[this.n];
+            this.transform(re, im);
+            System.arraycopy(re, 0, outRe, 0, bins);
+            System.arraycopy(im, 0, outIm, 0, bins);
+            return;
+        }
+
+        int m = this.n / 2;
+        if (this.half == null) {
+            this.half = new FFT(m);
+            this.halfRe = new double[m];
+            this.halfIm = new double[m];
+            this.halfRoots = UnitRoots.shared().table(this.n);
+        }
+        double[] zr = this.halfRe, zi = this.halfIm, cos = this.halfRoots.cos, sin = this.halfRoots.sin;
+        for (int k = 0; k < m; k++) {
+            zr[k] = x[2*k];
+            zi[k] = x[2*k + 1];
+        }
+        this.half.transform(zr, zi);
+
+        outRe[0] = zr[0] + zi[0];
+        outIm[0] = 0;
+        outRe[m] = zr[0] - zi[0];
+        outIm[m] = 0;
+        for (int k = 1; k < m; k++) {
+            double ar = zr[k], ai = zi[k], br = zr[m - k], bi = -zi[m - k];
+            double er = 0.5 * (ar + br), ei = 0.5 * (ai + bi);
+            double or = 0.5 * (ai - bi), oi = -0.5 * (ar - br);
+            double wr = cos[k], wi = -sin[k];
+            outRe[k] = er + wr*or - wi*oi;
+            outIm[k] = ei + wr*oi + wi*or;
+        }
+    }
+
+    private void radix2(double[] re, double[] im) {
+        int n = this.n;
+        int[] reversed = this.reversed;
+        for (int i = 0; i < n; i++) {
+            int j = reversed[i];
+            if (j > i) {
+                double t = re[i]; re[i] = re[j]; re[j] = t;
+                t = im[i]; im[i] = im[j]; im[j] = t;
+            }
+        }
+        double[] cos = this.roots.cos, sin = this.roots.sin;
+        for (int size = 2; size <= n; size <<= 1) {
+            int half = size >> 1, step = n / size;
+            for (int start = 0; start < n; start += size) {
+                for (int j = 0, k = 0; j < half; j++, k += step) {
+                    int p = start + j, q = p + half;
+                    double wr = cos[k], wi = -sin[k];
+                    double tr = re[q]*wr - im[q]*wi;
+                    double ti = re[q]*wi + im[q]*wr;
+                    re[q] = re[p] - tr;
+                    im[q] = im[p] - ti;
+                    re[p] += tr;
+                    im[p] += ti;
+                }
+            }
+        }
+    }
+
+    private void bluestein(double[] re, double[] im) {
+        int n = this.n;
+        double[] ar = this.workRe, ai = this.workIm, cr = this.chirpRe, ci = this.chirpIm;
+        for (int k = 0; k < n; k++) {
+            ar[k] = re[k]*cr[k] - im[k]*ci[k];
+            ai[k] = re[k]*ci[k] + im[k]*cr[k];
+        }
+        Arrays.fill(ar, n, ar.length, 0);
+        Arrays.fill(ai, n, ai.length, 0);
+
+        this.convolution.transform(ar, ai);
+        double[] kr = this.kernelRe, ki = this.kernelIm;
+        for (int k = 0; k < ar.length; k++) {
+            double x = ar[k];
+            ar[k] = x*kr[k] - ai[k]*ki[k];
+            ai[k] = x*ki[k] + ai[k]*kr[k];
+        }
+        this.convolution.inverse(ar, ai);
+
+        for (int k = 0; k < n; k++) {
+            re[k] = ar[k]*cr[k] - ai[k]*ci[k];
+            im[k] = ar[k]*ci[k] + ai[k]*cr[k];
+        }
+    }
+
+    private void checkLength(int length) {
+        if (length != this.n)
+            throw new IllegalArgumentException("expected " + this.n + " elements, got " + length);
+    }
+
+    private static boolean isPowerOfTwo(int n) {
+        return (n & (n - 1)) == 0;
+    }
+
+    private static int[] bitReversal(int n) {
+        int[] reversed = new int[n];
+        int shift = 32 - Integer.numberOfTrailingZeros(n);
+        for (int i = 0; i < n; i++)
+            reversed[i] = shift == 32 ? 0 : Integer.reverse(i) >>> shift;
+        return reversed;
+    }
+}
@@ -0,0 +1,210 @@
+/**
+ * An immutable complex number with single precision components, the
+ * scalar counterpart of {@link FloatComplexArray}. It has the operator set
+ * of {@link ComplexNumber} as statics, like {@link Complex} compares by
+ * value, and widens exactly to the double precision types.
+ *
+ * Products and sums are rounded to float at every step, as on the array
+ * path. Quotients, moduli and phases are computed in double and rounded
+ * once, which costs nothing in range: the squares of any two floats are
+ * far inside the range of a double, so no scaling is needed.
+ */
+public final class FloatComplex extends ComplexNumber {
+
+    public static final FloatComplex ZERO = new FloatComplex(0, 0);
+    public static final FloatComplex ONE = new FloatComplex(1, 0);
+    public static final FloatComplex I = new FloatComplex(0, 1);
+
+    private final float real;
+    private final float imag;
+
+    private FloatComplex(float real, float imag) {
+        ComplexMetrics.count(ComplexMetrics.Counter.ALLOCATION);
+        this.real = real;
+        this.imag = imag;
+    }
+
+    public static FloatComplex of(float real, float imag) {
+        return new FloatComplex(real, imag);
+    }
+
+    /**
+     * Returns <i>z</i> rounded to single precision.
+     * @param   z   a complex number in any form.
+     * @return  the nearest single precision complex number.
+     */
+    public static FloatComplex of(ComplexNumber z) {
+        if (z instanceof FloatComplex)
+            return (FloatComplex) z;
+        return new FloatComplex((float) z.real(), (float) z.imag());
+    }
+
+    public double real() {
+        return this.real;
+    }
+
+    public double imag() {
+        return this.imag;
+    }
+
+    public float floatReal() {
+        return this.real;
+    }
+
+    public float floatImag() {
+        return this.imag;
+    }
+
+    public double modulus() {
+        return (float) modulus(this.real, this.imag);
+    }
+
+    public double phase() {
+        return (float) Math.atan2(this.imag, this.real);
+    }
+
+    public FloatComplex conjugate() {
+        return new FloatComplex(this.real, -this.imag);
+    }
+
+    /**
+     * Returns the sum of two single precision complex numbers.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a + b</i>.
+     */
+    public static FloatComplex PlusC(FloatComplex a, FloatComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS);
+        return new FloatComplex(a.real + b.real, a.imag + b.imag);
+    }
+
+    /**
+     * Returns the difference of two single precision complex numbers.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a - b</i>.
+     */
+    public static FloatComplex MinusC(FloatComplex a, FloatComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS);
+        return new FloatComplex(a.real - b.real, a.imag - b.imag);
+    }
+
+    /**
+     * Returns the product of two single precision complex numbers.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a × b</i>.
+     */
+    public static FloatComplex TimesC(FloatComplex a, FloatComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
+        return new FloatComplex(a.real*b.real - a.imag*b.imag, a.real*b.imag + a.imag*b.real);
+    }
+
+    public static FloatComplex TimesC(FloatComplex a, float b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES);
+        return new FloatComplex(a.real * b, a.imag * b);
+    }
+
+    /**
+     * Returns the quotient of two single precision complex numbers,
+     * computed in double precision by Smith's algorithm and rounded once.
+     *
+     * @param   a   a complex number.
+     * @param   b   a complex number.
+     *
+     * @return  the value of <i>a / b</i>.
+     */
+    public static FloatComplex DivideC(FloatComplex a, FloatComplex b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        double[] out = new double[2];
+        ComplexFunctions.divide(a.real, a.imag, b.real, b.imag, out);
+        return new FloatComplex((float) out[0], (float) out[1]);
+    }
+
+    public static FloatComplex DivideC(FloatComplex a, float b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE);
+        return new FloatComplex(a.real / b, a.imag / b);
+    }
+
+    /**
+     * Raises a single precision complex number to a real power, computed in
+     * double precision as {@link ComplexNumber#power(Rectangular, double)}
+     * does and rounded once.
+     *
+     * @param   a   a complex number.
+     * @param   b   a real number.
+     *
+     * @return  the value of <i>a ^ b</i>.
+     */
+    public static FloatComplex power(FloatComplex a, double b) {
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER);
+        double[] out = new double[2];
+        if (ComplexFunctions.isSmallInteger(b))
+            ComplexFunctions.integerPower(a.real, a.imag, (int) b, out);
+        else
+            ComplexFunctions.power(a.real, a.imag, b, 0, out);
+        return new FloatComplex((float) out[0], (float) out[1]);
+    }
+
+    /**
+     * Returns the value in double precision, exactly.
+     * @return  the complex number.
+     */
+    public Complex toComplex() {
+        return Complex.of(this.real, this.imag);
+    }
+
+    public Rectangular toComplexRect() {
+        return new Rectangular(this.real, this.imag);
+    }
+
+    public Polar toComplexPolar() {
+        ComplexMetrics.count(ComplexMetrics.Counter.RECTANGULAR_TO_POLAR);
+        return new Polar(modulus(this.real, this.imag), Math.atan2(this.imag, this.real));
+    }
+
+    /**
+     * Compares the components of two numbers, identifying -0.0 with 0.0 and
+     * every NaN with every other NaN, as {@link Complex#equals} does.
+     *
+     * @param   o   an object.
+     * @return  whether <i>o</i> is a {@code FloatComplex} with the same value.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof FloatComplex))
+            return false;
+        FloatComplex z = (FloatComplex) o;
+        return bits(this.real) == bits(z.real) && bits(this.imag) == bits(z.imag);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * bits(this.real) + bits(this.imag);
+    }
+
+    private static int bits(float x) {
+        return Float.floatToIntBits(x + 0.0f);
+    }
+
+    // exact squares in double, where no float can overflow or underflow
+    static double modulus(float x, float y) {
+        ComplexMetrics.count(ComplexMetrics.Counter.SQRT);
+        return Math.sqrt((double) x*x + (double) y*y);
+    }
+
+    @Override
+    public String toString() {
+        if (imag < 0)
+            return "" + this.real + " - " + -this.imag + "i";
+        return "" + this.real + " + " + this.imag + "i";
+    }
+}
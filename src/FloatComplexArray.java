@@ -0,0 +1,441 @@
+/**
+ * An array of single precision complex numbers, the counterpart of
+ * {@link ComplexArray} for data that has no more than 24 bits of precision,
+ * such as radio samples. The real and imaginary parts are kept in two
+ * separate {@code float} arrays, half the size of the double precision
+ * layout and under a quarter of an array of {@link Rectangular} objects,
+ * so twice the elements fit in a cache and a pass over memory moves half
+ * the bytes.
+ *
+ * Samples usually arrive interleaved, as <i>re, im, re, im, ...</i> in
+ * 16 or 32 bit words; the {@code fromInterleaved} factories convert them,
+ * and the {@code Interleaved} operators work on such buffers directly, with
+ * element <i>i</i> at indices <i>2i</i> and <i>2i + 1</i>.
+ */
+public class FloatComplexArray {
+    private final float[] re;
+    private final float[] im;
+
+    /**
+     * Creates an array of <i>length</i> complex numbers, all equal to zero.
+     *
+     * @param   length  the number of elements.
+     */
+    public FloatComplexArray(int length) {
+        this(new float[length], new float[length]);
+    }
+
+    /**
+     * Creates an array backed by the given real and imaginary parts, which
+     * are not copied.
+     *
+     * @param   re  the real parts.
+     * @param   im  the imaginary parts, of the same length as <i>re</i>.
+     */
+    public FloatComplexArray(float[] re, float[] im) {
+        if (re.length != im.length)
+            throw new IllegalArgumentException("real and imaginary parts differ in length: " + re.length + " != " + im.length);
+        this.re = re;
+        this.im = im;
+    }
+
+    /**
+     * Returns the values of a double precision array, rounded to single
+     * precision.
+     *
+     * @param   a   an array of complex numbers.
+     * @return  a new array.
+     */
+    public static FloatComplexArray fromComplexArray(ComplexArray a) {
+        FloatComplexArray result = new FloatComplexArray(a.length());
+        double[] ar = a.re(), ai = a.im();
+        for (int i = 0; i < ar.length; i++) {
+            result.re[i] = (float) ar[i];
+            result.im[i] = (float) ai[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of interleaved single precision samples.
+     *
+     * @param   samples the samples, <i>re, im, re, im, ...</i>, of even length.
+     * @return  a new array.
+     */
+    public static FloatComplexArray fromInterleaved(float[] samples) {
+        FloatComplexArray result = new FloatComplexArray(checkInterleaved(samples.length));
+        for (int i = 0; i < result.re.length; i++) {
+            result.re[i] = samples[2*i];
+            result.im[i] = samples[2*i + 1];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values of interleaved 16 bit integer samples, such as the
+     * output of an analog to digital converter, multiplied by <i>scale</i>.
+     *
+     * @param   samples the samples, <i>re, im, re, im, ...</i>, of even length.
+     * @param   scale   the value of one unit, such as <i>1 / 32768</i>.
+     *
+     * @return  a new array.
+     */
+    public static FloatComplexArray fromInterleaved(short[] samples, float scale) {
+        FloatComplexArray result = new FloatComplexArray(checkInterleaved(samples.length));
+        for (int i = 0; i < result.re.length; i++) {
+            result.re[i] = samples[2*i] * scale;
+            result.im[i] = samples[2*i + 1] * scale;
+        }
+        return result;
+    }
+
+    public int length() {
+        return this.re.length;
+    }
+
+    /**
+     * Returns the backing array of real parts.
+     * @return  the real parts, not a copy.
+     */
+    public float[] re() {
+        return this.re;
+    }
+
+    /**
+     * Returns the backing array of imaginary parts.
+     * @return  the imaginary parts, not a copy.
+     */
+    public float[] im() {
+        return this.im;
+    }
+
+    public float real(int i) {
+        return this.re[i];
+    }
+
+    public float imag(int i) {
+        return this.im[i];
+    }
+
+    public FloatComplex get(int i) {
+        return FloatComplex.of(this.re[i], this.im[i]);
+    }
+
+    public void set(int i, float real, float imag) {
+        this.re[i] = real;
+        this.im[i] = imag;
+    }
+
+    /**
+     * Stores <i>z</i> rounded to single precision.
+     * @param   i   the index.
+     * @param   z   a complex number in any form.
+     */
+    public void set(int i, ComplexNumber z) {
+        this.re[i] = (float) z.real();
+        this.im[i] = (float) z.imag();
+    }
+
+    /**
+     * Returns the values in double precision, exactly.
+     * @return  a new array.
+     */
+    public ComplexArray toComplexArray() {
+        ComplexArray result = new ComplexArray(this.length());
+        double[] dr = result.re(), di = result.im();
+        for (int i = 0; i < dr.length; i++) {
+            dr[i] = this.re[i];
+            di[i] = this.im[i];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the values interleaved, <i>re, im, re, im, ...</i>.
+     * @return  a new array of twice the length.
+     */
+    public float[] toInterleaved() {
+        float[] samples = new float[2 * this.length()];
+        for (int i = 0; i < this.re.length; i++) {
+            samples[2*i] = this.re[i];
+            samples[2*i + 1] = this.im[i];
+        }
+        return samples;
+    }
+
+    /**
+     * Stores the element-wise sum of two arrays in <i>dst</i>, which may be
+     * either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a + b</i>.
+     */
+    public static void PlusC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst) {
+        PlusC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void PlusC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS, to - from);
+        float[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i] + br[i];
+            di[i] = ai[i] + bi[i];
+        }
+    }
+
+    /**
+     * Stores the element-wise difference of two arrays in <i>dst</i>, which
+     * may be either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a - b</i>.
+     */
+    public static void MinusC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst) {
+        MinusC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void MinusC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS, to - from);
+        float[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i] - br[i];
+            di[i] = ai[i] - bi[i];
+        }
+    }
+
+    /**
+     * Stores the element-wise product of two arrays in <i>dst</i>, which may
+     * be either operand.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a × b</i>.
+     */
+    public static void TimesC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst) {
+        TimesC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void TimesC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES, to - from);
+        float[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            float x = ar[i], y = ai[i], u = br[i], v = bi[i];
+            dr[i] = x*u - y*v;
+            di[i] = x*v + y*u;
+        }
+    }
+
+    /**
+     * Stores the element-wise quotient of two arrays in <i>dst</i>, which may
+     * be either operand. Each quotient is computed in double precision, by
+     * the same Smith's algorithm as {@link ComplexArray#DivideC}, and rounded
+     * once, so zero and infinite divisors give what the double arrays give.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers.
+     * @param   dst the array receiving <i>a / b</i>.
+     */
+    public static void DivideC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst) {
+        DivideC(a, b, dst, 0, checkLengths(a, b, dst));
+    }
+
+    public static void DivideC(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.DIVIDE, to - from);
+        float[] ar = a.re, ai = a.im, br = b.re, bi = b.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.divide(ar[i], ai[i], br[i], bi[i], out);
+            dr[i] = (float) out[0];
+            di[i] = (float) out[1];
+        }
+    }
+
+    public static void conjugate(FloatComplexArray a, FloatComplexArray dst) {
+        conjugate(a, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void conjugate(FloatComplexArray a, FloatComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        float[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i];
+            di[i] = -ai[i];
+        }
+    }
+
+    /**
+     * Stores the modulus of every element of <i>a</i> in <i>dst</i>.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst an array of the same length receiving the moduli.
+     */
+    public static void modulus(FloatComplexArray a, float[] dst) {
+        modulus(a, dst, 0, checkLength(a, dst));
+    }
+
+    public static void modulus(FloatComplexArray a, float[] dst, int from, int to) {
+        checkRange(checkLength(a, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.SQRT, to - from);
+        float[] ar = a.re, ai = a.im;
+        for (int i = from; i < to; i++) {
+            double x = ar[i], y = ai[i];
+            dst[i] = (float) Math.sqrt(x*x + y*y);
+        }
+    }
+
+    /**
+     * Stores the phase of every element of <i>a</i> in <i>dst</i>, in the
+     * range <i>[-π, π]</i>.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   dst an array of the same length receiving the phases.
+     */
+    public static void phase(FloatComplexArray a, float[] dst) {
+        phase(a, dst, 0, checkLength(a, dst));
+    }
+
+    public static void phase(FloatComplexArray a, float[] dst, int from, int to) {
+        checkRange(checkLength(a, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TRIG, to - from);
+        float[] ar = a.re, ai = a.im;
+        for (int i = from; i < to; i++)
+            dst[i] = (float) Math.atan2(ai[i], ar[i]);
+    }
+
+    /**
+     * Stores every element of <i>a</i> raised to the real power <i>b</i> in
+     * <i>dst</i>, which may be <i>a</i> itself, computed in double precision.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   a real number.
+     * @param   dst the array receiving <i>a ^ b</i>.
+     */
+    public static void power(FloatComplexArray a, double b, FloatComplexArray dst) {
+        power(a, b, dst, 0, checkLengths(a, a, dst));
+    }
+
+    public static void power(FloatComplexArray a, double b, FloatComplexArray dst, int from, int to) {
+        checkRange(checkLengths(a, a, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.POWER, to - from);
+        float[] ar = a.re, ai = a.im, dr = dst.re, di = dst.im;
+        double[] out = new double[2];
+        boolean integer = ComplexFunctions.isSmallInteger(b);
+        for (int i = from; i < to; i++) {
+            if (integer)
+                ComplexFunctions.integerPower(ar[i], ai[i], (int) b, out);
+            else
+                ComplexFunctions.power(ar[i], ai[i], b, 0, out);
+            dr[i] = (float) out[0];
+            di[i] = (float) out[1];
+        }
+    }
+
+    /**
+     * Stores the element-wise sum of two interleaved buffers in <i>dst</i>.
+     *
+     * @param   a       interleaved complex numbers.
+     * @param   b       interleaved complex numbers.
+     * @param   dst     the buffer receiving <i>a + b</i>.
+     * @param   from    the first element.
+     * @param   to      the element after the last.
+     */
+    public static void PlusCInterleaved(float[] a, float[] b, float[] dst, int from, int to) {
+        checkRange(checkInterleaved(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.PLUS, to - from);
+        for (int i = 2*from; i < 2*to; i++)
+            dst[i] = a[i] + b[i];
+    }
+
+    public static void MinusCInterleaved(float[] a, float[] b, float[] dst, int from, int to) {
+        checkRange(checkInterleaved(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.MINUS, to - from);
+        for (int i = 2*from; i < 2*to; i++)
+            dst[i] = a[i] - b[i];
+    }
+
+    /**
+     * Stores the element-wise product of two interleaved buffers in
+     * <i>dst</i>, which may be either operand.
+     *
+     * @param   a       interleaved complex numbers.
+     * @param   b       interleaved complex numbers.
+     * @param   dst     the buffer receiving <i>a × b</i>.
+     * @param   from    the first element.
+     * @param   to      the element after the last.
+     */
+    public static void TimesCInterleaved(float[] a, float[] b, float[] dst, int from, int to) {
+        checkRange(checkInterleaved(a, b, dst), from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.TIMES, to - from);
+        for (int i = 2*from; i < 2*to; i += 2) {
+            float x = a[i], y = a[i + 1], u = b[i], v = b[i + 1];
+            dst[i] = x*u - y*v;
+            dst[i + 1] = x*v + y*u;
+        }
+    }
+
+    public static void conjugateInterleaved(float[] a, float[] dst, int from, int to) {
+        checkRange(checkInterleaved(a, a, dst), from, to);
+        for (int i = 2*from; i < 2*to; i += 2) {
+            dst[i] = a[i];
+            dst[i + 1] = -a[i + 1];
+        }
+    }
+
+    /**
+     * Stores the modulus of every element of an interleaved buffer in
+     * <i>dst</i>, which has one entry per element.
+     *
+     * @param   a       interleaved complex numbers.
+     * @param   dst     the moduli.
+     * @param   from    the first element.
+     * @param   to      the element after the last.
+     */
+    public static void modulusInterleaved(float[] a, float[] dst, int from, int to) {
+        int n = checkInterleaved(a.length);
+        if (dst.length != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + dst.length);
+        checkRange(n, from, to);
+        ComplexMetrics.count(ComplexMetrics.Counter.SQRT, to - from);
+        for (int i = from; i < to; i++) {
+            double x = a[2*i], y = a[2*i + 1];
+            dst[i] = (float) Math.sqrt(x*x + y*y);
+        }
+    }
+
+    private static int checkLengths(FloatComplexArray a, FloatComplexArray b, FloatComplexArray dst) {
+        int n = a.length();
+        if (b.length() != n || dst.length() != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + b.length() + ", " + dst.length());
+        return n;
+    }
+
+    private static int checkLength(FloatComplexArray a, float[] dst) {
+        int n = a.length();
+        if (dst.length != n)
+            throw new IllegalArgumentException("array lengths differ: " + n + ", " + dst.length);
+        return n;
+    }
+
+    private static int checkInterleaved(int length) {
+        if (length % 2 != 0)
+            throw new IllegalArgumentException("interleaved length must be even: " + length);
+        return length / 2;
+    }
+
+    private static int checkInterleaved(float[] a, float[] b, float[] dst) {
+        if (b.length != a.length || dst.length != a.length)
+            throw new IllegalArgumentException("array lengths differ: " + a.length + ", " + b.length + ", " + dst.length);
+        return checkInterleaved(a.length);
+    }
+
+    private static void checkRange(int n, int from, int to) {
+        if (from < 0 || from > to || to > n)
+            throw new IndexOutOfBoundsException("range [" + from + ", " + to + ") out of bounds for length " + n);
+    }
+}
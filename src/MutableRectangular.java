@@ -0,0 +1,197 @@
+/**
+ * A complex number in rectangular form whose value can be updated in place.
+ * Intended as an accumulator for hot loops, where the static operators of
+ * {@link ComplexNumber} would allocate a new result on every step. Operands
+ * may be given in either form; a {@link Polar} operand is read through its
+ * {@code real()} and {@code imag()} components.
+ */
+public class MutableRectangular extends ComplexNumber {
+    private double real;
+    private double imag;
+
+    public MutableRectangular() {
+        this(0, 0);
+    }
+
+    public MutableRectangular(double real, double imag) {
+        ComplexMetrics.count(ComplexMetrics.Counter.ALLOCATION);
+        this.real = real;
+        this.imag = imag;
+    }
+
+    public MutableRectangular(ComplexNumber z) {
+        this(z.real(), z.imag());
+    }
+
+    public double real() {
+        return this.real;
+    }
+
+    public double imag() {
+        return this.imag;
+    }
+
+    public double phase() {
+        return ComplexMeasure.phase(this.real, this.imag);
+    }
+
+    public double modulus() {
+        return ComplexMeasure.modulus(this.real, this.imag);
+    }
+
+    public MutableRectangular conjugate() {
+        return new MutableRectangular(this.real, -this.imag);
+    }
+
+    public MutableRectangular set(double real, double imag) {
+        this.real = real;
+        this.imag = imag;
+        return this;
+    }
+
+    public MutableRectangular set(ComplexNumber z) {
+        return this.set(z.real(), z.imag());
+    }
+
+    /**
+     * Replaces the value with <i>this + b</i>.
+     * @param   b   a complex number in either form.
+     * @return  this number.
+     */
+    public MutableRectangular addInPlace(ComplexNumber b) {
+        this.real += b.real();
+        this.imag += b.imag();
+        return this;
+    }
+
+    /**
+     * Replaces the value with <i>this + b</i>.
+     * @param   b   a real number.
+     * @return  this number.
+     */
+    public MutableRectangular addInPlace(double b) {
+        this.real += b;
+        return this;
+    }
+
+    /**
+     * Replaces the value with <i>this - b</i>.
+     * @param   b   a complex number in either form.
+     * @return  this number.
+     */
+    public MutableRectangular subInPlace(ComplexNumber b) {
+        this.real -= b.real();
+        this.imag -= b.imag();
+        return this;
+    }
+
+    /**
+     * Replaces the value with <i>this × b</i>.
+     * @param   b   a complex number in either form.
+     * @return  this number.
+     */
+    public MutableRectangular mulInPlace(ComplexNumber b) {
+        return this.mulInPlace(b.real(), b.imag());
+    }
+
+    /**
+     * Replaces the value with <i>this × b</i>.
+     * @param   b   a real number.
+     * @return  this number.
+     */
+    public MutableRectangular mulInPlace(double b) {
+        this.real *= b;
+        this.imag *= b;
+        return this;
+    }
+
+    private MutableRectangular mulInPlace(double u, double v) {
+        double x = this.real;
+        this.real = x*u - this.imag*v;
+        this.imag = x*v + this.imag*u;
+        return this;
+    }
+
+    /**
+     * Replaces the value with <i>this + a × b</i>, the multiply-accumulate
+     * step of a dot product or convolution.
+     *
+     * @param   a   a complex number in either form.
+     * @param   b   a complex number in either form.
+     *
+     * @return  this number.
+     */
+    public MutableRectangular fma(ComplexNumber a, ComplexNumber b) {
+        double x = a.real(), y = a.imag(), u = b.real(), v = b.imag();
+        this.real += x*u - y*v;
+        this.imag += x*v + y*u;
+        return this;
+    }
+
+    /**
+     * Replaces the value with <i>this × z + c</i>, one step of Horner's
+     * scheme for evaluating a polynomial at <i>z</i>.
+     *
+     * @param   z   a complex number in either form.
+     * @param   c   a complex number in either form.
+     *
+     * @return  this number.
+     */
+    public MutableRectangular mulAddInPlace(ComplexNumber z, ComplexNumber c) {
+        this.mulInPlace(z.real(), z.imag());
+        this.real += c.real();
+        this.imag += c.imag();
+        return this;
+    }
+
+    /**
+     * Replaces the value with <i>this / b</i>.
+     * @param   b   a complex number in either form.
+     * @return  this number.
+     */
+    public MutableRectangular divInPlace(ComplexNumber b) {
+        // Smith's algorithm, as in ComplexFunctions.divide, inlined so the step allocates no output array
+        double x = this.real, y = this.imag, u = b.real(), v = b.imag();
+        if (Math.abs(u) >= Math.abs(v)) {
+            double r = v / u, d = u + v*r;
+            this.real = (x + y*r) / d;
+            this.imag = (y - x*r) / d;
+        } else {
+            double r = u / v, d = v + u*r;
+            this.real = (x*r + y) / d;
+            this.imag = (y*r - x) / d;
+        }
+        return this;
+    }
+
+    /**
+     * Replaces the value with <i>this / b</i>.
+     * @param   b   a real number.
+     * @return  this number.
+     */
+    public MutableRectangular divInPlace(double b) {
+        this.real /= b;
+        this.imag /= b;
+        return this;
+    }
+
+    /**
+     * Returns an immutable copy of the current value.
+     * @return  the complex number in rectangular form.
+     */
+    public Rectangular toComplexRect() {
+        return new Rectangular(this.real, this.imag);
+    }
+
+    public Polar toComplexPolar() {
+        ComplexMetrics.count(ComplexMetrics.Counter.RECTANGULAR_TO_POLAR);
+        return new Polar(this.modulus(), this.phase());
+    }
+
+    @Override
+    public String toString() {
+        if (imag < 0)
+            return "" + this.real + " - " + -this.imag + "i";
+        return "" + this.real + " + " + this.imag + "i";
+    }
+}
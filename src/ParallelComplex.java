@@ -0,0 +1,337 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs the bulk operations of {@link ComplexArray} and reductions over
+ * complex arrays in parallel on a {@link ForkJoinPool}. Ranges are halved
+ * until they are no longer than the threshold, and each piece is handled by
+ * the sequential range kernels.
+ *
+ * The pieces of a reduction depend only on the array length and the
+ * threshold, and partial results are always combined in the same order, so
+ * a reduction gives bit-for-bit the same result whatever the number of
+ * threads or how the work is scheduled.
+ */
+public class ParallelComplex {
+
+    public static final int DEFAULT_THRESHOLD = 1 << 14;
+
+    private static final ParallelComplex COMMON = new ParallelComplex(ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    /**
+     * Creates an executor for the given pool.
+     *
+     * @param   pool        the pool running the tasks.
+     * @param   threshold   the length below which ranges are not split further.
+     */
+    public ParallelComplex(ForkJoinPool pool, int threshold) {
+        if (threshold < 1)
+            throw new IllegalArgumentException("threshold must be positive: " + threshold);
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Returns an executor for the common pool with the default threshold.
+     * @return  the shared executor.
+     */
+    public static ParallelComplex common() {
+        return COMMON;
+    }
+
+    public ForkJoinPool pool() {
+        return this.pool;
+    }
+
+    public int threshold() {
+        return this.threshold;
+    }
+
+    interface RangeKernel {
+        void apply(int from, int to);
+    }
+
+    private interface RangeReduction {
+        /** Reduces the range into <i>out</i>, which holds the real and imaginary parts. */
+        void apply(int from, int to, double[] out);
+    }
+
+    private interface Combiner {
+        /** Combines <i>right</i> into <i>left</i>. */
+        void apply(double[] left, double[] right);
+    }
+
+    private class ForEach extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeKernel kernel;
+        private final int from, to;
+
+        ForEach(RangeKernel kernel, int from, int to) {
+            this.kernel = kernel;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= threshold) {
+                this.kernel.apply(this.from, this.to);
+                return;
+            }
+            int mid = (this.from + this.to) >>> 1;
+            invokeAll(new ForEach(this.kernel, this.from, mid), new ForEach(this.kernel, mid, this.to));
+        }
+    }
+
+    private class Reduce extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final RangeReduction reduction;
+        private final Combiner combiner;
+        private final int from, to;
+
+        Reduce(RangeReduction reduction, Combiner combiner, int from, int to) {
+            this.reduction = reduction;
+            this.combiner = combiner;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (this.to - this.from <= threshold) {
+                double[] out = new double[2];
+                this.reduction.apply(this.from, this.to, out);
+                return out;
+            }
+            int mid = (this.from + this.to) >>> 1;
+            Reduce left = new Reduce(this.reduction, this.combiner, this.from, mid);
+            Reduce right = new Reduce(this.reduction, this.combiner, mid, this.to);
+            right.fork();
+            double[] result = left.compute();
+            this.combiner.apply(result, right.join());
+            return result;
+        }
+    }
+
+    void forEach(int n, RangeKernel kernel) {
+        if (n <= this.threshold)
+            kernel.apply(0, n);
+        else
+            this.pool.invoke(new ForEach(kernel, 0, n));
+    }
+
+    private double[] reduce(int n, RangeReduction reduction, Combiner combiner) {
+        Reduce task = new Reduce(reduction, combiner, 0, n);
+        return n <= this.threshold ? task.compute() : this.pool.invoke(task);
+    }
+
+    private static int length(ComplexArray a, ComplexArray b) {
+        if (a.length() != b.length())
+            throw new IllegalArgumentException("array lengths differ: " + a.length() + ", " + b.length());
+        return a.length();
+    }
+
+    public void PlusC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        this.forEach(length(a, b), (from, to) -> ComplexArray.PlusC(a, b, dst, from, to));
+    }
+
+    public void MinusC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        this.forEach(length(a, b), (from, to) -> ComplexArray.MinusC(a, b, dst, from, to));
+    }
+
+    public void TimesC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        this.forEach(length(a, b), (from, to) -> ComplexArray.TimesC(a, b, dst, from, to));
+    }
+
+    public void DivideC(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        this.forEach(length(a, b), (from, to) -> ComplexArray.DivideC(a, b, dst, from, to));
+    }
+
+    public void conjugate(ComplexArray a, ComplexArray dst) {
+        this.forEach(a.length(), (from, to) -> ComplexArray.conjugate(a, dst, from, to));
+    }
+
+    public void modulus(ComplexArray a, double[] dst) {
+        this.forEach(a.length(), (from, to) -> ComplexArray.modulus(a, dst, from, to));
+    }
+
+    public void phase(ComplexArray a, double[] dst) {
+        this.forEach(a.length(), (from, to) -> ComplexArray.phase(a, dst, from, to));
+    }
+
+    public void power(ComplexArray a, double b, ComplexArray dst) {
+        this.forEach(a.length(), (from, to) -> ComplexArray.power(a, b, dst, from, to));
+    }
+
+    public void power(ComplexArray a, ComplexArray b, ComplexArray dst) {
+        this.forEach(length(a, b), (from, to) -> ComplexArray.power(a, b, dst, from, to));
+    }
+
+    /**
+     * Evaluates a polynomial at every point of an array.
+     *
+     * @param   p   the polynomial.
+     * @param   z   the points.
+     * @param   dst the array receiving the values, which may be <i>z</i>.
+     */
+    public void evaluate(ComplexPolynomial p, ComplexArray z, ComplexArray dst) {
+        // the cost of a point grows with the degree, so split into proportionally shorter ranges,
+        // but keep enough points in each for the batched kernel
+        int grain = Math.max(64, this.threshold / (p.degree() + 1));
+        int n = length(z, dst);
+        if (n <= grain)
+            p.evaluate(z, dst, 0, n);
+        else
+            new ParallelComplex(this.pool, grain).forEach(n, (from, to) -> p.evaluate(z, dst, from, to));
+    }
+
+    /**
+     * Stores the matrix product <i>a × b</i> in <i>dst</i>, computing blocks
+     * of rows in parallel. The result is bit-for-bit that of
+     * {@link ComplexMatrix#multiply(ComplexMatrix, ComplexMatrix, ComplexMatrix)}.
+     *
+     * @param   a   a matrix.
+     * @param   b   a matrix with as many rows as <i>a</i> has columns.
+     * @param   dst the matrix receiving the product, distinct from <i>a</i> and <i>b</i>.
+     */
+    public void multiply(ComplexMatrix a, ComplexMatrix b, ComplexMatrix dst) {
+        ComplexMatrix.checkProduct(a, b, dst);
+        long work = Math.max(1L, (long) a.cols() * b.cols());
+        int grain = (int) Math.max(1, this.threshold / work);
+        if (a.rows() <= grain)
+            ComplexMatrix.multiplyRows(a, b, dst, 0, a.rows());
+        else
+            new ParallelComplex(this.pool, grain).forEach(a.rows(), (from, to) -> ComplexMatrix.multiplyRows(a, b, dst, from, to));
+    }
+
+    // sums of squares inside these bounds are taken unscaled: no square that underflowed
+    // reaches an ulp of them, and adding such sums cannot overflow
+    private static final double SUM_MIN = 0x1p-960;
+    private static final double SUM_MAX = 0x1p960;
+
+    private static final Combiner ADD = (left, right) -> {
+        left[0] += right[0];
+        left[1] += right[1];
+    };
+
+    private static final Combiner MULTIPLY = (left, right) -> {
+        double x = left[0];
+        left[0] = x*right[0] - left[1]*right[1];
+        left[1] = x*right[1] + left[1]*right[0];
+    };
+
+    /** Adds sums of squares held as an exponent e in [0] and a sum scaled by 2^(-2e) in [1]. */
+    private static final Combiner SCALED_ADD = (left, right) -> {
+        int l = (int) left[0], r = (int) right[0], e = Math.max(l, r);
+        left[0] = e;
+        left[1] = Math.scalb(left[1], 2*(l - e)) + Math.scalb(right[1], 2*(r - e));
+    };
+
+    /**
+     * Returns the sum of the elements.
+     * @param   a   an array of complex numbers.
+     * @return  the sum as a complex number in rectangular form.
+     */
+    public Rectangular sum(ComplexArray a) {
+        double[] re = a.re(), im = a.im();
+        double[] s = this.reduce(a.length(), (from, to, out) -> {
+            double sr = 0, si = 0;
+            for (int i = from; i < to; i++) {
+                sr += re[i];
+                si += im[i];
+            }
+            out[0] = sr;
+            out[1] = si;
+        }, ADD);
+        return new Rectangular(s[0], s[1]);
+    }
+
+    /**
+     * Returns the product of the elements; the product of no elements is one.
+     * @param   a   an array of complex numbers.
+     * @return  the product as a complex number in rectangular form.
+     */
+    public Rectangular product(ComplexArray a) {
+        double[] re = a.re(), im = a.im();
+        double[] p = this.reduce(a.length(), (from, to, out) -> {
+            double pr = 1, pi = 0;
+            for (int i = from; i < to; i++) {
+                double x = pr;
+                pr = x*re[i] - pi*im[i];
+                pi = x*im[i] + pi*re[i];
+            }
+            out[0] = pr;
+            out[1] = pi;
+        }, MULTIPLY);
+        return new Rectangular(p[0], p[1]);
+    }
+
+    /**
+     * Returns the dot product <i>Σ a[i] × b[i]</i>. For the Hermitian inner
+     * product, conjugate one of the operands first.
+     *
+     * @param   a   an array of complex numbers.
+     * @param   b   an array of complex numbers of the same length.
+     *
+     * @return  the dot product as a complex number in rectangular form.
+     */
+    public Rectangular dot(ComplexArray a, ComplexArray b) {
+        double[] ar = a.re(), ai = a.im(), br = b.re(), bi = b.im();
+        double[] s = this.reduce(length(a, b), (from, to, out) -> {
+            double sr = 0, si = 0;
+            for (int i = from; i < to; i++) {
+                sr += ar[i]*br[i] - ai[i]*bi[i];
+                si += ar[i]*bi[i] + ai[i]*br[i];
+            }
+            out[0] = sr;
+            out[1] = si;
+        }, ADD);
+        return new Rectangular(s[0], s[1]);
+    }
+
+    /**
+     * Returns the Euclidean norm <i>√(Σ |a[i]|²)</i>. A range whose sum of
+     * squares would overflow or lose precision to underflow is summed again
+     * with its elements scaled by a power of two near the largest of them,
+     * as {@link ComplexMeasure#accurateModulus(double, double)} scales the
+     * two components, so the norm is finite whenever it is representable.
+     *
+     * @param   a   an array of complex numbers.
+     * @return  the norm of <i>a</i>.
+     */
+    public double norm(ComplexArray a) {
+        double[] re = a.re(), im = a.im();
+        double[] s = this.reduce(a.length(), (from, to, out) -> {
+            double sum = 0;
+            for (int i = from; i < to; i++)
+                sum += re[i]*re[i] + im[i]*im[i];
+            out[0] = 0;
+            out[1] = sum;
+            if (sum > SUM_MIN && sum < SUM_MAX)
+                return;
+            double big = 0;
+            for (int i = from; i < to; i++)
+                big = Math.max(big, Math.max(Math.abs(re[i]), Math.abs(im[i])));
+            // all zero, or an infinity or NaN, which the plain sum already gives
+            if (!(big > 0) || big == Double.POSITIVE_INFINITY)
+                return;
+            int e = Math.getExponent(big);
+            if (e < Double.MIN_EXPONENT)
+                e = Math.getExponent(big * 0x1p54) - 54;
+            sum = 0;
+            for (int i = from; i < to; i++) {
+                double x = Math.scalb(re[i], -e), y = Math.scalb(im[i], -e);
+                sum += x*x + y*y;
+            }
+            out[0] = e;
+            out[1] = sum;
+        }, SCALED_ADD);
+        return Math.scalb(Math.sqrt(s[1]), (int) s[0]);
+    }
+}
@@ -1,28 +1,93 @@
+/**
+ * A complex number in polar form. Instances are immutable: the phase is
+ * normalized into [-π, π] once, in the constructor, and the rectangular
+ * components are a cache that is computed on first use and safely published,
+ * so a number can be shared between threads without synchronization.
+ */
 public class Polar extends ComplexNumber {
 
-    private double r;
-    private double theta;
+    // 2π as the sum of three doubles, for Cody–Waite reduction with fma
+    private static final double TWO_PI_HI = 6.283185307179586;
+    private static final double TWO_PI_MID = 2.4492935982947064e-16;
+    private static final double TWO_PI_LO = -5.989539619436679e-33;
+
+    // beyond this, multiples of 2π are no longer exact in a double, and the reduction is left to sin and cos
+    private static final double REDUCTION_LIMIT = 0x1p52;
+
+    private final double r;
+    private final double theta;
+
+    // rectangular components, computed on first use and published by the volatile flag
+    private double real;
+    private double imag;
+    private volatile boolean rectangular;
+
     public Polar(double r, double theta) {
+        ComplexMetrics.count(ComplexMetrics.Counter.ALLOCATION);
+        this.r = r;
+        this.theta = normalize(theta);
+    }
+
+    /**
+     * Creates a complex number in polar form whose rectangular components are
+     * already known, so that {@link #real()} and {@link #imag()} need no trig.
+     */
+    Polar(double r, double theta, double cos, double sin) {
+        ComplexMetrics.count(ComplexMetrics.Counter.ALLOCATION);
         this.r = r;
-        this.theta = theta;
+        this.theta = normalize(theta);
+        this.real = r*cos;
+        this.imag = r*sin;
+        this.rectangular = true;
     }
+
     public double real() {
-        if (Math.abs(Math.sin(this.theta)) == 1)
-            return 0;
-        return this.r*Math.cos(this.theta);
+        if (!this.rectangular)
+            this.computeRectangular();
+        return this.real;
     }
 
     public double imag() {
-        if (Math.abs(Math.cos(this.theta)) == 1)
-            return 0;
-        return this.r*Math.sin(this.theta);
+        if (!this.rectangular)
+            this.computeRectangular();
+        return this.imag;
+    }
+
+    private void computeRectangular() {
+        ComplexMetrics.count(ComplexMetrics.Counter.TRIG, 2);
+        double cos = Math.cos(this.theta), sin = Math.sin(this.theta);
+        this.real = Math.abs(sin) == 1 ? 0 : this.r*cos;
+        this.imag = Math.abs(cos) == 1 ? 0 : this.r*sin;
+        this.rectangular = true;
+    }
+
+    /**
+     * Reduces an angle into [-π, π], in constant time. Angles up to 2^52
+     * subtract the nearest multiple of 2π with a three-part constant, which
+     * is accurate to about an ulp of the result; larger ones use the
+     * arbitrary precision reduction inside {@link Math#sin} and {@link Math#cos}.
+     *
+     * @param   theta   an angle in radians.
+     * @return  the equivalent angle in [-π, π], or NaN if <i>theta</i> is not finite.
+     */
+    static double normalize(double theta) {
+        if (theta >= -Math.PI && theta <= Math.PI)
+            return theta;
+        if (!(Math.abs(theta) < REDUCTION_LIMIT))
+            return Double.isFinite(theta) ? Math.atan2(Math.sin(theta), Math.cos(theta)) : Double.NaN;
+        double k = Math.rint(theta / TWO_PI_HI);
+        double x = Math.fma(-k, TWO_PI_HI, theta);
+        x = Math.fma(-k, TWO_PI_MID, x);
+        x = Math.fma(-k, TWO_PI_LO, x);
+        // the quotient may round to the neighbouring multiple
+        if (x > Math.PI)
+            x -= TWO_PI_HI;
+        else if (x < -Math.PI)
+            x += TWO_PI_HI;
+        return x;
     }
 
     public double phase() {
-        if (this.theta > Math.PI)
-            while(this.theta > Math.PI) this.theta -= 2*Math.PI;
-        if (this.theta < -Math.PI)
-            while(this.theta < -Math.PI) this.theta += 2*Math.PI;
         return this.theta;
     }
 
@@ -30,6 +95,14 @@ public class Polar extends ComplexNumber {
         return Math.abs(this.r);
     }
 
+    /**
+     * Returns the argument of the number itself, in [-π, π]: the phase, or
+     * the phase turned by π when the stored radius is negative.
+     */
+    double argument() {
+        return this.r < 0 ? normalize(this.theta + (this.theta > 0 ? -Math.PI : Math.PI)) : this.theta;
+    }
+
     public Polar conjugate() {
         return new Polar(this.r, -this.theta);
     }
@@ -39,6 +112,7 @@ public class Polar extends ComplexNumber {
      * @return  the complex number in rectangular form.
      */
     public Rectangular toComplexRect() {
+        ComplexMetrics.count(ComplexMetrics.Counter.POLAR_TO_RECTANGULAR);
         return new Rectangular(this.real(), this.imag());
     }
 
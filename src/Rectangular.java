@@ -3,6 +3,7 @@ public class Rectangular extends ComplexNumber {
     private double imag;
 
     public Rectangular(double real, double imag) {
+        ComplexMetrics.count(ComplexMetrics.Counter.ALLOCATION);
         this.real = real;
         this.imag = imag;
     }
@@ -15,20 +16,21 @@ public class Rectangular extends ComplexNumber {
         return this.imag;
     }
 
+    /**
+     * Returns the phase in <i>[-π, π]</i>, in the default mode of
+     * {@link ComplexMeasure}.
+     * @return  the phase.
+     */
     public double phase() {
-        if (this.real == 0)
-            if (this.imag > 0) return Math.PI/2;
-            else if (this.imag < 0) return -Math.PI/2;
-            else return 0;
-        
-        if (this.real < 0) {
-            return Math.atan(this.imag/this.real) + this.imag/Math.abs(this.imag) * Math.PI;
-        }
-        return Math.atan(this.imag/this.real);
+        return ComplexMeasure.phase(this.real, this.imag);
     }
 
+    /**
+     * Returns the modulus, in the default mode of {@link ComplexMeasure}.
+     * @return  the modulus.
+     */
     public double modulus() {
-        return Math.sqrt(this.real*this.real + this.imag*this.imag);
+        return ComplexMeasure.modulus(this.real, this.imag);
     }
 
     public Rectangular conjugate() {
@@ -36,6 +38,7 @@ public class Rectangular extends ComplexNumber {
     }
 
     public Polar toComplexPolar() {
+        ComplexMetrics.count(ComplexMetrics.Counter.RECTANGULAR_TO_POLAR);
         return new Polar(this.modulus(), this.phase());
     }
 
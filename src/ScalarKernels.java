@@ -0,0 +1,120 @@
+/**
+ * The plain loop implementation of {@link ComplexKernels}, and the lookup of
+ * the optional SIMD implementation.
+ */
+final class ScalarKernels implements ComplexKernels {
+
+    static final ScalarKernels INSTANCE = new ScalarKernels();
+
+    static final ComplexKernels BEST = loadVectorKernels();
+
+    private ScalarKernels() {
+    }
+
+    private static ComplexKernels loadVectorKernels() {
+        if (Boolean.getBoolean("complex.kernels.scalar")
+                || !ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent())
+            return INSTANCE;
+        try {
+            return (ComplexKernels) Class.forName("VectorKernels").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return INSTANCE;
+        }
+    }
+
+    public String name() {
+        return "scalar";
+    }
+
+    public void PlusC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i] + br[i];
+            di[i] = ai[i] + bi[i];
+        }
+    }
+
+    public void MinusC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i] - br[i];
+            di[i] = ai[i] - bi[i];
+        }
+    }
+
+    public void TimesC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double x = ar[i], y = ai[i], u = br[i], v = bi[i];
+            dr[i] = x*u - y*v;
+            di[i] = x*v + y*u;
+        }
+    }
+
+    public void DivideC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        double[] out = new double[2];
+        for (int i = from; i < to; i++) {
+            ComplexFunctions.divide(ar[i], ai[i], br[i], bi[i], out);
+            dr[i] = out[0];
+            di[i] = out[1];
+        }
+    }
+
+    public void conjugate(double[] ar, double[] ai, double[] dr, double[] di, int from, int to) {
+        for (int i = from; i < to; i++) {
+            dr[i] = ar[i];
+            di[i] = -ai[i];
+        }
+    }
+
+    public void modulus(double[] ar, double[] ai, double[] dst, int from, int to) {
+        if (ComplexMeasure.defaultMode() == ComplexMeasure.Mode.FAST) {
+            for (int i = from; i < to; i++)
+                dst[i] = Math.sqrt(ar[i]*ar[i] + ai[i]*ai[i]);
+        } else {
+            for (int i = from; i < to; i++)
+                dst[i] = ComplexMeasure.accurateModulus(ar[i], ai[i]);
+        }
+    }
+
+    public void PlusCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        for (int i = 2*from; i < 2*to; i++)
+            dst[i] = a[i] + b[i];
+    }
+
+    public void MinusCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        for (int i = 2*from; i < 2*to; i++)
+            dst[i] = a[i] - b[i];
+    }
+
+    public void TimesCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        for (int i = 2*from; i < 2*to; i += 2) {
+            double x = a[i], y = a[i + 1], u = b[i], v = b[i + 1];
+            dst[i] = x*u - y*v;
+            dst[i + 1] = x*v + y*u;
+        }
+    }
+
+    public void DivideCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        double[] out = new double[2];
+        for (int i = 2*from; i < 2*to; i += 2) {
+            ComplexFunctions.divide(a[i], a[i + 1], b[i], b[i + 1], out);
+            dst[i] = out[0];
+            dst[i + 1] = out[1];
+        }
+    }
+
+    public void conjugateInterleaved(double[] a, double[] dst, int from, int to) {
+        for (int i = 2*from; i < 2*to; i += 2) {
+            dst[i] = a[i];
+            dst[i + 1] = -a[i + 1];
+        }
+    }
+
+    public void modulusInterleaved(double[] a, double[] dst, int from, int to) {
+        if (ComplexMeasure.defaultMode() == ComplexMeasure.Mode.FAST) {
+            for (int i = from; i < to; i++)
+                dst[i] = Math.sqrt(a[2*i]*a[2*i] + a[2*i + 1]*a[2*i + 1]);
+        } else {
+            for (int i = from; i < to; i++)
+                dst[i] = ComplexMeasure.accurateModulus(a[2*i], a[2*i + 1]);
+        }
+    }
+}
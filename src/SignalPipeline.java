@@ -0,0 +1,257 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A streaming pipeline of complex samples: a {@link Source} fills blocks,
+ * each {@link Stage} transforms them in turn, and a {@link Sink} consumes
+ * them. Blocks are {@link ComplexArray}s of a fixed capacity, allocated
+ * when the pipeline starts and reused for the whole stream.
+ *
+ * {@link #run(Sink)} runs every step in the calling thread, one block at a
+ * time, and allocates nothing per block. {@link #run(Sink, int)} runs the
+ * source and each stage in a thread of its own, connected by bounded queues
+ * of blocks: a step that gets ahead waits for a free block from the step
+ * after it, so a slow stage or sink holds back everything upstream instead
+ * of letting samples pile up.
+ *
+ * Stages keep state across blocks, such as filter delay lines, so a stage
+ * belongs to one pipeline and one run.
+ */
+public class SignalPipeline {
+
+    /** A producer of samples. */
+    public interface Source {
+        /**
+         * Fills the start of a block with the next samples.
+         *
+         * @param   block   the block to fill.
+         * @return  the number of samples written, at most the length of the
+         *          block, or -1 at the end of the stream.
+         */
+        int read(ComplexArray block);
+    }
+
+    /** A transformation of a block of samples. */
+    public interface Stage {
+        /**
+         * Processes the first <i>n</i> samples of <i>in</i> into <i>out</i>,
+         * which has the same length and is a different array.
+         *
+         * @param   in  the input block.
+         * @param   n   the number of valid samples in <i>in</i>.
+         * @param   out the output block.
+         *
+         * @return  the number of samples written to <i>out</i>, at most <i>n</i>.
+         */
+        int process(ComplexArray in, int n, ComplexArray out);
+    }
+
+    /** A consumer of samples. */
+    public interface Sink {
+        /**
+         * Consumes the first <i>n</i> samples of a block, which is reused
+         * once this returns.
+         *
+         * @param   block   the block.
+         * @param   n       the number of valid samples.
+         */
+        void accept(ComplexArray block, int n);
+    }
+
+    private final Source source;
+    private final int blockSize;
+    private final List<Stage> stages = new ArrayList<>();
+
+    /**
+     * Creates a pipeline reading from <i>source</i> in blocks of
+     * <i>blockSize</i> samples.
+     *
+     * @param   source      the source of samples.
+     * @param   blockSize   the capacity of every block.
+     */
+    public SignalPipeline(Source source, int blockSize) {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("block size must be positive: " + blockSize);
+        this.source = source;
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Appends a stage.
+     * @param   stage   the stage, which is not shared with other pipelines.
+     * @return  this pipeline.
+     */
+    public SignalPipeline then(Stage stage) {
+        this.stages.add(stage);
+        return this;
+    }
+
+    public int blockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Runs the pipeline in the calling thread until the source ends.
+     *
+     * @param   sink    the consumer of the output.
+     * @return  the number of samples read from the source.
+     */
+    public long run(Sink sink) {
+        int steps = this.stages.size();
+        ComplexArray[] blocks = new ComplexArray[steps + 1];
+        for (int i = 0; i <= steps; i++)
+            blocks[i] = new ComplexArray(this.blockSize);
+        long samples = 0;
+        for (int n; (n = checkCount(this.source.read(blocks[0]), "source")) >= 0; ) {
+            samples += n;
+            for (int i = 0; i < steps && n > 0; i++)
+                n = checkCount(this.stages.get(i).process(blocks[i], n, blocks[i + 1]), "stage " + i);
+            if (n > 0)
+                sink.accept(blocks[steps], n);
+        }
+        return samples;
+    }
+
+    /**
+     * Runs the source and every stage in a thread of their own, and the sink
+     * in the calling thread, until the source ends. Each connection holds at
+     * most <i>capacity</i> blocks in flight. If any step throws, the others
+     * are stopped and the exception is rethrown here.
+     *
+     * @param   sink        the consumer of the output.
+     * @param   capacity    the number of blocks per connection.
+     *
+     * @return  the number of samples read from the source.
+     */
+    public long run(Sink sink, int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        int steps = this.stages.size();
+        Link[] links = new Link[steps + 1];
+        for (int i = 0; i <= steps; i++)
+            links[i] = new Link(capacity, this.blockSize);
+
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+        Thread caller = Thread.currentThread();
+        long[] samples = new long[1];
+        threads.add(new Thread(() -> {
+            Link out = links[0];
+            try {
+                while (true) {
+                    Block b = out.free.take();
+                    b.n = checkCount(this.source.read(b.data), "source");
+                    out.full.put(b);
+                    if (b.n < 0)
+                        return;
+                    samples[0] += b.n;
+                }
+            } catch (InterruptedException e) {
+                // stopped after a failure elsewhere
+            } catch (Throwable t) {
+                fail(failure, t, threads, caller);
+            }
+        }, "signal-source"));
+        for (int i = 0; i < steps; i++) {
+            Stage stage = this.stages.get(i);
+            Link in = links[i], out = links[i + 1];
+            String name = "stage " + i;
+            threads.add(new Thread(() -> {
+                try {
+                    while (true) {
+                        Block a = in.full.take();
+                        Block b = out.free.take();
+                        b.n = a.n <= 0 ? a.n : checkCount(stage.process(a.data, a.n, b.data), name);
+                        in.free.put(a);
+                        out.full.put(b);
+                        if (b.n < 0)
+                            return;
+                    }
+                } catch (InterruptedException e) {
+                    // stopped after a failure elsewhere
+                } catch (Throwable t) {
+                    fail(failure, t, threads, caller);
+                }
+            }, "signal-" + name.replace(' ', '-')));
+        }
+
+        for (Thread t : threads) {
+            t.setDaemon(true);
+            t.start();
+        }
+        Link last = links[steps];
+        try {
+            while (true) {
+                Block b = last.full.take();
+                if (b.n < 0)
+                    break;
+                if (b.n > 0)
+                    sink.accept(b.data, b.n);
+                last.free.put(b);
+            }
+            for (Thread t : threads)
+                t.join();
+        } catch (InterruptedException e) {
+            if (failure.get() == null) {
+                for (Thread t : threads)
+                    t.interrupt();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while running the pipeline", e);
+            }
+        } catch (RuntimeException | Error e) {
+            fail(failure, e, threads, null);
+        }
+        Throwable t = failure.get();
+        if (t != null) {
+            // clear an interrupt meant only to wake this thread
+            Thread.interrupted();
+            if (t instanceof RuntimeException)
+                throw (RuntimeException) t;
+            if (t instanceof Error)
+                throw (Error) t;
+            throw new IllegalStateException(t);
+        }
+        return samples[0];
+    }
+
+    private static void fail(AtomicReference<Throwable> failure, Throwable t, List<Thread> threads, Thread caller) {
+        if (failure.compareAndSet(null, t)) {
+            for (Thread thread : threads)
+                if (thread != Thread.currentThread())
+                    thread.interrupt();
+            if (caller != null)
+                caller.interrupt();
+        }
+    }
+
+    private int checkCount(int n, String step) {
+        if (n < -1 || n > this.blockSize)
+            throw new IllegalStateException(step + " returned " + n + " samples for blocks of " + this.blockSize);
+        return n;
+    }
+
+    /** A reusable block and its number of valid samples, -1 marking the end of the stream. */
+    private static final class Block {
+        final ComplexArray data;
+        int n;
+
+        Block(int size) {
+            this.data = new ComplexArray(size);
+        }
+    }
+
+    /** The connection between two steps: blocks travel forward full and come back free. */
+    private static final class Link {
+        final ArrayBlockingQueue<Block> full;
+        final ArrayBlockingQueue<Block> free;
+
+        Link(int capacity, int blockSize) {
+            this.full = new ArrayBlockingQueue<>(capacity);
+            this.free = new ArrayBlockingQueue<>(capacity);
+            for (int i = 0; i < capacity; i++)
+                this.free.add(new Block(blockSize));
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import java.util.Arrays;
+
+/**
+ * The built-in stages of a {@link SignalPipeline}. Every factory returns a
+ * new stage with its own state, which carries over from one block to the
+ * next, so the output does not depend on where the stream is cut into
+ * blocks. No stage allocates per block.
+ */
+public final class SignalStages {
+
+    private SignalStages() {
+    }
+
+    /**
+     * Returns a stage that multiplies the stream by a rotating phasor,
+     * <i>x[n] step^n</i>, shifting its spectrum by the phase of <i>step</i>
+     * per sample. The phasor is advanced by complex multiplication and
+     * rescaled to unit modulus after every block, so it neither drifts nor
+     * needs trigonometry per sample.
+     *
+     * @param   step    the rotation per sample; only its phase is used.
+     * @return  the mixer.
+     */
+    public static SignalPipeline.Stage mixer(Polar step) {
+        double c = Math.cos(step.phase()), s = Math.sin(step.phase());
+        return new SignalPipeline.Stage() {
+            private double pr = 1, pi = 0;
+
+            public int process(ComplexArray in, int n, ComplexArray out) {
+                double[] xr = in.re(), xi = in.im(), yr = out.re(), yi = out.im();
+                double pr = this.pr, pi = this.pi;
+                for (int i = 0; i < n; i++) {
+                    yr[i] = xr[i]*pr - xi[i]*pi;
+                    yi[i] = xr[i]*pi + xi[i]*pr;
+                    double t = pr*c - pi*s;
+                    pi = pr*s + pi*c;
+                    pr = t;
+                }
+                double m = Math.hypot(pr, pi);
+                this.pr = pr / m;
+                this.pi = pi / m;
+                return n;
+            }
+        };
+    }
+
+    /**
+     * Returns a mixer shifting the stream by <i>frequency</i> cycles per
+     * sample.
+     *
+     * @param   frequency   the shift, in cycles per sample.
+     * @return  the mixer.
+     */
+    public static SignalPipeline.Stage mixer(double frequency) {
+        return mixer(new Polar(1, 2 * Math.PI * frequency));
+    }
+
+    /**
+     * Returns a finite impulse response filter, <i>y[n] = Σ h[k] x[n - k]</i>.
+     * The last <i>taps - 1</i> inputs of each block are kept for the next.
+     *
+     * @param   taps    the impulse response <i>h</i>, copied.
+     * @return  the filter.
+     */
+    public static SignalPipeline.Stage fir(ComplexArray taps) {
+        int m = taps.length();
+        if (m == 0)
+            throw new IllegalArgumentException("a filter needs at least one tap");
+        double[] hr = taps.re().clone(), hi = taps.im().clone();
+        return new SignalPipeline.Stage() {
+            // the history followed by the current block, oldest first
+            private double[] wr = new double[m - 1], wi = new double[m - 1];
+
+            public int process(ComplexArray in, int n, ComplexArray out) {
+                if (this.wr.length < m - 1 + n) {
+                    // once, on the first block of the full size
+                    this.wr = Arrays.copyOf(this.wr, m - 1 + in.length());
+                    this.wi = Arrays.copyOf(this.wi, m - 1 + in.length());
+                }
+                double[] wr = this.wr, wi = this.wi, yr = out.re(), yi = out.im();
+                System.arraycopy(in.re(), 0, wr, m - 1, n);
+                System.arraycopy(in.im(), 0, wi, m - 1, n);
+                for (int i = 0; i < n; i++) {
+                    double sr = 0, si = 0;
+                    // window w[i .. i + m - 1] against h reversed
+                    for (int k = 0, j = i + m - 1; k < m; k++, j--) {
+                        sr += hr[k]*wr[j] - hi[k]*wi[j];
+                        si += hr[k]*wi[j] + hi[k]*wr[j];
+                    }
+                    yr[i] = sr;
+                    yi[i] = si;
+                }
+                System.arraycopy(wr, n, wr, 0, m - 1);
+                System.arraycopy(wi, n, wi, 0, m - 1);
+                return n;
+            }
+        };
+    }
+
+    /**
+     * Returns a finite impulse response filter with real taps.
+     * @param   taps    the impulse response, copied.
+     * @return  the filter.
+     */
+    public static SignalPipeline.Stage fir(double[] taps) {
+        return fir(new ComplexArray(taps.clone(), new double[taps.length]));
+    }
+
+    /**
+     * Returns a biquad, the second order recursive filter
+     * <i>y[n] = b0 x[n] + b1 x[n-1] + b2 x[n-2] - a1 y[n-1] - a2 y[n-2]</i>,
+     * with real coefficients normalized so that <i>a0 = 1</i>. It is applied
+     * to the real and imaginary parts alike, in transposed direct form II.
+     * Higher orders are cascades of biquads.
+     *
+     * @param   b0  the feed-forward coefficient of <i>x[n]</i>.
+     * @param   b1  the feed-forward coefficient of <i>x[n-1]</i>.
+     * @param   b2  the feed-forward coefficient of <i>x[n-2]</i>.
+     * @param   a1  the feedback coefficient of <i>y[n-1]</i>.
+     * @param   a2  the feedback coefficient of <i>y[n-2]</i>.
+     *
+     * @return  the filter.
+     */
+    public static SignalPipeline.Stage biquad(double b0, double b1, double b2, double a1, double a2) {
+        return new SignalPipeline.Stage() {
+            private double r1, r2, i1, i2;
+
+            public int process(ComplexArray in, int n, ComplexArray out) {
+                double[] xr = in.re(), xi = in.im(), yr = out.re(), yi = out.im();
+                double r1 = this.r1, r2 = this.r2, i1 = this.i1, i2 = this.i2;
+                for (int i = 0; i < n; i++) {
+                    double x = xr[i], y = b0*x + r1;
+                    r1 = b1*x - a1*y + r2;
+                    r2 = b2*x - a2*y;
+                    yr[i] = y;
+                    x = xi[i];
+                    y = b0*x + i1;
+                    i1 = b1*x - a1*y + i2;
+                    i2 = b2*x - a2*y;
+                    yi[i] = y;
+                }
+                this.r1 = r1;
+                this.r2 = r2;
+                this.i1 = i1;
+                this.i2 = i2;
+                return n;
+            }
+        };
+    }
+
+    /**
+     * Returns a stage keeping every <i>factor</i>-th sample, counting across
+     * blocks. Nothing is filtered: put a low-pass {@link #fir} before it to
+     * avoid aliasing.
+     *
+     * @param   factor  the decimation factor.
+     * @return  the decimator.
+     */
+    public static SignalPipeline.Stage decimate(int factor) {
+        if (factor < 1)
+            throw new IllegalArgumentException("factor must be positive: " + factor);
+        return new SignalPipeline.Stage() {
+            // the index in the next block of the next sample kept
+            private int next;
+
+            public int process(ComplexArray in, int n, ComplexArray out) {
+                double[] xr = in.re(), xi = in.im(), yr = out.re(), yi = out.im();
+                int k = 0, i = this.next;
+                for (; i < n; i += factor, k++) {
+                    yr[k] = xr[i];
+                    yi[k] = xi[i];
+                }
+                this.next = i - n;
+                return k;
+            }
+        };
+    }
+
+    /**
+     * Returns a stage replacing every sample by its modulus in the real part
+     * and its phase, in <i>[-π, π]</i>, in the imaginary part. The modulus
+     * is taken in the default mode of {@link ComplexMeasure}.
+     *
+     * @return  the stage.
+     */
+    public static SignalPipeline.Stage magnitudePhase() {
+        return (in, n, out) -> {
+            double[] xr = in.re(), xi = in.im(), yr = out.re(), yi = out.im();
+            boolean fast = ComplexMeasure.defaultMode() == ComplexMeasure.Mode.FAST;
+            for (int i = 0; i < n; i++) {
+                double x = xr[i], y = xi[i];
+                yr[i] = fast ? Math.sqrt(x*x + y*y) : ComplexMeasure.accurateModulus(x, y);
+                yi[i] = Math.atan2(y, x);
+            }
+            return n;
+        };
+    }
+}
@@ -0,0 +1,173 @@
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of the <i>n</i>-th roots of unity <i>e^(2πik/n)</i>, kept as
+ * tables of cosines and sines per <i>n</i>. The cache holds at most a given
+ * number of table entries in total and evicts the least recently used tables
+ * first; a table larger than the whole cache is computed but not kept.
+ *
+ * All methods are thread-safe. Tables are never modified once built.
+ */
+public class UnitRoots {
+
+    /**
+     * The cosines and sines of <i>2πk/n</i> for <i>k = 0 … n-1</i>.
+     */
+    public static final class Table {
+        final int n;
+        final double[] cos;
+        final double[] sin;
+
+        Table(int n) {
+            this.n = n;
+            this.cos = new double[n];
+            this.sin = new double[n];
+            for (int k = 0; k < n; k++) {
+                // reduce to the first quadrant, so that symmetric roots are exactly symmetric
+                int q = (int) (4L*k / n);
+                long rem = 4L*k - (long) q*n;
+                double c = quarterCos(rem, n), s = quarterCos(n - rem, n);
+                switch (q) {
+                    case 0: this.cos[k] = c; this.sin[k] = s; break;
+                    case 1: this.cos[k] = -s; this.sin[k] = c; break;
+                    case 2: this.cos[k] = -c; this.sin[k] = -s; break;
+                    default: this.cos[k] = s; this.sin[k] = -c; break;
+                }
+                this.cos[k] += 0.0;
+                this.sin[k] += 0.0;
+            }
+        }
+
+        public int length() {
+            return this.n;
+        }
+
+        public double cos(int k) {
+            return this.cos[Math.floorMod(k, this.n)];
+        }
+
+        public double sin(int k) {
+            return this.sin[Math.floorMod(k, this.n)];
+        }
+
+        /** Returns cos(π/2 · rem/n) for 0 <= rem <= n, through the sine near π/2. */
+        private static double quarterCos(long rem, long n) {
+            if (2*rem <= n)
+                return Math.cos(Math.PI/2 * rem / n);
+            return Math.sin(Math.PI/2 * (n - rem) / n);
+        }
+    }
+
+    private static final UnitRoots SHARED = new UnitRoots(Integer.getInteger("complex.unitRoots.capacity", 1 << 22));
+
+    private final long capacity;
+    private final LinkedHashMap<Integer, Table> tables = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Creates a cache holding at most <i>capacity</i> roots in total.
+     * @param   capacity    the maximum total length of the cached tables.
+     */
+    public UnitRoots(long capacity) {
+        if (capacity < 0)
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * Returns the cache shared by the library. Its capacity is read from the
+     * system property {@code complex.unitRoots.capacity}.
+     * @return  the shared cache.
+     */
+    public static UnitRoots shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the table of the <i>n</i>-th roots of unity.
+     * @param   n   the order of the roots, at least 1.
+     * @return  the cached or newly computed table.
+     */
+    public Table table(int n) {
+        if (n < 1)
+            throw new IllegalArgumentException("order must be positive: " + n);
+        synchronized (this) {
+            Table table = this.tables.get(n);
+            if (table != null) {
+                this.hits++;
+                return table;
+            }
+            this.misses++;
+        }
+
+        Table table = new Table(n);
+        if (n > this.capacity)
+            return table;
+
+        synchronized (this) {
+            Table existing = this.tables.putIfAbsent(n, table);
+            if (existing != null)
+                return existing;
+            this.size += n;
+            Iterator<Map.Entry<Integer, Table>> eldest = this.tables.entrySet().iterator();
+            while (this.size > this.capacity) {
+                Table evicted = eldest.next().getValue();
+                eldest.remove();
+                this.size -= evicted.n;
+                this.evictions++;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Returns the root <i>e^(2πik/n)</i>, with its rectangular components
+     * already computed.
+     *
+     * @param   n   the order of the root, at least 1.
+     * @param   k   the index of the root; any integer, taken modulo <i>n</i>.
+     *
+     * @return  the root as a complex number in polar form.
+     */
+    public Polar root(int n, int k) {
+        Table table = this.table(n);
+        k = Math.floorMod(k, n);
+        return new Polar(1, 2*Math.PI*k / n, table.cos[k], table.sin[k]);
+    }
+
+    public synchronized long hits() {
+        return this.hits;
+    }
+
+    public synchronized long misses() {
+        return this.misses;
+    }
+
+    public synchronized long evictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Returns the total length of the cached tables.
+     * @return  the number of cached roots.
+     */
+    public synchronized long size() {
+        return this.size;
+    }
+
+    public synchronized void clear() {
+        this.tables.clear();
+        this.size = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "UnitRoots[tables=" + this.tables.size() + ", size=" + this.size + "/" + this.capacity
+                + ", hits=" + this.hits + ", misses=" + this.misses + ", evictions=" + this.evictions + "]";
+    }
+}
@@ -0,0 +1,185 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The SIMD implementation of {@link ComplexKernels} on the incubating Vector
+ * API. It needs {@code --add-modules jdk.incubator.vector} both to compile and
+ * to run; {@link ComplexKernels#best()} loads it when it can. The lanes
+ * perform the same operations in the same order as {@link ScalarKernels}, so
+ * both give identical results. Leftover elements are handled by the scalar
+ * kernels, and so are moduli unless {@link ComplexMeasure} is in its
+ * {@code FAST} mode, the lanes having no scaled square root.
+ */
+final class VectorKernels implements ComplexKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+
+    // for interleaved layouts: the real part of each pair in both lanes, the
+    // imaginary part in both lanes, the pair swapped, and alternating signs
+    private static final VectorShuffle<Double> REAL = VectorShuffle.fromOp(SPECIES, i -> i & ~1);
+    private static final VectorShuffle<Double> IMAG = VectorShuffle.fromOp(SPECIES, i -> i | 1);
+    private static final VectorShuffle<Double> SWAP = VectorShuffle.fromOp(SPECIES, i -> i ^ 1);
+    private static final DoubleVector MINUS_PLUS = DoubleVector.fromArray(SPECIES, alternate(-1, 1), 0);
+    private static final DoubleVector PLUS_MINUS = DoubleVector.fromArray(SPECIES, alternate(1, -1), 0);
+
+    // gathers the real and the imaginary parts of LANES interleaved elements
+    private static final int[] EVEN = new int[LANES];
+    private static final int[] ODD = new int[LANES];
+    static {
+        for (int i = 0; i < LANES; i++) {
+            EVEN[i] = 2*i;
+            ODD[i] = 2*i + 1;
+        }
+    }
+
+    private static final ScalarKernels SCALAR = ScalarKernels.INSTANCE;
+
+    VectorKernels() {
+        if (LANES < 2)
+            throw new UnsupportedOperationException("no vector shape with at least two double lanes");
+    }
+
+    private static double[] alternate(double even, double odd) {
+        double[] values = new double[LANES];
+        for (int i = 0; i < LANES; i++)
+            values[i] = i % 2 == 0 ? even : odd;
+        return values;
+    }
+
+    public String name() {
+        return "vector" + SPECIES.vectorBitSize();
+    }
+
+    public void PlusC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            DoubleVector.fromArray(SPECIES, ar, i).add(DoubleVector.fromArray(SPECIES, br, i)).intoArray(dr, i);
+            DoubleVector.fromArray(SPECIES, ai, i).add(DoubleVector.fromArray(SPECIES, bi, i)).intoArray(di, i);
+        }
+        SCALAR.PlusC(ar, ai, br, bi, dr, di, i, to);
+    }
+
+    public void MinusC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            DoubleVector.fromArray(SPECIES, ar, i).sub(DoubleVector.fromArray(SPECIES, br, i)).intoArray(dr, i);
+            DoubleVector.fromArray(SPECIES, ai, i).sub(DoubleVector.fromArray(SPECIES, bi, i)).intoArray(di, i);
+        }
+        SCALAR.MinusC(ar, ai, br, bi, dr, di, i, to);
+    }
+
+    public void TimesC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, ar, i), y = DoubleVector.fromArray(SPECIES, ai, i);
+            DoubleVector u = DoubleVector.fromArray(SPECIES, br, i), v = DoubleVector.fromArray(SPECIES, bi, i);
+            x.mul(u).sub(y.mul(v)).intoArray(dr, i);
+            x.mul(v).add(y.mul(u)).intoArray(di, i);
+        }
+        SCALAR.TimesC(ar, ai, br, bi, dr, di, i, to);
+    }
+
+    public void DivideC(double[] ar, double[] ai, double[] br, double[] bi, double[] dr, double[] di, int from, int to) {
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, ar, i), y = DoubleVector.fromArray(SPECIES, ai, i);
+            DoubleVector u = DoubleVector.fromArray(SPECIES, br, i), v = DoubleVector.fromArray(SPECIES, bi, i);
+            // Smith's algorithm, with both branches of ComplexFunctions.divide selected per lane
+            VectorMask<Double> m = u.abs().compare(VectorOperators.GE, v.abs());
+            DoubleVector p = v.blend(u, m), q = u.blend(v, m), s = y.blend(x, m), t = x.blend(y, m);
+            DoubleVector r = q.div(p), d = p.add(q.mul(r)), sr = s.mul(r);
+            s.add(t.mul(r)).div(d).intoArray(dr, i);
+            sr.sub(t).blend(t.sub(sr), m).div(d).intoArray(di, i);
+        }
+        SCALAR.DivideC(ar, ai, br, bi, dr, di, i, to);
+    }
+
+    public void conjugate(double[] ar, double[] ai, double[] dr, double[] di, int from, int to) {
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            DoubleVector.fromArray(SPECIES, ar, i).intoArray(dr, i);
+            DoubleVector.fromArray(SPECIES, ai, i).neg().intoArray(di, i);
+        }
+        SCALAR.conjugate(ar, ai, dr, di, i, to);
+    }
+
+    public void modulus(double[] ar, double[] ai, double[] dst, int from, int to) {
+        // the lanes take the unscaled square root, which is only the FAST mode
+        if (ComplexMeasure.defaultMode() != ComplexMeasure.Mode.FAST) {
+            SCALAR.modulus(ar, ai, dst, from, to);
+            return;
+        }
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, ar, i), y = DoubleVector.fromArray(SPECIES, ai, i);
+            x.mul(x).add(y.mul(y)).sqrt().intoArray(dst, i);
+        }
+        SCALAR.modulus(ar, ai, dst, i, to);
+    }
+
+    public void PlusCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        int i = 2*from, bound = 2*from + SPECIES.loopBound(2*(to - from));
+        for (; i < bound; i += LANES)
+            DoubleVector.fromArray(SPECIES, a, i).add(DoubleVector.fromArray(SPECIES, b, i)).intoArray(dst, i);
+        SCALAR.PlusCInterleaved(a, b, dst, i / 2, to);
+    }
+
+    public void MinusCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        int i = 2*from, bound = 2*from + SPECIES.loopBound(2*(to - from));
+        for (; i < bound; i += LANES)
+            DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i)).intoArray(dst, i);
+        SCALAR.MinusCInterleaved(a, b, dst, i / 2, to);
+    }
+
+    public void TimesCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        int i = 2*from, bound = 2*from + SPECIES.loopBound(2*(to - from));
+        for (; i < bound; i += LANES) {
+            DoubleVector p = DoubleVector.fromArray(SPECIES, a, i), q = DoubleVector.fromArray(SPECIES, b, i);
+            // (x, y)(u, v) = (xu - yv, yu + xv)
+            DoubleVector cross = p.rearrange(SWAP).mul(q.rearrange(IMAG)).mul(MINUS_PLUS);
+            p.mul(q.rearrange(REAL)).add(cross).intoArray(dst, i);
+        }
+        SCALAR.TimesCInterleaved(a, b, dst, i / 2, to);
+    }
+
+    public void DivideCInterleaved(double[] a, double[] b, double[] dst, int from, int to) {
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            // Smith's algorithm needs the components apart, so gather them as in the split layout
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, 2*i, EVEN, 0), y = DoubleVector.fromArray(SPECIES, a, 2*i, ODD, 0);
+            DoubleVector u = DoubleVector.fromArray(SPECIES, b, 2*i, EVEN, 0), v = DoubleVector.fromArray(SPECIES, b, 2*i, ODD, 0);
+            VectorMask<Double> m = u.abs().compare(VectorOperators.GE, v.abs());
+            DoubleVector p = v.blend(u, m), q = u.blend(v, m), s = y.blend(x, m), t = x.blend(y, m);
+            DoubleVector r = q.div(p), d = p.add(q.mul(r)), sr = s.mul(r);
+            DoubleVector re = s.add(t.mul(r)).div(d), im = sr.sub(t).blend(t.sub(sr), m).div(d);
+            re.intoArray(dst, 2*i, EVEN, 0);
+            im.intoArray(dst, 2*i, ODD, 0);
+        }
+        SCALAR.DivideCInterleaved(a, b, dst, i, to);
+    }
+
+    public void conjugateInterleaved(double[] a, double[] dst, int from, int to) {
+        int i = 2*from, bound = 2*from + SPECIES.loopBound(2*(to - from));
+        for (; i < bound; i += LANES)
+            DoubleVector.fromArray(SPECIES, a, i).mul(PLUS_MINUS).intoArray(dst, i);
+        SCALAR.conjugateInterleaved(a, dst, i / 2, to);
+    }
+
+    public void modulusInterleaved(double[] a, double[] dst, int from, int to) {
+        if (ComplexMeasure.defaultMode() != ComplexMeasure.Mode.FAST) {
+            SCALAR.modulusInterleaved(a, dst, from, to);
+            return;
+        }
+        int i = from, bound = from + SPECIES.loopBound(to - from);
+        for (; i < bound; i += LANES) {
+            DoubleVector x = DoubleVector.fromArray(SPECIES, a, 2*i, EVEN, 0);
+            DoubleVector y = DoubleVector.fromArray(SPECIES, a, 2*i, ODD, 0);
+            x.mul(x).add(y.mul(y)).sqrt().intoArray(dst, i);
+        }
+        SCALAR.modulusInterleaved(a, dst, i, to);
+    }
+}